@@ -0,0 +1,61 @@
+/**
+ * This class runs the A* algorithm on a CSRGraph: a Dijkstra search whose queue
+ * orders the nodes by their distance from the source plus an estimate of their
+ * distance to the target, so nodes in the direction of the target are settled
+ * first and the search reaches the target after settling far fewer nodes.
+ *
+ * The estimate must be a lower bound of the real distance (admissible) and must
+ * not drop by more than the weight of an edge along that edge (consistent):
+ * estimate(u, t) <= weight(u, v) + estimate(v, t). Then every node is settled
+ * with its shortest distance, as in Dijkstra's algorithm. The straight-line
+ * distance between coordinates is consistent when no edge is shorter than the
+ * straight line between its nodes, and so are the bounds of Landmarks.
+ */
+public class AStarSearch extends DijkstraSearch {
+
+	/**
+	 * Lower bound of the distance between two nodes, by their ids.
+	 */
+	public interface Heuristic {
+		// returns a lower bound of the distance from the node from to the node to
+		double estimate(int from, int to);
+	}
+
+	// the heuristic and target of the current search
+	protected Heuristic heuristic;
+	protected int target = -1;
+
+	/**
+	 * Creates the search state for a graph.
+	 *
+	 * @param graph the graph to search
+	 */
+	public AStarSearch(CSRGraph<?> graph) {
+		super(graph);
+	}
+
+	/**
+	 * Runs a search from source until the node target is settled, guided by the
+	 * provided heuristic.
+	 *
+	 * @param source    the id of the node to search from
+	 * @param target    the id of the node to search for
+	 * @param heuristic a consistent lower bound of the distances between nodes
+	 * @return true if target is reachable from source
+	 */
+	public boolean run(int source, int target, Heuristic heuristic) {
+		this.heuristic = heuristic;
+		this.target = target;
+		try {
+			return run(source, target);
+		} finally {
+			this.heuristic = null;
+		}
+	}
+
+	@Override
+	protected double potential(int node) {
+		return heuristic == null ? 0 : heuristic.estimate(node, target);
+	}
+
+}
@@ -33,6 +33,10 @@ public class BaseGraph <NodeType, EdgeType extends Number> {
     protected int edgeCount = 0;
     // Edges can be retrieved through the edge lists in either connected node
 
+    // Incremented by every change to the nodes or edges, so that views built
+    // from this graph (like DijkstraGraph's CSRGraph) can tell they are stale
+    protected int modCount = 0;
+
     
     /**
      * Insert a new node into the graph.
@@ -45,6 +49,7 @@ public class BaseGraph <NodeType, EdgeType extends Number> {
     public boolean insertNode(NodeType data) {
         if(nodes.containsKey(data)) return false; // throws NPE when data's null
         nodes.put(data,new Node(data));
+        modCount++;
         return true;
     }
     
@@ -67,6 +72,7 @@ public class BaseGraph <NodeType, EdgeType extends Number> {
         // remove all edges leaving neighboring nodes toward this one
         for(Edge edge : oldNode.edgesEntering)
             edge.predecessor.edgesLeaving.remove(edge);
+        modCount++;
         return true;
     }
 
@@ -118,6 +124,7 @@ public class BaseGraph <NodeType, EdgeType extends Number> {
             predNode.edgesLeaving.add(newEdge);
             succNode.edgesEntering.add(newEdge);
         }
+        modCount++;
         return true;
     }
     
@@ -138,6 +145,7 @@ public class BaseGraph <NodeType, EdgeType extends Number> {
             oldEdge.successor.edgesEntering.remove(oldEdge);
             // and decrement the edge count before removing
             this.edgeCount--;
+            modCount++;
             return true;
         } catch(NoSuchElementException e) {
             // when no such edge exists, return false instead
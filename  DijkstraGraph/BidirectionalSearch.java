@@ -0,0 +1,130 @@
+/**
+ * This class runs a bidirectional Dijkstra search on a CSRGraph: a forward
+ * search from the source and a backward search from the target take turns, each
+ * settling one node at a time. Whenever either search improves the distance of
+ * a node the other search has reached, the two partial paths through that node
+ * form a path from source to target, and the shortest of these paths is kept.
+ * The searches stop once the distances of the next nodes of both queues add up
+ * to at least the length of that path, since any path through an unsettled node
+ * would be at least that long.
+ *
+ * Each search only explores a ball of about half the radius of the one explored
+ * by a one-sided search, which settles much fewer nodes on large graphs. Like
+ * DijkstraSearch, a BidirectionalSearch allocates nothing per query and must not
+ * be used by more than one thread at a time.
+ */
+public class BidirectionalSearch {
+
+	protected final DijkstraSearch forwardSearch;
+	protected final DijkstraSearch backwardSearch;
+
+	// the length of the shortest path found so far, and the node where it meets
+	protected double bestDistance = Double.POSITIVE_INFINITY;
+	protected int meetingNode = -1;
+
+	/**
+	 * Creates the search state for a graph.
+	 *
+	 * @param graph the graph to search
+	 */
+	public BidirectionalSearch(CSRGraph<?> graph) {
+		forwardSearch = new DijkstraSearch(graph, false) {
+			@Override
+			protected void improved(int node) {
+				meet(node, distance[node] + backwardSearch.distance(node));
+			}
+		};
+		backwardSearch = new DijkstraSearch(graph, true) {
+			@Override
+			protected void improved(int node) {
+				meet(node, forwardSearch.distance(node) + distance[node]);
+			}
+		};
+	}
+
+	// keeps the path through node when it is shorter than the best one so far
+	private void meet(int node, double pathDistance) {
+		if (pathDistance < bestDistance) {
+			bestDistance = pathDistance;
+			meetingNode = node;
+		}
+	}
+
+	/**
+	 * @return the graph this search runs on
+	 */
+	public CSRGraph<?> getGraph() {
+		return forwardSearch.getGraph();
+	}
+
+	/**
+	 * Searches for the shortest path from source to target.
+	 *
+	 * @param source the id of the node to search from
+	 * @param target the id of the node to search for
+	 * @return true if target is reachable from source
+	 */
+	public boolean run(int source, int target) {
+		// forget both previous searches before either one starts meeting the other
+		forwardSearch.reset();
+		backwardSearch.reset();
+		bestDistance = Double.POSITIVE_INFINITY;
+		meetingNode = -1;
+		forwardSearch.start(source);
+		backwardSearch.start(target);
+		// a search that is done has settled every node it can reach, so no shorter
+		// path can be found once either search is done
+		while (!forwardSearch.isDone() && !backwardSearch.isDone()) {
+			double forwardNext = forwardSearch.peekDistance();
+			double backwardNext = backwardSearch.peekDistance();
+			if (forwardNext + backwardNext >= bestDistance)
+				break;
+			// advance the search with the smaller radius, to keep both balls alike
+			if (forwardNext <= backwardNext)
+				forwardSearch.settleNext();
+			else
+				backwardSearch.settleNext();
+		}
+		return meetingNode >= 0;
+	}
+
+	/**
+	 * @return the length of the shortest path found by the last run, or infinity
+	 *         when there is none
+	 */
+	public double distance() {
+		return bestDistance;
+	}
+
+	/**
+	 * @return the id of a node on the shortest path found by the last run, where
+	 *         the forward and backward paths meet, or -1 when there is no path
+	 */
+	public int meetingNode() {
+		return meetingNode;
+	}
+
+	/**
+	 * @return the forward search, whose predecessors lead from the meeting node
+	 *         back to the source
+	 */
+	public DijkstraSearch getForward() {
+		return forwardSearch;
+	}
+
+	/**
+	 * @return the backward search, whose predecessors lead from the meeting node
+	 *         on to the target
+	 */
+	public DijkstraSearch getBackward() {
+		return backwardSearch;
+	}
+
+	/**
+	 * @return the number of nodes settled by both searches of the last run
+	 */
+	public int settledCount() {
+		return forwardSearch.settledCount() + backwardSearch.settledCount();
+	}
+
+}
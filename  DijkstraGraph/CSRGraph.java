@@ -0,0 +1,222 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This class is a frozen compressed sparse row (CSR) view of a BaseGraph. The
+ * nodes are numbered 0 to getNodeCount() - 1, and the edges leaving node u are
+ * stored at the positions offsets[u] to offsets[u + 1] - 1 of the targets and
+ * weights arrays, so iterating over them is a sequential scan of two primitive
+ * arrays instead of a walk through a linked list of edge objects with boxed
+ * weights. The edges entering each node are stored the same way in
+ * reverseOffsets, sources, and reverseWeights, for searches that run backward.
+ *
+ * A CSRGraph does not change when the graph it was built from changes;
+ * DijkstraGraph.toCSR rebuilds it when needed.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class CSRGraph<NodeType> {
+
+	// node data by id, and ids by node data
+	protected final Object[] data;
+	protected final HashMap<NodeType, Integer> ids;
+
+	// edges leaving node u: targets[offsets[u]] to targets[offsets[u + 1] - 1]
+	protected final int[] offsets;
+	protected final int[] targets;
+	protected final double[] weights;
+
+	// edges entering node v: sources[reverseOffsets[v]] to
+	// sources[reverseOffsets[v + 1] - 1]
+	protected final int[] reverseOffsets;
+	protected final int[] sources;
+	protected final double[] reverseWeights;
+
+	/**
+	 * Builds the CSR view of a graph, in O(V + E) time.
+	 *
+	 * @param graph the graph to copy the nodes and edges of
+	 * @return the CSR view of graph
+	 */
+	public static <NodeType, EdgeType extends Number> CSRGraph<NodeType> from(BaseGraph<NodeType, EdgeType> graph) {
+		return new CSRGraph<>(graph);
+	}
+
+	protected <EdgeType extends Number> CSRGraph(BaseGraph<NodeType, EdgeType> graph) {
+		List<BaseGraph<NodeType, EdgeType>.Node> nodes = new ArrayList<>(graph.nodes.values());
+		int nodeCount = nodes.size();
+		data = new Object[nodeCount];
+		ids = new HashMap<>(Math.max(16, (int) (nodeCount / 0.75f) + 1));
+		offsets = new int[nodeCount + 1];
+		reverseOffsets = new int[nodeCount + 1];
+
+		// number the nodes and count the edges leaving and entering each of them
+		for (int id = 0; id < nodeCount; id++) {
+			BaseGraph<NodeType, EdgeType>.Node node = nodes.get(id);
+			data[id] = node.data;
+			ids.put(node.data, id);
+			offsets[id + 1] = offsets[id] + node.edgesLeaving.size();
+			reverseOffsets[id + 1] = reverseOffsets[id] + node.edgesEntering.size();
+		}
+
+		// copy the edges into the arrays, in the order of the edge lists
+		targets = new int[offsets[nodeCount]];
+		weights = new double[offsets[nodeCount]];
+		sources = new int[reverseOffsets[nodeCount]];
+		reverseWeights = new double[reverseOffsets[nodeCount]];
+		for (int id = 0; id < nodeCount; id++) {
+			BaseGraph<NodeType, EdgeType>.Node node = nodes.get(id);
+			int edge = offsets[id];
+			for (BaseGraph<NodeType, EdgeType>.Edge leaving : node.edgesLeaving) {
+				targets[edge] = ids.get(leaving.successor.data);
+				weights[edge] = leaving.data.doubleValue();
+				edge++;
+			}
+			edge = reverseOffsets[id];
+			for (BaseGraph<NodeType, EdgeType>.Edge entering : node.edgesEntering) {
+				sources[edge] = ids.get(entering.predecessor.data);
+				reverseWeights[edge] = entering.data.doubleValue();
+				edge++;
+			}
+		}
+	}
+
+	/**
+	 * Creates a graph with the same nodes and ids as nodes, but with the provided
+	 * edge arrays instead of its edges.
+	 */
+	protected CSRGraph(CSRGraph<NodeType> nodes, int[] offsets, int[] targets, double[] weights,
+			int[] reverseOffsets, int[] sources, double[] reverseWeights) {
+		this.data = nodes.data;
+		this.ids = nodes.ids;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.weights = weights;
+		this.reverseOffsets = reverseOffsets;
+		this.sources = sources;
+		this.reverseWeights = reverseWeights;
+	}
+
+	/**
+	 * Returns a graph with the same nodes and ids as nodes, but with the provided
+	 * edge arrays, which are laid out like the ones of this class. It is used for
+	 * graphs derived from another one, like the upward graph of a
+	 * ContractionHierarchy, whose searches run on it with node ids shared with the
+	 * original graph.
+	 */
+	protected static <NodeType> CSRGraph<NodeType> withEdges(CSRGraph<NodeType> nodes, int[] offsets, int[] targets,
+			double[] weights, int[] reverseOffsets, int[] sources, double[] reverseWeights) {
+		return new CSRGraph<>(nodes, offsets, targets, weights, reverseOffsets, sources, reverseWeights);
+	}
+
+	/**
+	 * Return the number of nodes in the graph
+	 *
+	 * @return the number of nodes in the graph
+	 */
+	public int getNodeCount() {
+		return data.length;
+	}
+
+	/**
+	 * Return the number of edges in the graph.
+	 *
+	 * @return the number of edges in the graph
+	 */
+	public int getEdgeCount() {
+		return targets.length;
+	}
+
+	/**
+	 * Returns the id of the node with the provided data.
+	 *
+	 * @param nodeData the data item stored in the node
+	 * @return the id of that node, or -1 when no node stores nodeData
+	 */
+	public int id(NodeType nodeData) {
+		Integer id = ids.get(nodeData);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Returns the data stored in the node with the provided id.
+	 *
+	 * @param id the id of the node
+	 * @return the data item stored in that node
+	 * @throws NoSuchElementException when no node has this id
+	 */
+	@SuppressWarnings("unchecked")
+	public NodeType nodeData(int id) {
+		if (id < 0 || id >= data.length)
+			throw new NoSuchElementException("No node with id " + id);
+		return (NodeType) data[id];
+	}
+
+	/**
+	 * Returns the number of edges leaving the node with the provided id.
+	 */
+	public int outDegree(int id) {
+		return offsets[id + 1] - offsets[id];
+	}
+
+	/**
+	 * Returns the number of edges entering the node with the provided id.
+	 */
+	public int inDegree(int id) {
+		return reverseOffsets[id + 1] - reverseOffsets[id];
+	}
+
+	/**
+	 * Returns the offsets of the edges leaving each node: the edges leaving node
+	 * u are at the positions offsets[u] to offsets[u + 1] - 1 of getTargets() and
+	 * getWeights(). The returned array is shared and must not be modified.
+	 */
+	public int[] getOffsets() {
+		return offsets;
+	}
+
+	/**
+	 * Returns the ids of the nodes that the edges end at. The returned array is
+	 * shared and must not be modified.
+	 */
+	public int[] getTargets() {
+		return targets;
+	}
+
+	/**
+	 * Returns the weights of the edges. The returned array is shared and must not
+	 * be modified.
+	 */
+	public double[] getWeights() {
+		return weights;
+	}
+
+	/**
+	 * Returns the offsets of the edges entering each node: the edges entering
+	 * node v are at the positions reverseOffsets[v] to reverseOffsets[v + 1] - 1
+	 * of getSources() and getReverseWeights(). The returned array is shared and
+	 * must not be modified.
+	 */
+	public int[] getReverseOffsets() {
+		return reverseOffsets;
+	}
+
+	/**
+	 * Returns the ids of the nodes that the entering edges start at. The returned
+	 * array is shared and must not be modified.
+	 */
+	public int[] getSources() {
+		return sources;
+	}
+
+	/**
+	 * Returns the weights of the entering edges. The returned array is shared and
+	 * must not be modified.
+	 */
+	public double[] getReverseWeights() {
+		return reverseWeights;
+	}
+
+}
@@ -0,0 +1,615 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * This class is a contraction hierarchy of a CSRGraph, which answers shortest
+ * path queries by settling only a few hundred nodes even on continental road
+ * networks.
+ *
+ * Preprocessing contracts the nodes one after the other, from the least to the
+ * most important, which gives every node a rank. Contracting a node v removes it
+ * from the remaining graph, and for every pair of remaining neighbors u and w
+ * whose shortest path runs through v, a shortcut edge u -> w with the length of
+ * u -> v -> w is added, unless a local witness search finds another path from u
+ * to w that is shorter. The importance of a node is four times its edge
+ * difference (the shortcuts its contraction would add minus the edges it removes)
+ * plus the number of its neighbors that are already contracted. Each round contracts all nodes
+ * that are less important than all of their remaining neighbors at once: these
+ * nodes are not adjacent, so their witness searches and those updating the
+ * importance of their neighbors run in parallel on all cores.
+ *
+ * Every shortest path of the graph then has a version in the graph with
+ * shortcuts that first only climbs to higher ranked nodes and then only
+ * descends. A query therefore runs a Dijkstra search upward from the source and
+ * one upward along reversed edges from the target, and the shortest path passes
+ * through the node where the sum of both distances is smallest. Its shortcuts are
+ * unpacked into the original edges through the middle node each shortcut
+ * skips.
+ *
+ * The query state is reused between queries, so a ContractionHierarchy must not
+ * be queried by more than one thread at a time.
+ */
+public class ContractionHierarchy {
+
+	// witness searches give up after settling this many nodes, and the shortcut is
+	// added without a witness then, which is always correct but may be redundant
+	private static final int WITNESS_SETTLE_LIMIT = 500;
+	// the witness searches that only estimate the importance of a node settle fewer
+	// nodes, as they run again for every neighbor of each contracted node
+	private static final int PRIORITY_SETTLE_LIMIT = 20;
+
+	protected final CSRGraph<?> graph;
+	protected final int[] rank; // position in the contraction order by id
+	// the edges to higher ranked nodes (forward arrays), and the edges from higher
+	// ranked nodes (reverse arrays), including shortcuts
+	protected final CSRGraph<?> upward;
+	// the node skipped by each edge of upward, or -1 for edges of the graph
+	protected final int[] forwardMiddles;
+	protected final int[] backwardMiddles;
+	protected final int shortcutCount;
+
+	// query state: the upward searches from the source and target, and where they
+	// meet on the shortest path found so far
+	protected final DijkstraSearch forwardSearch;
+	protected final DijkstraSearch backwardSearch;
+	protected double bestDistance = Double.POSITIVE_INFINITY;
+	protected int meetingNode = -1;
+	protected int source = -1;
+
+	/**
+	 * Contracts all nodes of a graph, using all cores.
+	 *
+	 * @param graph the graph to build the hierarchy for
+	 */
+	public ContractionHierarchy(CSRGraph<?> graph) {
+		this.graph = graph;
+		Contraction contraction = new Contraction(graph);
+		contraction.contractAll();
+		this.rank = contraction.rank;
+		this.shortcutCount = contraction.shortcutCount;
+
+		// the edges each node had left when it was contracted all lead to nodes
+		// contracted later, so they are its edges to higher ranked nodes
+		int nodeCount = graph.getNodeCount();
+		int[] offsets = new int[nodeCount + 1];
+		int[] reverseOffsets = new int[nodeCount + 1];
+		for (int node = 0; node < nodeCount; node++) {
+			offsets[node + 1] = offsets[node] + contraction.upOut[node].size;
+			reverseOffsets[node + 1] = reverseOffsets[node] + contraction.upIn[node].size;
+		}
+		int[] targets = new int[offsets[nodeCount]];
+		double[] weights = new double[offsets[nodeCount]];
+		forwardMiddles = new int[offsets[nodeCount]];
+		int[] sources = new int[reverseOffsets[nodeCount]];
+		double[] reverseWeights = new double[reverseOffsets[nodeCount]];
+		backwardMiddles = new int[reverseOffsets[nodeCount]];
+		for (int node = 0; node < nodeCount; node++) {
+			contraction.upOut[node].copyTo(targets, weights, forwardMiddles, offsets[node]);
+			contraction.upIn[node].copyTo(sources, reverseWeights, backwardMiddles, reverseOffsets[node]);
+		}
+		upward = CSRGraph.withEdges(graph, offsets, targets, weights, reverseOffsets, sources, reverseWeights);
+
+		forwardSearch = new DijkstraSearch(upward, false) {
+			@Override
+			protected void improved(int node) {
+				meet(node, distance[node] + backwardSearch.distance(node));
+			}
+		};
+		backwardSearch = new DijkstraSearch(upward, true) {
+			@Override
+			protected void improved(int node) {
+				meet(node, forwardSearch.distance(node) + distance[node]);
+			}
+		};
+	}
+
+	// keeps the path through node when it is shorter than the best one so far
+	private void meet(int node, double pathDistance) {
+		if (pathDistance < bestDistance) {
+			bestDistance = pathDistance;
+			meetingNode = node;
+		}
+	}
+
+	/**
+	 * @return the graph this hierarchy was built for
+	 */
+	public CSRGraph<?> getGraph() {
+		return graph;
+	}
+
+	/**
+	 * @return the number of shortcut edges added by the preprocessing
+	 */
+	public int getShortcutCount() {
+		return shortcutCount;
+	}
+
+	/**
+	 * @return the position of the node id in the contraction order
+	 */
+	public int rank(int id) {
+		return rank[id];
+	}
+
+	/**
+	 * Searches for the shortest path from source to target.
+	 *
+	 * @param source the id of the node to search from
+	 * @param target the id of the node to search for
+	 * @return true if target is reachable from source
+	 */
+	public boolean run(int source, int target) {
+		forwardSearch.reset();
+		backwardSearch.reset();
+		bestDistance = Double.POSITIVE_INFINITY;
+		meetingNode = -1;
+		this.source = source;
+		forwardSearch.start(source);
+		backwardSearch.start(target);
+		// unlike in BidirectionalSearch, the upward searches cannot stop when their
+		// radii add up to the best distance, but only once each radius reaches it
+		while (true) {
+			double forwardNext = forwardSearch.peekDistance();
+			double backwardNext = backwardSearch.peekDistance();
+			if (forwardNext >= bestDistance && backwardNext >= bestDistance)
+				break;
+			if (forwardNext <= backwardNext)
+				forwardSearch.settleNext();
+			else
+				backwardSearch.settleNext();
+		}
+		return meetingNode >= 0;
+	}
+
+	/**
+	 * @return the length of the shortest path found by the last run, or infinity
+	 *         when there is none
+	 */
+	public double distance() {
+		return bestDistance;
+	}
+
+	/**
+	 * @return the number of nodes settled by both searches of the last run
+	 */
+	public int settledCount() {
+		return forwardSearch.settledCount() + backwardSearch.settledCount();
+	}
+
+	/**
+	 * Returns the ids of the nodes along the shortest path found by the last run,
+	 * from its source to its target, with all shortcuts unpacked.
+	 *
+	 * @return the ids along the path, empty when there is none
+	 */
+	public int[] path() {
+		return unpack(null);
+	}
+
+	/**
+	 * Returns the distance from the source of each node along the shortest path
+	 * found by the last run, in the order of path().
+	 *
+	 * @return the distances along the path, empty when there is none
+	 */
+	public double[] pathDistances() {
+		double[][] distances = new double[1][];
+		unpack(distances);
+		return distances[0];
+	}
+
+	/**
+	 * Helper method that unpacks the path found by the last run into the ids of
+	 * its nodes, and stores their distances in distances[0] when distances is not
+	 * null.
+	 */
+	private int[] unpack(double[][] distances) {
+		if (meetingNode < 0) {
+			if (distances != null)
+				distances[0] = new double[0];
+			return new int[0];
+		}
+		// the hierarchy path: up from the source to the meeting node, then down
+		int upCount = 0;
+		for (int node = meetingNode; node >= 0; node = forwardSearch.predecessor(node)) {
+			upCount++;
+		}
+		int downCount = 0;
+		for (int node = backwardSearch.predecessor(meetingNode); node >= 0; node = backwardSearch.predecessor(node)) {
+			downCount++;
+		}
+		int[] hierarchyPath = new int[upCount + downCount];
+		int index = upCount - 1;
+		for (int node = meetingNode; node >= 0; node = forwardSearch.predecessor(node)) {
+			hierarchyPath[index--] = node;
+		}
+		index = upCount;
+		for (int node = backwardSearch.predecessor(meetingNode); node >= 0; node = backwardSearch.predecessor(node)) {
+			hierarchyPath[index++] = node;
+		}
+
+		// replace each shortcut by the two edges it skips until only edges of the
+		// graph are left, with a stack of the nodes still to reach
+		int[] path = new int[hierarchyPath.length];
+		double[] pathDistances = new double[hierarchyPath.length];
+		int length = 1;
+		path[0] = source;
+		int[] stack = new int[16];
+		for (int i = 1; i < hierarchyPath.length; i++) {
+			int stackSize = 0;
+			stack[stackSize++] = hierarchyPath[i];
+			int current = path[length - 1];
+			while (stackSize > 0) {
+				int next = stack[stackSize - 1];
+				int edge = findEdge(current, next);
+				int middle = middle(current, next, edge);
+				if (middle < 0) {
+					if (length == path.length) {
+						path = Arrays.copyOf(path, 2 * length);
+						pathDistances = Arrays.copyOf(pathDistances, 2 * length);
+					}
+					pathDistances[length] = pathDistances[length - 1] + weight(current, next, edge);
+					path[length++] = next;
+					current = next;
+					stackSize--;
+				} else {
+					if (stackSize == stack.length)
+						stack = Arrays.copyOf(stack, 2 * stackSize);
+					stack[stackSize++] = middle;
+				}
+			}
+		}
+		if (distances != null)
+			distances[0] = Arrays.copyOf(pathDistances, length);
+		return Arrays.copyOf(path, length);
+	}
+
+	// returns the position of the edge from -> to in the forward arrays of upward
+	// when it leads up, or in the reverse arrays when it leads down
+	private int findEdge(int from, int to) {
+		if (rank[from] < rank[to]) {
+			int[] offsets = upward.getOffsets();
+			int[] targets = upward.getTargets();
+			for (int edge = offsets[from]; edge < offsets[from + 1]; edge++) {
+				if (targets[edge] == to)
+					return edge;
+			}
+		} else {
+			int[] offsets = upward.getReverseOffsets();
+			int[] sources = upward.getSources();
+			for (int edge = offsets[to]; edge < offsets[to + 1]; edge++) {
+				if (sources[edge] == from)
+					return edge;
+			}
+		}
+		throw new IllegalStateException("No edge from " + from + " to " + to + " in the hierarchy");
+	}
+
+	private int middle(int from, int to, int edge) {
+		return rank[from] < rank[to] ? forwardMiddles[edge] : backwardMiddles[edge];
+	}
+
+	private double weight(int from, int to, int edge) {
+		return rank[from] < rank[to] ? upward.getWeights()[edge] : upward.getReverseWeights()[edge];
+	}
+
+	/**
+	 * The edges leaving or entering one node during preprocessing: the nodes at
+	 * their other end, their weights, and the nodes skipped by shortcuts (or -1).
+	 */
+	private static class EdgeList {
+		int[] nodes = new int[4];
+		double[] weights = new double[4];
+		int[] middles = new int[4];
+		int size = 0;
+
+		void add(int node, double weight, int middle) {
+			if (size == nodes.length) {
+				nodes = Arrays.copyOf(nodes, 2 * size);
+				weights = Arrays.copyOf(weights, 2 * size);
+				middles = Arrays.copyOf(middles, 2 * size);
+			}
+			nodes[size] = node;
+			weights[size] = weight;
+			middles[size] = middle;
+			size++;
+		}
+
+		int indexOf(int node) {
+			for (int i = 0; i < size; i++) {
+				if (nodes[i] == node)
+					return i;
+			}
+			return -1;
+		}
+
+		// removes the edge to node, which must be in the list
+		void remove(int node) {
+			int index = indexOf(node);
+			size--;
+			nodes[index] = nodes[size];
+			weights[index] = weights[size];
+			middles[index] = middles[size];
+		}
+
+		void copyTo(int[] toNodes, double[] toWeights, int[] toMiddles, int position) {
+			System.arraycopy(nodes, 0, toNodes, position, size);
+			System.arraycopy(weights, 0, toWeights, position, size);
+			System.arraycopy(middles, 0, toMiddles, position, size);
+		}
+	}
+
+	/**
+	 * A shortcut edge found while contracting a node.
+	 */
+	private static class Shortcut {
+		final int from;
+		final int to;
+		final double weight;
+
+		Shortcut(int from, int to, double weight) {
+			this.from = from;
+			this.to = to;
+			this.weight = weight;
+		}
+	}
+
+	/**
+	 * The state of the preprocessing: the remaining graph with all shortcuts added
+	 * so far, the edges each contracted node had left, and the importance of each
+	 * node.
+	 */
+	private static class Contraction {
+		final int nodeCount;
+		final EdgeList[] out; // edges between remaining nodes, by the node they leave
+		final EdgeList[] in; // the same edges, by the node they enter
+		final EdgeList[] upOut;
+		final EdgeList[] upIn;
+		final int[] rank;
+		final boolean[] contracted;
+		final int[] priority;
+		final int[] deletedNeighbors;
+		int shortcutCount = 0;
+
+		Contraction(CSRGraph<?> graph) {
+			nodeCount = graph.getNodeCount();
+			out = new EdgeList[nodeCount];
+			in = new EdgeList[nodeCount];
+			for (int node = 0; node < nodeCount; node++) {
+				out[node] = new EdgeList();
+				in[node] = new EdgeList();
+			}
+			int[] offsets = graph.getOffsets();
+			int[] targets = graph.getTargets();
+			double[] weights = graph.getWeights();
+			for (int node = 0; node < nodeCount; node++) {
+				for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+					// loops are never part of a shortest path
+					if (targets[edge] != node)
+						addEdge(node, targets[edge], weights[edge], -1);
+				}
+			}
+			upOut = new EdgeList[nodeCount];
+			upIn = new EdgeList[nodeCount];
+			rank = new int[nodeCount];
+			contracted = new boolean[nodeCount];
+			priority = new int[nodeCount];
+			deletedNeighbors = new int[nodeCount];
+		}
+
+		// adds the edge from -> to, or lowers the weight of an existing one
+		void addEdge(int from, int to, double weight, int middle) {
+			int index = out[from].indexOf(to);
+			if (index < 0) {
+				out[from].add(to, weight, middle);
+				in[to].add(from, weight, middle);
+				if (middle >= 0)
+					shortcutCount++;
+			} else if (weight < out[from].weights[index]) {
+				out[from].weights[index] = weight;
+				out[from].middles[index] = middle;
+				int reverseIndex = in[to].indexOf(from);
+				in[to].weights[reverseIndex] = weight;
+				in[to].middles[reverseIndex] = middle;
+			}
+		}
+
+		void contractAll() {
+			forEachInChunks(nodeCount, (node, search) -> priority[node] = priority(node, search));
+			int[] remaining = IntStream.range(0, nodeCount).toArray();
+			int[] lastRound = new int[nodeCount];
+			int nextRank = 0;
+			for (int round = 1; remaining.length > 0; round++) {
+				// the nodes less important than all of their remaining neighbors, whose
+				// shortcuts are found in parallel on the graph that still holds them all
+				int[] independent = Arrays.stream(remaining).parallel().filter(this::isLocalMinimum).toArray();
+				List<List<Shortcut>> shortcuts = new ArrayList<>(independent.length);
+				for (int i = 0; i < independent.length; i++) {
+					shortcuts.add(new ArrayList<>());
+				}
+				forEachInChunks(independent.length, (i, search) -> shortcuts(independent[i], search, shortcuts.get(i)));
+				// then add the shortcuts, remove the nodes from the remaining graph and
+				// collect the neighbors whose importance changed
+				int[] neighbors = new int[16];
+				int neighborCount = 0;
+				for (int i = 0; i < independent.length; i++) {
+					int node = independent[i];
+					rank[node] = nextRank++;
+					contracted[node] = true;
+					for (Shortcut shortcut : shortcuts.get(i)) {
+						addEdge(shortcut.from, shortcut.to, shortcut.weight, node);
+					}
+					upOut[node] = out[node];
+					upIn[node] = in[node];
+					out[node] = null;
+					in[node] = null;
+					for (int j = 0; j < upOut[node].size + upIn[node].size; j++) {
+						int neighbor;
+						if (j < upOut[node].size) {
+							neighbor = upOut[node].nodes[j];
+							in[neighbor].remove(node);
+						} else {
+							neighbor = upIn[node].nodes[j - upOut[node].size];
+							out[neighbor].remove(node);
+						}
+						deletedNeighbors[neighbor]++;
+						if (lastRound[neighbor] != round) {
+							lastRound[neighbor] = round;
+							if (neighborCount == neighbors.length)
+								neighbors = Arrays.copyOf(neighbors, 2 * neighborCount);
+							neighbors[neighborCount++] = neighbor;
+						}
+					}
+				}
+				int[] changed = neighbors;
+				forEachInChunks(neighborCount, (i, search) -> priority[changed[i]] = priority(changed[i], search));
+				remaining = Arrays.stream(remaining).filter(node -> !contracted[node]).toArray();
+			}
+		}
+
+		// runs task for every index below count in parallel on the common
+		// ForkJoinPool, split into one chunk of indices per worker; each chunk creates
+		// its own witness search and drops it when done, so no thread keeps one
+		void forEachInChunks(int count, ChunkTask task) {
+			if (count == 0)
+				return;
+			int chunks = Math.max(1, Math.min(count, ForkJoinPool.getCommonPoolParallelism()));
+			IntStream.range(0, chunks).parallel().forEach(chunk -> {
+				WitnessSearch search = new WitnessSearch();
+				int end = (int) ((long) count * (chunk + 1) / chunks);
+				for (int i = (int) ((long) count * chunk / chunks); i < end; i++) {
+					task.run(i, search);
+				}
+			});
+		}
+
+		// the work of forEachInChunks for one index, with the search of its chunk
+		interface ChunkTask {
+			void run(int index, WitnessSearch search);
+		}
+
+		// returns true when node is less important than all of its remaining
+		// neighbors, with ties broken by id
+		boolean isLocalMinimum(int node) {
+			return isLowest(node, out[node]) && isLowest(node, in[node]);
+		}
+
+		private boolean isLowest(int node, EdgeList edges) {
+			for (int i = 0; i < edges.size; i++) {
+				int neighbor = edges.nodes[i];
+				if (priority[neighbor] < priority[node] || (priority[neighbor] == priority[node] && neighbor < node))
+					return false;
+			}
+			return true;
+		}
+
+		// the edge difference of contracting node, weighted above the number of its
+		// contracted neighbors that spreads the contraction evenly over the graph
+		int priority(int node, WitnessSearch search) {
+			int removed = out[node].size + in[node].size;
+			return 4 * (shortcuts(node, search, null) - removed) + deletedNeighbors[node];
+		}
+
+		/**
+		 * Returns the number of shortcuts that contracting node needs, and adds them
+		 * to found unless it is null. Only a strictly shorter path counts as a
+		 * witness: the nodes contracted in the same round may be each other's
+		 * witnesses, and two paths of the same length through two of them must not
+		 * both be dropped.
+		 */
+		int shortcuts(int node, WitnessSearch search, List<Shortcut> found) {
+			int count = 0;
+			EdgeList ins = in[node];
+			EdgeList outs = out[node];
+			double maxOut = -1;
+			for (int j = 0; j < outs.size; j++) {
+				maxOut = Math.max(maxOut, outs.weights[j]);
+			}
+			if (maxOut < 0)
+				return 0;
+			for (int i = 0; i < ins.size; i++) {
+				int from = ins.nodes[i];
+				double toNode = ins.weights[i];
+				search.run(from, node, toNode + maxOut, outs,
+						found == null ? PRIORITY_SETTLE_LIMIT : WITNESS_SETTLE_LIMIT);
+				for (int j = 0; j < outs.size; j++) {
+					int to = outs.nodes[j];
+					if (to == from)
+						continue;
+					double through = toNode + outs.weights[j];
+					if (search.distance[to] >= through) {
+						count++;
+						if (found != null)
+							found.add(new Shortcut(from, to, through));
+					}
+				}
+			}
+			return count;
+		}
+
+		/**
+		 * Dijkstra search on the remaining graph that avoids one node and stops at
+		 * a maximum distance, after settling a number of nodes, or once it settled
+		 * all nodes it looks for, and resets only the nodes it reached.
+		 */
+		class WitnessSearch {
+			final double[] distance = new double[nodeCount];
+			final int[] touched = new int[nodeCount];
+			int touchedCount = 0;
+			final IndexedMinHeap queue = new IndexedMinHeap(nodeCount);
+			// targets[id] is the number of the search that must reach id
+			final int[] targets = new int[nodeCount];
+			int searchCount = 0;
+
+			WitnessSearch() {
+				Arrays.fill(distance, Double.POSITIVE_INFINITY);
+			}
+
+			// stops early too once every node of targets is settled
+			void run(int source, int avoided, double maxDistance, EdgeList targetEdges, int settleLimit) {
+				for (int i = 0; i < touchedCount; i++) {
+					distance[touched[i]] = Double.POSITIVE_INFINITY;
+				}
+				touchedCount = 0;
+				queue.clear();
+				distance[source] = 0;
+				touched[touchedCount++] = source;
+				queue.insert(source, 0);
+				searchCount++;
+				int targetCount = 0;
+				for (int i = 0; i < targetEdges.size; i++) {
+					if (targetEdges.nodes[i] != source && targets[targetEdges.nodes[i]] != searchCount) {
+						targets[targetEdges.nodes[i]] = searchCount;
+						targetCount++;
+					}
+				}
+				int settledCount = 0;
+				while (!queue.isEmpty() && targetCount > 0) {
+					int node = queue.poll();
+					if (distance[node] > maxDistance || ++settledCount > settleLimit)
+						break;
+					if (targets[node] == searchCount)
+						targetCount--;
+					EdgeList edges = out[node];
+					for (int i = 0; i < edges.size; i++) {
+						int next = edges.nodes[i];
+						if (next == avoided)
+							continue;
+						double newDistance = distance[node] + edges.weights[i];
+						if (newDistance < distance[next]) {
+							if (distance[next] == Double.POSITIVE_INFINITY)
+								touched[touchedCount++] = next;
+							distance[next] = newDistance;
+							queue.insertOrDecrease(next, newDistance);
+						}
+					}
+				}
+			}
+		}
+	}
+
+}
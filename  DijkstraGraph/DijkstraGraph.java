@@ -1,8 +1,9 @@
-import java.util.PriorityQueue;
-import java.util.Hashtable;
 import java.util.List;
 import java.util.LinkedList;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToDoubleBiFunction;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -15,25 +16,45 @@ import static org.junit.jupiter.api.Assertions.*;
 public class DijkstraGraph<NodeType, EdgeType extends Number> extends BaseGraph<NodeType, EdgeType>
 		implements GraphADT<NodeType, EdgeType> {
 
+	// the CSR view of this graph, and the modCount of the graph it was built at
+	private CSRGraph<NodeType> csr;
+	private int csrModCount;
+	// the search states reused by the shortest path queries on csr
+	private DijkstraSearch search;
+	private BidirectionalSearch bidirectionalSearch;
+	private AStarSearch aStarSearch;
+	// whether shortest paths are searched from both ends
+	private boolean bidirectional = false;
+	// the number of landmarks that guide the searches (0 for none), and the
+	// landmarks of csr once they are computed
+	private int landmarkCount = 0;
+	private Landmarks landmarks;
+	// whether shortest paths are searched in a contraction hierarchy, and the
+	// hierarchy of csr once it is built
+	private boolean contractionHierarchy = false;
+	private ContractionHierarchy hierarchy;
+
 	/**
 	 * While searching for the shortest path between two nodes, a SearchNode
 	 * contains data about one specific path between the start node and another node
-	 * in the graph. The final node in this path is stored in it's node field. The
-	 * total cost of this path is stored in its cost field. And the predecessor
-	 * SearchNode within this path is referened by the predecessor field (this field
-	 * is null within the SearchNode containing the starting node in it's node
-	 * field).
+	 * in the graph. The final node in this path is identified by its id in the CSR
+	 * view and stored in it's data field. The total cost of this path is stored in
+	 * its cost field. And the predecessor SearchNode within this path is referened
+	 * by the predecessor field (this field is null within the SearchNode
+	 * containing the starting node).
 	 *
 	 * SearchNodes are Comparable and are sorted by cost so that the lowest cost
 	 * SearchNode has the highest priority within a java.util.PriorityQueue.
 	 */
 	protected class SearchNode implements Comparable<SearchNode> {
-		public Node node;
+		public int id;
+		public NodeType data;
 		public double cost;
 		public SearchNode predecessor;
 
-		public SearchNode(Node node, double cost, SearchNode predecessor) {
-			this.node = node;
+		public SearchNode(int id, NodeType data, double cost, SearchNode predecessor) {
+			this.id = id;
+			this.data = data;
 			this.cost = cost;
 			this.predecessor = predecessor;
 		}
@@ -48,12 +69,171 @@ public class DijkstraGraph<NodeType, EdgeType extends Number> extends BaseGraph<
 	}
 
 	/**
-	 * This helper method creates a network of SearchNodes while computing the
-	 * shortest path between the provided start and end locations. The SearchNode
+	 * Returns a frozen compressed sparse row view of this graph, with the nodes
+	 * numbered by int ids and the edges stored in primitive arrays. The view is
+	 * built on the first call and reused until the graph changes, so the shortest
+	 * path searches only pay for building it after the graph was modified.
+	 *
+	 * @return the CSR view of the current state of this graph
+	 */
+	public CSRGraph<NodeType> toCSR() {
+		if (csr == null || csrModCount != modCount) {
+			csr = CSRGraph.from(this);
+			csrModCount = modCount;
+		}
+		return csr;
+	}
+
+	/**
+	 * Returns the search state for the current CSR view of this graph. It is
+	 * created along with the view and reused by every query until the graph
+	 * changes.
+	 *
+	 * @return the search state for toCSR()
+	 */
+	protected DijkstraSearch search() {
+		CSRGraph<NodeType> graph = toCSR();
+		if (search == null || search.getGraph() != graph)
+			search = new DijkstraSearch(graph);
+		return search;
+	}
+
+	/**
+	 * Returns the bidirectional search state for the current CSR view of this
+	 * graph, which is reused like the one of search().
+	 *
+	 * @return the bidirectional search state for toCSR()
+	 */
+	protected BidirectionalSearch bidirectionalSearch() {
+		CSRGraph<NodeType> graph = toCSR();
+		if (bidirectionalSearch == null || bidirectionalSearch.getGraph() != graph)
+			bidirectionalSearch = new BidirectionalSearch(graph);
+		return bidirectionalSearch;
+	}
+
+	/**
+	 * Returns the A* search state for the current CSR view of this graph, which is
+	 * reused like the one of search().
+	 *
+	 * @return the A* search state for toCSR()
+	 */
+	protected AStarSearch aStarSearch() {
+		CSRGraph<NodeType> graph = toCSR();
+		if (aStarSearch == null || aStarSearch.getGraph() != graph)
+			aStarSearch = new AStarSearch(graph);
+		return aStarSearch;
+	}
+
+	/**
+	 * Returns the landmarks for the current CSR view of this graph, computing them
+	 * when the graph changed since they were last computed.
+	 *
+	 * @return the landmarks of toCSR()
+	 */
+	protected Landmarks landmarks() {
+		CSRGraph<NodeType> graph = toCSR();
+		if (landmarks == null || landmarks.getGraph() != graph)
+			landmarks = new Landmarks(graph, landmarkCount);
+		return landmarks;
+	}
+
+	/**
+	 * Returns the contraction hierarchy for the current CSR view of this graph,
+	 * building it when the graph changed since it was last built.
+	 *
+	 * @return the contraction hierarchy of toCSR()
+	 */
+	protected ContractionHierarchy contractionHierarchy() {
+		CSRGraph<NodeType> graph = toCSR();
+		if (hierarchy == null || hierarchy.getGraph() != graph)
+			hierarchy = new ContractionHierarchy(graph);
+		return hierarchy;
+	}
+
+	/**
+	 * Sets the number of landmarks that guide shortestPathData and
+	 * shortestPathCost. With landmarks, these methods run A* with the landmark
+	 * bounds (ALT, see Landmarks) instead of Dijkstra's algorithm, which settles
+	 * far fewer nodes per query. The landmarks are computed by the first query
+	 * after the graph changed, which costs two complete Dijkstra searches per
+	 * landmark, so they pay off for graphs that are queried many times between
+	 * changes. Landmarks take precedence over bidirectional search.
+	 *
+	 * @param count the number of landmarks, 0 to use none (16 is a common choice)
+	 * @throws IllegalArgumentException when count is negative
+	 */
+	public void setLandmarkCount(int count) {
+		if (count < 0)
+			throw new IllegalArgumentException("The number of landmarks cannot be negative: " + count);
+		if (count != landmarkCount)
+			landmarks = null;
+		this.landmarkCount = count;
+	}
+
+	/**
+	 * @return the number of landmarks that guide the searches, 0 for none
+	 */
+	public int getLandmarkCount() {
+		return landmarkCount;
+	}
+
+	/**
+	 * Enables or disables bidirectional search. When enabled, shortestPathData and
+	 * shortestPathCost search forward from the start and backward from the end
+	 * (along the edges entering each node) at the same time, and stop once the two
+	 * searches have provably found the shortest path. Both searches then explore
+	 * about half the radius of a one-sided search, which settles far fewer nodes on
+	 * large graphs. The paths found are equally short either way, but when several
+	 * shortest paths exist the two modes may return different ones.
+	 *
+	 * @param enabled true to search from both ends, false to search from the start
+	 *                only
+	 */
+	public void setBidirectional(boolean enabled) {
+		this.bidirectional = enabled;
+	}
+
+	/**
+	 * @return true if shortest paths are searched from both ends
+	 */
+	public boolean isBidirectional() {
+		return bidirectional;
+	}
+
+	/**
+	 * Enables or disables searching in a contraction hierarchy (see
+	 * ContractionHierarchy). When enabled, the first query after the graph changed
+	 * contracts all of its nodes, using all cores, and every query then only
+	 * settles the few nodes that are more important than the start or end along
+	 * the way, which makes repeated queries on large, rarely changing graphs
+	 * orders of magnitude faster. The hierarchy takes precedence over landmarks and
+	 * bidirectional search.
+	 *
+	 * @param enabled true to search in a contraction hierarchy
+	 */
+	public void setContractionHierarchy(boolean enabled) {
+		if (!enabled)
+			hierarchy = null;
+		this.contractionHierarchy = enabled;
+	}
+
+	/**
+	 * @return true if shortest paths are searched in a contraction hierarchy
+	 */
+	public boolean isContractionHierarchy() {
+		return contractionHierarchy;
+	}
+
+	/**
+	 * This helper method computes the shortest path between the provided start and
+	 * end locations, and returns it as a network of SearchNodes. The SearchNode
 	 * that is returned by this method is represents the end of the shortest path
 	 * that is found: it's cost is the cost of that shortest path, and the nodes
 	 * linked together through predecessor references represent all of the nodes
-	 * along that shortest path (ordered from end to start).
+	 * along that shortest path (ordered from end to start). The search runs on the
+	 * CSR view of this graph with a reusable DijkstraSearch (or the search that
+	 * setContractionHierarchy, setLandmarkCount or setBidirectional selects), so
+	 * only the SearchNodes of the returned path are allocated.
 	 *
 	 * @param start the data item in the starting node for the path
 	 * @param end   the data item in the destination node for the path
@@ -67,60 +247,140 @@ public class DijkstraGraph<NodeType, EdgeType extends Number> extends BaseGraph<
 		// check if start or end node does not exist in the path
 		if (!containsNode(start) || !containsNode(end)) {
 			throw new NoSuchElementException("start or end node does not exist!");
-		} // check if the start and end node equals, then return the start node
-		else if (start.equals(end)) {
-			return new SearchNode(nodes.get(start), 0, null);
-		} else {
-			// create a priority queue to store search nodes
-			PriorityQueue<SearchNode> pq = new PriorityQueue<SearchNode>();
-			// create a hash table to store visited nodes
-			Hashtable<NodeType, Node> visited = new Hashtable<NodeType, Node>();
-			// initialize the start node of the path
-			Node firstNode = nodes.get(start);
-			SearchNode startNode = new SearchNode(firstNode, 0, null);
-			// add the start node to the priority queue
-			pq.add(startNode);
-
-			// the main loop of Dijkstra's algorithm to find the shortest path while
-			// priority queue is not empty
-			while (!pq.isEmpty()) {
-				// remove the current node from the priority queue
-				SearchNode currentNode = pq.remove();
-
-				// if the current node is not in the visited hash table, add the node to the
-				// hash table
-				if (!visited.containsKey(currentNode.node.data)) {
-					visited.put(currentNode.node.data, currentNode.node);
-				}
-
-				// if the current node equals the end node, return it
-				if (currentNode.node.data.equals(end)) {
-					return currentNode;
-				}
-
-				// traverse the every node with leaving edge and add unvisited node to the
-				// priority queue
-				for (Edge edge : currentNode.node.edgesLeaving) {
+		}
+		CSRGraph<NodeType> graph = toCSR();
+		int startId = graph.id(start);
+		int endId = graph.id(end);
+		if (contractionHierarchy) {
+			ContractionHierarchy search = contractionHierarchy();
+			if (!search.run(startId, endId)) {
+				// when no path from start to end is found
+				throw new NoSuchElementException("there is no path from start to end!");
+			}
+			return pathAlong(search);
+		} else if (landmarkCount > 0) {
+			AStarSearch search = aStarSearch();
+			if (!search.run(startId, endId, landmarks())) {
+				// when no path from start to end is found
+				throw new NoSuchElementException("there is no path from start to end!");
+			}
+			return pathTo(search, endId);
+		} else if (bidirectional) {
+			BidirectionalSearch search = bidirectionalSearch();
+			if (!search.run(startId, endId)) {
+				// when no path from start to end is found
+				throw new NoSuchElementException("there is no path from start to end!");
+			}
+			return pathThrough(search);
+		}
+		DijkstraSearch search = search();
+		if (!search.run(startId, endId)) {
+			// when no path from start to end is found
+			throw new NoSuchElementException("there is no path from start to end!");
+		}
+		return pathTo(search, endId);
+	}
 
-					// initialize the successor node
-					Node successorNode = edge.successor;
+	/**
+	 * This helper method computes the shortest path between the provided start and
+	 * end locations with the A* algorithm, guided by the provided heuristic, and
+	 * returns it like computeShortestPath(start, end).
+	 *
+	 * @param start     the data item in the starting node for the path
+	 * @param end       the data item in the destination node for the path
+	 * @param heuristic a lower bound of the cost of the path between two nodes, by
+	 *                  their data, that is consistent (see AStarSearch)
+	 * @return SearchNode for the final end node within the shortest path
+	 * @throws NoSuchElementException when no path from start to end is found or
+	 *                                when either start or end data do not
+	 *                                correspond to a graph node
+	 * @throws NullPointerException   when heuristic is null
+	 */
+	protected SearchNode computeShortestPath(NodeType start, NodeType end,
+			ToDoubleBiFunction<NodeType, NodeType> heuristic) {
 
-					// check whether the successor node has been visited before
-					if (!visited.containsKey(successorNode.data)) {
+		if (heuristic == null) {
+			throw new NullPointerException("heuristic cannot be null!");
+		}
+		// check if start or end node does not exist in the path
+		if (!containsNode(start) || !containsNode(end)) {
+			throw new NoSuchElementException("start or end node does not exist!");
+		}
+		CSRGraph<NodeType> graph = toCSR();
+		int startId = graph.id(start);
+		int endId = graph.id(end);
+		AStarSearch search = aStarSearch();
+		if (!search.run(startId, endId,
+				(from, to) -> heuristic.applyAsDouble(graph.nodeData(from), graph.nodeData(to)))) {
+			// when no path from start to end is found
+			throw new NoSuchElementException("there is no path from start to end!");
+		}
+		return pathTo(search, endId);
+	}
 
-						// initialize the new cost
-						double newCost = currentNode.cost + edge.data.doubleValue();
+	/**
+	 * Helper method that links the SearchNodes of the shortest path to the node
+	 * endId found by a search, from its source to endId.
+	 *
+	 * @param search a search that settled the node endId
+	 * @param endId  the id of the last node of the path
+	 * @return the SearchNode of the node endId
+	 */
+	protected SearchNode pathTo(DijkstraSearch search, int endId) {
+		CSRGraph<NodeType> graph = toCSR();
+		// collect the ids along the path backward, then link them from the start
+		int length = 0;
+		for (int id = endId; id >= 0; id = search.predecessor(id)) {
+			length++;
+		}
+		int[] ids = new int[length];
+		for (int id = endId, i = length - 1; id >= 0; id = search.predecessor(id), i--) {
+			ids[i] = id;
+		}
+		SearchNode node = null;
+		for (int id : ids) {
+			node = new SearchNode(id, graph.nodeData(id), search.distance(id), node);
+		}
+		return node;
+	}
 
-						SearchNode nextNode = new SearchNode(successorNode, newCost, currentNode);
-						// add the next node to the priority queue
-						pq.add(nextNode);
-					}
-				}
+	/**
+	 * Helper method that links the SearchNodes of the shortest path found by a
+	 * bidirectional search: the path of the forward search to the meeting node,
+	 * followed by the path of the backward search from there to the target.
+	 *
+	 * @param search a bidirectional search that found a path
+	 * @return the SearchNode of the last node of the path
+	 */
+	protected SearchNode pathThrough(BidirectionalSearch search) {
+		CSRGraph<NodeType> graph = toCSR();
+		DijkstraSearch backward = search.getBackward();
+		int meeting = search.meetingNode();
+		SearchNode node = pathTo(search.getForward(), meeting);
+		// the cost of each later node adds the distance left from the meeting node
+		double meetingCost = node.cost + backward.distance(meeting);
+		for (int id = backward.predecessor(meeting); id >= 0; id = backward.predecessor(id)) {
+			node = new SearchNode(id, graph.nodeData(id), meetingCost - backward.distance(id), node);
+		}
+		return node;
+	}
 
-			}
+	/**
+	 * Helper method that links the SearchNodes of the shortest path found by a
+	 * contraction hierarchy, with its shortcuts unpacked.
+	 *
+	 * @param search a contraction hierarchy that found a path
+	 * @return the SearchNode of the last node of the path
+	 */
+	protected SearchNode pathAlong(ContractionHierarchy search) {
+		CSRGraph<NodeType> graph = toCSR();
+		int[] ids = search.path();
+		double[] costs = search.pathDistances();
+		SearchNode node = null;
+		for (int i = 0; i < ids.length; i++) {
+			node = new SearchNode(ids[i], graph.nodeData(ids[i]), costs[i], node);
 		}
-		// when no path from start to end is found
-		throw new NoSuchElementException("there is no path from start to end!");
+		return node;
 	}
 
 	/**
@@ -137,15 +397,44 @@ public class DijkstraGraph<NodeType, EdgeType extends Number> extends BaseGraph<
 	 */
 	public List<NodeType> shortestPathData(NodeType start, NodeType end) {
 
-		// initialize the end node in the shortest path
-		SearchNode endNode = computeShortestPath(start, end);
+		// find the shortest path and collect the data along it
+		return pathData(computeShortestPath(start, end));
+	}
+
+	/**
+	 * Returns the list of data values from nodes along the shortest path from the
+	 * node with the provided start value through the node with the provided end
+	 * value, like shortestPathData(start, end). This method uses the A* algorithm
+	 * with the provided heuristic, such as the straight-line distance between the
+	 * coordinates of two nodes, to find this solution while settling fewer nodes.
+	 *
+	 * @param start     the data item in the starting node for the path
+	 * @param end       the data item in the destination node for the path
+	 * @param heuristic a lower bound of the cost of the path between two nodes, by
+	 *                  their data, that is consistent (see AStarSearch)
+	 * @return list of data item from node along this shortest path
+	 */
+	public List<NodeType> shortestPathData(NodeType start, NodeType end,
+			ToDoubleBiFunction<NodeType, NodeType> heuristic) {
+
+		return pathData(computeShortestPath(start, end, heuristic));
+	}
+
+	/**
+	 * Helper method that returns the data values of the nodes along a path, from
+	 * its first node to endNode.
+	 *
+	 * @param endNode the SearchNode of the last node of the path
+	 * @return list of data item from node along this path
+	 */
+	private List<NodeType> pathData(SearchNode endNode) {
 
 		// create the list to store the data values from nodes along the shortest path
 		List<NodeType> list = new LinkedList<NodeType>();
 
 		// traverse the path backward to add the data value of each node
 		while (endNode != null) {
-			list.add(0, endNode.node.data);
+			list.add(0, endNode.data);
 			// update the end node to its predecessor
 			endNode = endNode.predecessor;
 		}
@@ -169,6 +458,125 @@ public class DijkstraGraph<NodeType, EdgeType extends Number> extends BaseGraph<
 		return computeShortestPath(start, end).cost;
 	}
 
+	/**
+	 * Returns the cost of the shortest path from the node containing the start data
+	 * to the node containing the end data, like shortestPathCost(start, end). This
+	 * method uses the A* algorithm with the provided heuristic to find this
+	 * solution.
+	 *
+	 * @param start     the data item in the starting node for the path
+	 * @param end       the data item in the destination node for the path
+	 * @param heuristic a lower bound of the cost of the path between two nodes, by
+	 *                  their data, that is consistent (see AStarSearch)
+	 * @return the cost of the shortest path between these nodes
+	 */
+	public double shortestPathCost(NodeType start, NodeType end, ToDoubleBiFunction<NodeType, NodeType> heuristic) {
+
+		return computeShortestPath(start, end, heuristic).cost;
+	}
+
+	/**
+	 * Computes the shortest paths from the node with the provided start value to
+	 * all nodes it can reach with a single run of Dijkstra's algorithm, which is
+	 * much faster than one shortestPathCost call per destination. The paths are
+	 * only assembled when the returned tree is asked for them.
+	 *
+	 * @param start the data item in the starting node for the paths
+	 * @return the shortest path tree of start
+	 * @throws NoSuchElementException when start does not correspond to a graph
+	 *                                node
+	 */
+	public ShortestPathTree<NodeType> shortestPathTree(NodeType start) {
+		return shortestPathTree(start, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Computes the shortest paths from the node with the provided start value to
+	 * all nodes whose shortest path costs at most radius, like
+	 * shortestPathTree(start). The search stops at the radius, so it only settles
+	 * the nodes within it. The returned tree still stores a distance and a
+	 * predecessor for every node of the graph, so each call takes O(V) time and
+	 * memory for the snapshot (plus building the CSR view after the graph
+	 * changed), whatever the radius.
+	 *
+	 * @param start  the data item in the starting node for the paths
+	 * @param radius the largest cost of a path in the tree
+	 * @return the shortest path tree of start, cut at radius
+	 * @throws NoSuchElementException   when start does not correspond to a graph
+	 *                                  node
+	 * @throws IllegalArgumentException when radius is negative or NaN
+	 */
+	public ShortestPathTree<NodeType> shortestPathTree(NodeType start, double radius) {
+		if (!(radius >= 0)) {
+			throw new IllegalArgumentException("radius must not be negative: " + radius);
+		}
+		if (!containsNode(start)) {
+			throw new NoSuchElementException("start node does not exist!");
+		}
+		CSRGraph<NodeType> graph = toCSR();
+		int startId = graph.id(start);
+		DijkstraSearch search = search();
+		search.runWithin(startId, radius);
+		return new ShortestPathTree<>(search, graph, startId);
+	}
+
+	/**
+	 * Computes the costs of the shortest paths from each of the provided sources to
+	 * each of the provided targets. Each source gets one Dijkstra search that stops
+	 * once it has settled all targets, and the searches run in parallel on all
+	 * cores (on the common ForkJoinPool) against the CSR view of this graph, which
+	 * they only read. The sources are split into one chunk per worker, and each
+	 * chunk reuses one search state that is dropped when the chunk is done.
+	 *
+	 * @param sources the data items in the starting nodes of the paths
+	 * @param targets the data items in the destination nodes of the paths
+	 * @return the matrix whose entry [i][j] is the cost of the shortest path from
+	 *         sources.get(i) to targets.get(j), or infinity when there is none
+	 * @throws NoSuchElementException when a source or target does not correspond
+	 *                                to a graph node
+	 */
+	public double[][] distanceMatrix(List<NodeType> sources, List<NodeType> targets) {
+		CSRGraph<NodeType> graph = toCSR();
+		int[] sourceIds = ids(graph, sources);
+		int[] targetIds = ids(graph, targets);
+		boolean[] isTarget = new boolean[graph.getNodeCount()];
+		int targetCount = 0;
+		for (int id : targetIds) {
+			if (!isTarget[id]) {
+				isTarget[id] = true;
+				targetCount++;
+			}
+		}
+		int distinctTargets = targetCount;
+		double[][] matrix = new double[sourceIds.length][targetIds.length];
+		int chunks = Math.max(1, Math.min(sourceIds.length, ForkJoinPool.getCommonPoolParallelism()));
+		IntStream.range(0, chunks).parallel().forEach(chunk -> {
+			// the search state lives only as long as this chunk of sources
+			DijkstraSearch search = new DijkstraSearch(graph);
+			int end = (int) ((long) sourceIds.length * (chunk + 1) / chunks);
+			for (int i = (int) ((long) sourceIds.length * chunk / chunks); i < end; i++) {
+				search.runToAll(sourceIds[i], isTarget, distinctTargets);
+				for (int j = 0; j < targetIds.length; j++) {
+					matrix[i][j] = search.distance(targetIds[j]);
+				}
+			}
+		});
+		return matrix;
+	}
+
+	// returns the ids of the nodes in the CSR view graph
+	private int[] ids(CSRGraph<NodeType> graph, List<NodeType> nodes) {
+		int[] ids = new int[nodes.size()];
+		int i = 0;
+		for (NodeType node : nodes) {
+			ids[i] = graph.id(node);
+			if (ids[i++] < 0) {
+				throw new NoSuchElementException("node " + node + " does not exist!");
+			}
+		}
+		return ids;
+	}
+
 	// TODO: implement 3+ tests in step 8.
 
 	/**
@@ -267,4 +675,339 @@ public class DijkstraGraph<NodeType, EdgeType extends Number> extends BaseGraph<
 
 	}
 
-}
\ No newline at end of file
+	/**
+	 * This test method checks the CSR view of a graph: its counts and edge arrays,
+	 * that it is reused while the graph does not change, and that the shortest
+	 * paths follow the changes of the graph.
+	 */
+	@Test
+	public void csrTest() {
+
+		DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+		graph.insertNode("A");
+		graph.insertNode("B");
+		graph.insertNode("C");
+		graph.insertEdge("A", "B", 1.0);
+		graph.insertEdge("A", "C", 5.0);
+		graph.insertEdge("B", "C", 1.5);
+
+		CSRGraph<String> csr = graph.toCSR();
+		assertEquals(3, csr.getNodeCount());
+		assertEquals(3, csr.getEdgeCount());
+		int a = csr.id("A");
+		int c = csr.id("C");
+		assertEquals("A", csr.nodeData(a));
+		assertEquals(-1, csr.id("D"));
+		assertEquals(2, csr.outDegree(a));
+		assertEquals(2, csr.inDegree(c));
+
+		// the edges leaving A are stored next to each other
+		double weightSum = 0;
+		for (int edge = csr.getOffsets()[a]; edge < csr.getOffsets()[a + 1]; edge++) {
+			weightSum += csr.getWeights()[edge];
+		}
+		assertEquals(6.0, weightSum);
+
+		// the view is reused until the graph changes
+		assertSame(csr, graph.toCSR());
+		assertEquals(2.5, graph.shortestPathCost("A", "C"));
+		graph.insertEdge("A", "C", 2.0);
+		assertNotSame(csr, graph.toCSR());
+		assertEquals("[A, C]", graph.shortestPathData("A", "C").toString());
+	}
+
+	/**
+	 * This test method checks that the IndexedMinHeap used by the searches returns
+	 * the ids by their keys, and that decrease-key moves an id forward instead of
+	 * adding it a second time.
+	 */
+	@Test
+	public void indexedMinHeapTest() {
+
+		IndexedMinHeap heap = new IndexedMinHeap(4);
+		heap.insert(0, 5.0);
+		heap.insert(1, 3.0);
+		heap.insert(2, 4.0);
+		assertTrue(heap.insertOrDecrease(0, 1.0));
+		assertFalse(heap.insertOrDecrease(2, 4.5));
+		assertEquals(3, heap.size());
+
+		assertEquals(0, heap.poll());
+		assertEquals(1, heap.poll());
+		assertEquals(2, heap.poll());
+		assertTrue(heap.isEmpty());
+		assertThrows(NoSuchElementException.class, () -> {
+			heap.poll();
+		});
+	}
+
+	/**
+	 * This test method runs several queries on the same graph, which reuse one
+	 * search state, and checks that each query starts from a clean state.
+	 */
+	@Test
+	public void repeatedQueriesTest() {
+
+		DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+		graph.insertNode("A");
+		graph.insertNode("B");
+		graph.insertNode("C");
+		graph.insertNode("D");
+		graph.insertEdge("A", "B", 1.0);
+		graph.insertEdge("B", "C", 1.0);
+		graph.insertEdge("A", "C", 3.0);
+		graph.insertEdge("C", "D", 1.0);
+
+		assertEquals(3.0, graph.shortestPathCost("A", "D"));
+		assertEquals(2.0, graph.shortestPathCost("B", "D"));
+		assertEquals("[C, D]", graph.shortestPathData("C", "D").toString());
+		assertEquals(3.0, graph.shortestPathCost("A", "D"));
+		assertThrows(NoSuchElementException.class, () -> {
+			graph.shortestPathData("D", "A");
+		});
+		assertEquals("[A, B, C]", graph.shortestPathData("A", "C").toString());
+	}
+
+	/**
+	 * This test method checks that bidirectional search finds the same shortest
+	 * paths as the one-sided search, and reports missing paths the same way.
+	 */
+	@Test
+	public void bidirectionalTest() {
+
+		DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+		graph.insertNode("A");
+		graph.insertNode("B");
+		graph.insertNode("C");
+		graph.insertNode("D");
+		graph.insertNode("E");
+		graph.insertEdge("A", "B", 1.0);
+		graph.insertEdge("A", "C", 2.0);
+		graph.insertEdge("B", "D", 2.2);
+		graph.insertEdge("C", "D", 2.3);
+		graph.insertEdge("D", "E", 1.0);
+		graph.insertEdge("C", "E", 4.0);
+
+		graph.setBidirectional(true);
+		assertTrue(graph.isBidirectional());
+		assertEquals("[A, B, D, E]", graph.shortestPathData("A", "E").toString());
+		assertEquals(4.2, graph.shortestPathCost("A", "E"), 1e-9);
+		assertEquals("[C, D]", graph.shortestPathData("C", "D").toString());
+		assertEquals("[B]", graph.shortestPathData("B", "B").toString());
+		assertThrows(NoSuchElementException.class, () -> {
+			graph.shortestPathData("E", "A");
+		});
+
+		graph.setBidirectional(false);
+		assertEquals(4.2, graph.shortestPathCost("A", "E"), 1e-9);
+	}
+
+	/**
+	 * This test method checks that A* with a straight-line heuristic and A* with
+	 * landmarks find the same shortest paths as Dijkstra's algorithm on a small
+	 * grid whose nodes are numbered by their coordinates (10 * row + column).
+	 */
+	@Test
+	public void aStarTest() {
+
+		DijkstraGraph<Integer, Double> graph = new DijkstraGraph<>();
+		for (int row = 0; row < 5; row++) {
+			for (int column = 0; column < 5; column++) {
+				graph.insertNode(10 * row + column);
+			}
+		}
+		for (int row = 0; row < 5; row++) {
+			for (int column = 0; column < 5; column++) {
+				int node = 10 * row + column;
+				// edges are never shorter than the straight line between their nodes
+				double weight = 1.0 + ((row + column) % 3) * 0.5;
+				if (column < 4) {
+					graph.insertEdge(node, node + 1, weight);
+					graph.insertEdge(node + 1, node, weight);
+				}
+				if (row < 4) {
+					graph.insertEdge(node, node + 10, weight);
+					graph.insertEdge(node + 10, node, weight);
+				}
+			}
+		}
+		ToDoubleBiFunction<Integer, Integer> straightLine = (from, to) -> Math.hypot(from / 10 - to / 10,
+				from % 10 - to % 10);
+
+		double cost = graph.shortestPathCost(0, 44);
+		List<Integer> path = graph.shortestPathData(0, 44, straightLine);
+		assertEquals(cost, graph.shortestPathCost(0, 44, straightLine), 1e-9);
+		assertEquals(Integer.valueOf(0), path.get(0));
+		assertEquals(Integer.valueOf(44), path.get(path.size() - 1));
+
+		graph.setLandmarkCount(3);
+		assertEquals(3, graph.getLandmarkCount());
+		assertEquals(cost, graph.shortestPathCost(0, 44), 1e-9);
+		assertEquals(graph.shortestPathCost(43, 1), graph.shortestPathCost(43, 1, straightLine), 1e-9);
+
+		graph.removeNode(22);
+		graph.setLandmarkCount(0);
+		double withoutCenter = graph.shortestPathCost(0, 44);
+		graph.setLandmarkCount(3);
+		assertEquals(withoutCenter, graph.shortestPathCost(0, 44), 1e-9);
+	}
+
+	/**
+	 * This test method checks that searches in a contraction hierarchy find the
+	 * same shortest paths as Dijkstra's algorithm on a small grid, with shortcuts
+	 * unpacked into the edges of the graph, and that the hierarchy is rebuilt when
+	 * the graph changes.
+	 */
+	@Test
+	public void contractionHierarchyTest() {
+
+		DijkstraGraph<Integer, Double> graph = new DijkstraGraph<>();
+		for (int node = 0; node < 36; node++) {
+			graph.insertNode(node);
+		}
+		for (int row = 0; row < 6; row++) {
+			for (int column = 0; column < 6; column++) {
+				int node = 6 * row + column;
+				double weight = 1.0 + ((row * 7 + column * 3) % 5) * 0.25;
+				if (column < 5) {
+					graph.insertEdge(node, node + 1, weight);
+					graph.insertEdge(node + 1, node, weight);
+				}
+				if (row < 5)
+					graph.insertEdge(node, node + 6, weight);
+			}
+		}
+		// the edges between rows only lead down, so each node reaches the nodes of
+		// its own and later rows
+		double[][] costs = new double[36][36];
+		for (int from = 0; from < 36; from++) {
+			for (int to = 6 * (from / 6); to < 36; to++) {
+				costs[from][to] = graph.shortestPathCost(from, to);
+			}
+		}
+
+		graph.setContractionHierarchy(true);
+		assertTrue(graph.isContractionHierarchy());
+		for (int from = 0; from < 36; from++) {
+			for (int to = 6 * (from / 6); to < 36; to++) {
+				assertEquals(costs[from][to], graph.shortestPathCost(from, to), 1e-9);
+			}
+		}
+		// every step of an unpacked path is an edge of the graph
+		List<Integer> path = graph.shortestPathData(0, 35);
+		double cost = 0;
+		for (int i = 1; i < path.size(); i++) {
+			cost += graph.getEdge(path.get(i - 1), path.get(i)).doubleValue();
+		}
+		assertEquals(costs[0][35], cost, 1e-9);
+		assertEquals("[7]", graph.shortestPathData(7, 7).toString());
+		assertThrows(NoSuchElementException.class, () -> {
+			graph.shortestPathData(35, 0);
+		});
+
+		graph.removeEdge(14, 20);
+		graph.setContractionHierarchy(false);
+		double without = graph.shortestPathCost(2, 32);
+		graph.setContractionHierarchy(true);
+		assertEquals(without, graph.shortestPathCost(2, 32), 1e-9);
+	}
+
+	/**
+	 * This test method checks that a shortest path tree holds the same paths and
+	 * costs as separate shortest path searches, that the radius cuts it, and that
+	 * it does not change with the graph.
+	 */
+	@Test
+	public void shortestPathTreeTest() {
+
+		DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+		graph.insertNode("A");
+		graph.insertNode("B");
+		graph.insertNode("C");
+		graph.insertNode("D");
+		graph.insertNode("E");
+		graph.insertNode("F");
+		graph.insertEdge("A", "B", 1.0);
+		graph.insertEdge("A", "C", 2.0);
+		graph.insertEdge("B", "D", 2.2);
+		graph.insertEdge("C", "D", 2.3);
+		graph.insertEdge("D", "E", 1.0);
+		graph.insertEdge("C", "E", 4.0);
+		graph.insertEdge("F", "A", 1.0);
+
+		ShortestPathTree<String> tree = graph.shortestPathTree("A");
+		assertEquals("A", tree.getStart());
+		assertEquals(5, tree.size());
+		for (String node : new String[] { "A", "B", "C", "D", "E" }) {
+			assertTrue(tree.contains(node));
+			assertEquals(graph.shortestPathCost("A", node), tree.distance(node), 1e-9);
+			assertEquals(graph.shortestPathData("A", node), tree.pathTo(node));
+		}
+		assertFalse(tree.contains("F"));
+		assertFalse(tree.contains("G"));
+		assertThrows(NoSuchElementException.class, () -> {
+			tree.distance("F");
+		});
+		assertThrows(NoSuchElementException.class, () -> {
+			graph.shortestPathTree("G");
+		});
+
+		ShortestPathTree<String> near = graph.shortestPathTree("A", 2.0);
+		assertEquals(3, near.size());
+		assertTrue(near.contains("C"));
+		assertFalse(near.contains("D"));
+		assertThrows(NoSuchElementException.class, () -> {
+			near.pathTo("E");
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			graph.shortestPathTree("A", -1.0);
+		});
+
+		graph.removeEdge("D", "E");
+		assertEquals(4.2, tree.distance("E"), 1e-9);
+		assertEquals("[A, B, D, E]", tree.pathTo("E").toString());
+		assertEquals(6.0, graph.shortestPathTree("A").distance("E"), 1e-9);
+	}
+
+	/**
+	 * This test method checks that a distance matrix holds the same costs as
+	 * separate shortest path searches, with infinity for the missing paths.
+	 */
+	@Test
+	public void distanceMatrixTest() {
+
+		DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+		graph.insertNode("A");
+		graph.insertNode("B");
+		graph.insertNode("C");
+		graph.insertNode("D");
+		graph.insertNode("E");
+		graph.insertEdge("A", "B", 1.0);
+		graph.insertEdge("A", "C", 2.0);
+		graph.insertEdge("B", "D", 2.2);
+		graph.insertEdge("C", "D", 2.3);
+		graph.insertEdge("D", "E", 1.0);
+		graph.insertEdge("C", "E", 4.0);
+
+		List<String> sources = List.of("A", "C", "E");
+		List<String> targets = List.of("E", "D", "A", "D");
+		double[][] matrix = graph.distanceMatrix(sources, targets);
+		assertEquals(3, matrix.length);
+		for (int i = 0; i < sources.size(); i++) {
+			assertEquals(4, matrix[i].length);
+			for (int j = 0; j < targets.size(); j++) {
+				if (sources.get(i).compareTo(targets.get(j)) > 0) {
+					assertEquals(Double.POSITIVE_INFINITY, matrix[i][j]);
+				} else {
+					assertEquals(graph.shortestPathCost(sources.get(i), targets.get(j)), matrix[i][j], 1e-9);
+				}
+			}
+		}
+		assertEquals(0, graph.distanceMatrix(List.of(), targets).length);
+		assertEquals(0, graph.distanceMatrix(sources, List.of())[2].length);
+		assertThrows(NoSuchElementException.class, () -> {
+			graph.distanceMatrix(sources, List.of("F"));
+		});
+	}
+
+}
@@ -0,0 +1,253 @@
+import java.util.Arrays;
+
+/**
+ * This class holds the state of Dijkstra's shortest path algorithm on a
+ * CSRGraph: the best known distance and the predecessor of every node in
+ * primitive arrays indexed by node id, a bitset of the settled nodes, and an
+ * IndexedMinHeap as the priority queue. A node is only queued when its distance
+ * improves, and then its key is lowered in place, so the queue never holds more
+ * than one entry per node.
+ *
+ * A backward search follows the edges entering each node instead of the ones
+ * leaving it, so it finds the shortest paths to its source rather than from it.
+ *
+ * All arrays are allocated once by the constructor. Each search only resets the
+ * nodes the previous search reached, so running many searches with the same
+ * DijkstraSearch allocates nothing. A DijkstraSearch must not be used by more
+ * than one thread at a time.
+ */
+public class DijkstraSearch {
+
+	// the graph that is searched, and the edge arrays of the searched direction
+	protected final CSRGraph<?> graph;
+	protected final boolean backward;
+	protected final int[] offsets;
+	protected final int[] targets;
+	protected final double[] weights;
+
+	protected final double[] distance; // best known distance by id, infinite when not reached
+	protected final int[] predecessor; // previous node on the best known path by id, or -1
+	protected final long[] settled; // bitset of the nodes whose distance is final
+	protected final IndexedMinHeap queue;
+
+	// the ids of the nodes reached by the current search, to reset them for the next
+	protected final int[] touched;
+	protected int touchedCount = 0;
+	protected int settledCount = 0;
+
+	/**
+	 * Creates the state of a forward search for a graph.
+	 *
+	 * @param graph the graph to search
+	 */
+	public DijkstraSearch(CSRGraph<?> graph) {
+		this(graph, false);
+	}
+
+	/**
+	 * Creates the search state for a graph.
+	 *
+	 * @param graph    the graph to search
+	 * @param backward true to follow the edges backward, from the node they enter
+	 *                 to the node they leave
+	 */
+	public DijkstraSearch(CSRGraph<?> graph, boolean backward) {
+		this.graph = graph;
+		this.backward = backward;
+		this.offsets = backward ? graph.getReverseOffsets() : graph.getOffsets();
+		this.targets = backward ? graph.getSources() : graph.getTargets();
+		this.weights = backward ? graph.getReverseWeights() : graph.getWeights();
+		int nodeCount = graph.getNodeCount();
+		distance = new double[nodeCount];
+		predecessor = new int[nodeCount];
+		settled = new long[(nodeCount + 63) >>> 6];
+		queue = new IndexedMinHeap(nodeCount);
+		touched = new int[nodeCount];
+		Arrays.fill(distance, Double.POSITIVE_INFINITY);
+		Arrays.fill(predecessor, -1);
+	}
+
+	/**
+	 * @return the graph this search runs on
+	 */
+	public CSRGraph<?> getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Forgets the previous search, in time proportional to the number of nodes it
+	 * reached.
+	 */
+	public void reset() {
+		for (int i = 0; i < touchedCount; i++) {
+			int id = touched[i];
+			distance[id] = Double.POSITIVE_INFINITY;
+			predecessor[id] = -1;
+			// every settled bit in this word belongs to a reached node
+			settled[id >>> 6] = 0L;
+		}
+		touchedCount = 0;
+		settledCount = 0;
+		queue.clear();
+	}
+
+	/**
+	 * Starts a new search from the node source.
+	 *
+	 * @param source the id of the node to search from
+	 */
+	public void start(int source) {
+		reset();
+		distance[source] = 0;
+		touched[touchedCount++] = source;
+		queue.insert(source, potential(source));
+		improved(source);
+	}
+
+	/**
+	 * Returns the amount added to the distance of a node to form its key in the
+	 * queue. It is 0 here, so nodes are settled by their distance; AStarSearch adds
+	 * an estimate of the distance left to the target.
+	 *
+	 * @param node the id of a node
+	 * @return the potential of node
+	 */
+	protected double potential(int node) {
+		return 0;
+	}
+
+	/**
+	 * Called whenever the distance of a node improves (including the source when
+	 * the search starts). Does nothing here; BidirectionalSearch uses it to find
+	 * where the searches of both directions meet.
+	 *
+	 * @param node the id of the node whose distance improved
+	 */
+	protected void improved(int node) {
+	}
+
+	/**
+	 * @return true when every node reachable from the source is settled
+	 */
+	public boolean isDone() {
+		return queue.isEmpty();
+	}
+
+	/**
+	 * @return the distance of the node that settleNext settles next, or infinity
+	 *         when the search is done; without potentials, no unsettled node is
+	 *         closer to the source
+	 */
+	public double peekDistance() {
+		return queue.isEmpty() ? Double.POSITIVE_INFINITY : distance[queue.peek()];
+	}
+
+	/**
+	 * Settles the queued node with the smallest key (its distance plus its
+	 * potential) and relaxes the edges leaving it.
+	 *
+	 * @return the id of the settled node
+	 * @throws java.util.NoSuchElementException when the search is done
+	 */
+	public int settleNext() {
+		int node = queue.poll();
+		settled[node >>> 6] |= 1L << node;
+		settledCount++;
+		double base = distance[node];
+		for (int edge = offsets[node], last = offsets[node + 1]; edge < last; edge++) {
+			int next = targets[edge];
+			if ((settled[next >>> 6] & (1L << next)) != 0)
+				continue;
+			double newDistance = base + weights[edge];
+			if (newDistance < distance[next]) {
+				if (distance[next] == Double.POSITIVE_INFINITY)
+					touched[touchedCount++] = next;
+				distance[next] = newDistance;
+				predecessor[next] = node;
+				queue.insertOrDecrease(next, newDistance + potential(next));
+				improved(next);
+			}
+		}
+		return node;
+	}
+
+	/**
+	 * Runs a search from source until the node target is settled.
+	 *
+	 * @param source the id of the node to search from
+	 * @param target the id of the node to search for
+	 * @return true if target is reachable from source
+	 */
+	public boolean run(int source, int target) {
+		start(source);
+		while (!queue.isEmpty()) {
+			if (settleNext() == target)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Runs a search from source until every node marked in isTarget is settled, or
+	 * until every node reachable from source is.
+	 *
+	 * @param source      the id of the node to search from
+	 * @param isTarget    marks the ids of the nodes to search for
+	 * @param targetCount the number of marked ids
+	 * @return true if every marked node is reachable from source
+	 */
+	public boolean runToAll(int source, boolean[] isTarget, int targetCount) {
+		start(source);
+		while (targetCount > 0 && !queue.isEmpty()) {
+			if (isTarget[settleNext()])
+				targetCount--;
+		}
+		return targetCount == 0;
+	}
+
+	/**
+	 * Runs a search from source that settles every node at most radius away from
+	 * it, and no other node.
+	 *
+	 * @param source the id of the node to search from
+	 * @param radius the largest distance of a node to settle
+	 */
+	public void runWithin(int source, double radius) {
+		start(source);
+		while (!queue.isEmpty() && peekDistance() <= radius) {
+			settleNext();
+		}
+	}
+
+	/**
+	 * @return the distance of the node id from the source, which is final once the
+	 *         node is settled, or infinity when the node was not reached
+	 */
+	public double distance(int id) {
+		return distance[id];
+	}
+
+	/**
+	 * @return the id of the node before id on its shortest path from the source
+	 *         (after id on its shortest path to the source, for a backward
+	 *         search), or -1 for the source and for nodes that were not reached
+	 */
+	public int predecessor(int id) {
+		return predecessor[id];
+	}
+
+	/**
+	 * @return the number of nodes settled by the current search
+	 */
+	public int settledCount() {
+		return settledCount;
+	}
+
+	/**
+	 * @return true if the distance of the node id is final
+	 */
+	public boolean isSettled(int id) {
+		return (settled[id >>> 6] & (1L << id)) != 0;
+	}
+
+}
@@ -0,0 +1,188 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * This class is a binary min-heap of int ids 0 to capacity - 1, each with a
+ * double key. Every id is in the heap at most once, and the heap position of
+ * each id is tracked, so the key of an id can be lowered in place (decrease-key)
+ * instead of inserting it again. All storage is allocated by the constructor,
+ * and clear only resets the ids that are still in the heap, so a heap can be
+ * reused for many searches without allocating.
+ */
+public class IndexedMinHeap {
+
+	private final int[] heap; // ids by heap position
+	private final int[] positions; // heap position by id, -1 when not in the heap
+	private final double[] keys; // keys by id
+	private int size = 0;
+
+	/**
+	 * Creates an empty heap for the ids 0 to capacity - 1.
+	 *
+	 * @param capacity the number of ids
+	 */
+	public IndexedMinHeap(int capacity) {
+		heap = new int[capacity];
+		positions = new int[capacity];
+		keys = new double[capacity];
+		Arrays.fill(positions, -1);
+	}
+
+	/**
+	 * @return the number of ids in the heap
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return true if the heap holds no ids
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return true if id is in the heap
+	 */
+	public boolean contains(int id) {
+		return positions[id] >= 0;
+	}
+
+	/**
+	 * Returns the key of an id in the heap.
+	 *
+	 * @throws NoSuchElementException when id is not in the heap
+	 */
+	public double key(int id) {
+		if (positions[id] < 0)
+			throw new NoSuchElementException("id " + id + " is not in the heap");
+		return keys[id];
+	}
+
+	/**
+	 * Adds id to the heap with the provided key.
+	 *
+	 * @throws IllegalArgumentException when id is already in the heap
+	 */
+	public void insert(int id, double key) {
+		if (positions[id] >= 0)
+			throw new IllegalArgumentException("id " + id + " is already in the heap");
+		keys[id] = key;
+		heap[size] = id;
+		positions[id] = size;
+		siftUp(size++);
+	}
+
+	/**
+	 * Lowers the key of an id in the heap.
+	 *
+	 * @throws NoSuchElementException   when id is not in the heap
+	 * @throws IllegalArgumentException when key is greater than the current key
+	 */
+	public void decreaseKey(int id, double key) {
+		if (positions[id] < 0)
+			throw new NoSuchElementException("id " + id + " is not in the heap");
+		if (key > keys[id])
+			throw new IllegalArgumentException("key " + key + " is greater than the current key " + keys[id]);
+		keys[id] = key;
+		siftUp(positions[id]);
+	}
+
+	/**
+	 * Adds id to the heap, or lowers its key when it is already in the heap with a
+	 * greater key.
+	 *
+	 * @return true if the heap changed
+	 */
+	public boolean insertOrDecrease(int id, double key) {
+		if (positions[id] < 0) {
+			insert(id, key);
+			return true;
+		}
+		if (key >= keys[id])
+			return false;
+		keys[id] = key;
+		siftUp(positions[id]);
+		return true;
+	}
+
+	/**
+	 * Returns the id with the smallest key, without removing it.
+	 *
+	 * @throws NoSuchElementException when the heap is empty
+	 */
+	public int peek() {
+		if (size == 0)
+			throw new NoSuchElementException("The heap is empty.");
+		return heap[0];
+	}
+
+	/**
+	 * Removes and returns the id with the smallest key.
+	 *
+	 * @throws NoSuchElementException when the heap is empty
+	 */
+	public int poll() {
+		if (size == 0)
+			throw new NoSuchElementException("The heap is empty.");
+		int min = heap[0];
+		positions[min] = -1;
+		if (--size > 0) {
+			heap[0] = heap[size];
+			positions[heap[0]] = 0;
+			siftDown(0);
+		}
+		return min;
+	}
+
+	/**
+	 * Removes all ids from the heap, in time proportional to their number.
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			positions[heap[i]] = -1;
+		}
+		size = 0;
+	}
+
+	// moves the id at position up until its parent has a smaller or equal key
+	private void siftUp(int position) {
+		int id = heap[position];
+		double key = keys[id];
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			int parentId = heap[parent];
+			if (keys[parentId] <= key)
+				break;
+			heap[position] = parentId;
+			positions[parentId] = position;
+			position = parent;
+		}
+		heap[position] = id;
+		positions[id] = position;
+	}
+
+	// moves the id at position down until its children have greater or equal keys
+	private void siftDown(int position) {
+		int id = heap[position];
+		double key = keys[id];
+		int half = size >>> 1;
+		while (position < half) {
+			int child = 2 * position + 1;
+			int childId = heap[child];
+			if (child + 1 < size && keys[heap[child + 1]] < keys[childId]) {
+				child++;
+				childId = heap[child];
+			}
+			if (key <= keys[childId])
+				break;
+			heap[position] = childId;
+			positions[childId] = position;
+			position = child;
+		}
+		heap[position] = id;
+		positions[id] = position;
+	}
+
+}
@@ -0,0 +1,122 @@
+/**
+ * This class precomputes the distances from and to a few landmark nodes of a
+ * CSRGraph, for the ALT variant of A* (A*, landmarks, and triangle inequality).
+ * By the triangle inequality, for any landmark L the distance from v to t is at
+ * least d(L, t) - d(L, v) and at least d(v, L) - d(t, L). The largest of these
+ * bounds over all landmarks is a consistent heuristic for AStarSearch, and a much
+ * tighter one than straight-line distance on road networks, where it typically
+ * cuts the settled nodes by an order of magnitude.
+ *
+ * The landmarks are picked one after the other, each as far as possible from the
+ * ones picked before, so they end up spread along the edges of the graph where
+ * they give the best bounds. Building the landmarks runs two complete Dijkstra
+ * searches per landmark, and they take 16 bytes per node and landmark.
+ */
+public class Landmarks implements AStarSearch.Heuristic {
+
+	protected final CSRGraph<?> graph;
+	protected final int[] landmarks;
+	protected final double[][] fromLandmark; // fromLandmark[i][v] = d(landmark i, v)
+	protected final double[][] toLandmark; // toLandmark[i][v] = d(v, landmark i)
+
+	/**
+	 * Picks the landmarks of a graph and computes their distances.
+	 *
+	 * @param graph the graph to compute the landmarks of
+	 * @param count the number of landmarks to pick, at most the number of nodes
+	 * @throws IllegalArgumentException when count is not positive
+	 */
+	public Landmarks(CSRGraph<?> graph, int count) {
+		if (count <= 0)
+			throw new IllegalArgumentException("The number of landmarks must be positive: " + count);
+		this.graph = graph;
+		int nodeCount = graph.getNodeCount();
+		count = Math.min(count, nodeCount);
+		landmarks = new int[count];
+		fromLandmark = new double[count][];
+		toLandmark = new double[count][];
+		if (count == 0)
+			return;
+
+		DijkstraSearch forward = new DijkstraSearch(graph, false);
+		DijkstraSearch backward = new DijkstraSearch(graph, true);
+		// the distance of each node from the closest landmark picked so far
+		double[] nearest = new double[nodeCount];
+		// the first landmark is the node farthest from node 0
+		forward.run(0, -1);
+		int next = farthest(forward, nearest, true);
+		for (int i = 0; i < count; i++) {
+			landmarks[i] = next;
+			forward.run(next, -1);
+			backward.run(next, -1);
+			fromLandmark[i] = distances(forward);
+			toLandmark[i] = distances(backward);
+			next = farthest(forward, nearest, i == 0);
+		}
+	}
+
+	// copies the distances of a complete search into a new array
+	private static double[] distances(DijkstraSearch search) {
+		double[] distances = new double[search.getGraph().getNodeCount()];
+		for (int id = 0; id < distances.length; id++) {
+			distances[id] = search.distance(id);
+		}
+		return distances;
+	}
+
+	/**
+	 * Helper method that lowers the distances to the nearest landmark by the
+	 * distances of the last complete search (or replaces them, for the first), and
+	 * returns the node farthest from every landmark. Nodes that the landmarks
+	 * cannot reach at all come first, so that each part of a disconnected graph
+	 * gets landmarks.
+	 */
+	private static int farthest(DijkstraSearch search, double[] nearest, boolean first) {
+		int farthest = 0;
+		for (int id = 0; id < nearest.length; id++) {
+			nearest[id] = first ? search.distance(id) : Math.min(nearest[id], search.distance(id));
+			if (nearest[id] > nearest[farthest])
+				farthest = id;
+		}
+		return farthest;
+	}
+
+	/**
+	 * @return the graph the landmarks belong to
+	 */
+	public CSRGraph<?> getGraph() {
+		return graph;
+	}
+
+	/**
+	 * @return the ids of the landmarks
+	 */
+	public int[] getLandmarks() {
+		return landmarks.clone();
+	}
+
+	/**
+	 * Returns the largest lower bound of the distance from the node from to the
+	 * node to that the triangle inequality gives for the landmarks. Bounds that
+	 * involve a landmark that cannot reach or be reached by a node are skipped.
+	 *
+	 * @param from the id of the first node
+	 * @param to   the id of the second node
+	 * @return a lower bound of the distance from from to to
+	 */
+	public double estimate(int from, int to) {
+		double bound = 0;
+		for (int i = 0; i < landmarks.length; i++) {
+			double[] fromL = fromLandmark[i];
+			double[] toL = toLandmark[i];
+			// d(v, t) >= d(L, t) - d(L, v)
+			if (fromL[to] != Double.POSITIVE_INFINITY && fromL[from] != Double.POSITIVE_INFINITY)
+				bound = Math.max(bound, fromL[to] - fromL[from]);
+			// d(v, t) >= d(v, L) - d(t, L)
+			if (toL[from] != Double.POSITIVE_INFINITY && toL[to] != Double.POSITIVE_INFINITY)
+				bound = Math.max(bound, toL[from] - toL[to]);
+		}
+		return bound;
+	}
+
+}
@@ -0,0 +1,136 @@
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This class holds the shortest paths from one start node to all of the nodes
+ * it reaches (or to those within a radius), as found by a single Dijkstra search
+ * that runs until its queue is empty: the distance and the predecessor of every
+ * node, indexed by its id in a CSRGraph. The path to a node is only assembled
+ * when pathTo asks for it, by following the predecessors back to the start.
+ *
+ * A ShortestPathTree is a snapshot: it does not change when the graph it was
+ * computed for changes.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class ShortestPathTree<NodeType> {
+
+	protected final CSRGraph<NodeType> graph;
+	protected final int start;
+	protected final double[] distance; // distance from start by id, infinite when not reached
+	protected final int[] predecessor; // previous node on the shortest path by id, or -1
+	protected final int reachedCount;
+
+	/**
+	 * Copies the settled nodes of a search that has finished.
+	 *
+	 * @param search the search to copy the distances and predecessors of
+	 * @param graph  the graph that was searched
+	 * @param start  the id of the node the search started from
+	 */
+	protected ShortestPathTree(DijkstraSearch search, CSRGraph<NodeType> graph, int start) {
+		this.graph = graph;
+		this.start = start;
+		int nodeCount = graph.getNodeCount();
+		distance = new double[nodeCount];
+		predecessor = new int[nodeCount];
+		int reached = 0;
+		for (int id = 0; id < nodeCount; id++) {
+			// nodes that were queued but not settled lie beyond the radius
+			if (search.isSettled(id)) {
+				distance[id] = search.distance(id);
+				predecessor[id] = search.predecessor(id);
+				reached++;
+			} else {
+				distance[id] = Double.POSITIVE_INFINITY;
+				predecessor[id] = -1;
+			}
+		}
+		reachedCount = reached;
+	}
+
+	/**
+	 * @return the data of the start node of all paths in this tree
+	 */
+	public NodeType getStart() {
+		return graph.nodeData(start);
+	}
+
+	/**
+	 * @return the number of nodes in this tree, including the start node
+	 */
+	public int size() {
+		return reachedCount;
+	}
+
+	/**
+	 * @param node the data of a node
+	 * @return true if this tree holds a shortest path from the start to node
+	 */
+	public boolean contains(NodeType node) {
+		int id = graph.id(node);
+		return id >= 0 && distance[id] != Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Returns the cost of the shortest path from the start to node.
+	 *
+	 * @param node the data of the last node of the path
+	 * @return the cost of the shortest path to node
+	 * @throws NoSuchElementException when node is not in this tree
+	 */
+	public double distance(NodeType node) {
+		return distance[idOf(node)];
+	}
+
+	/**
+	 * Returns the data of the nodes along the shortest path from the start to
+	 * node, starting with the start and ending with node.
+	 *
+	 * @param node the data of the last node of the path
+	 * @return list of the data of the nodes along the shortest path to node
+	 * @throws NoSuchElementException when node is not in this tree
+	 */
+	public List<NodeType> pathTo(NodeType node) {
+		List<NodeType> list = new LinkedList<NodeType>();
+		for (int id = idOf(node); id >= 0; id = predecessor[id]) {
+			list.add(0, graph.nodeData(id));
+		}
+		return list;
+	}
+
+	/**
+	 * @return the graph this tree was computed on, whose ids index
+	 *         getDistances() and getPredecessors()
+	 */
+	public CSRGraph<NodeType> getGraph() {
+		return graph;
+	}
+
+	/**
+	 * @return the distance from the start by node id, infinite for the nodes that
+	 *         are not in this tree
+	 */
+	public double[] getDistances() {
+		return distance.clone();
+	}
+
+	/**
+	 * @return the id of the node before each node on its shortest path from the
+	 *         start, or -1 for the start and for the nodes that are not in this
+	 *         tree
+	 */
+	public int[] getPredecessors() {
+		return predecessor.clone();
+	}
+
+	// returns the id of node, which must be in this tree
+	private int idOf(NodeType node) {
+		int id = graph.id(node);
+		if (id < 0 || distance[id] == Double.POSITIVE_INFINITY)
+			throw new NoSuchElementException("there is no path from the start to " + node + "!");
+		return id;
+	}
+
+}
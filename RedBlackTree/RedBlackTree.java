@@ -15,16 +15,15 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
      */
     protected static class Node<T> {
         public T data;
-        // The context array stores the context of the node in the tree:
-        // - context[0] is the parent reference of the node,
-        // - context[1] is the left child reference of the node,
-        // - context[2] is the right child reference of the node.
-        // The @SupressWarning("unchecked") annotation is used to supress an unchecked
-        // cast warning. Java only allows us to instantiate arrays without generic
-        // type parameters, so we use this cast here to avoid future casts of the
-        // node type's data field.
-        @SuppressWarnings("unchecked")
-        public Node<T>[] context = (Node<T>[]) new Node[3];
+        // The context of the node in the tree is stored in direct fields, rather
+        // than in a separate array, so that moving between nodes does not have to
+        // go through an extra object:
+        // - parent is the parent reference of the node,
+        // - left is the left child reference of the node,
+        // - right is the right child reference of the node.
+        public Node<T> parent;
+        public Node<T> left;
+        public Node<T> right;
 
         public Node(T data) {
             this.data = data;
@@ -35,7 +34,7 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
          *         that parent, otherwise return false
          */
         public boolean isRightChild() {
-            return context[0] != null && context[0].context[2] == this;
+            return parent != null && parent.right == this;
         }
 
     }
@@ -75,27 +74,27 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
                     throw new IllegalArgumentException("This RedBlackTree already contains value " + data.toString());
                 } else if (compare < 0) {
                     // insert in left subtree
-                    if (current.context[1] == null) {
+                    if (current.left == null) {
                         // empty space to insert into
-                        current.context[1] = newNode;
-                        newNode.context[0] = current;
+                        current.left = newNode;
+                        newNode.parent = current;
                         this.size++;
                         return true;
                     } else {
                         // no empty space, keep moving down the tree
-                        current = current.context[1];
+                        current = current.left;
                     }
                 } else {
                     // insert in right subtree
-                    if (current.context[2] == null) {
+                    if (current.right == null) {
                         // empty space to insert into
-                        current.context[2] = newNode;
-                        newNode.context[0] = current;
+                        current.right = newNode;
+                        newNode.parent = current;
                         this.size++;
                         return true;
                     } else {
                         // no empty space, keep moving down the tree
-                        current = current.context[2];
+                        current = current.right;
                     }
                 }
             }
@@ -130,31 +129,31 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 
             // first step of left rotation, assign left child of the child node as new right
             // child of the parent
-            parent.context[2] = child.context[1];
+            parent.right = child.left;
 
             // check if newly assigned child is not null, then update its parent reference
-            if (parent.context[2] != null) {
-                parent.context[2].context[0] = parent;
+            if (parent.right != null) {
+                parent.right.parent = parent;
             }
 
             // second step of left rotation, assign the parent node's parent as the new
             // parent of the child node.
-            child.context[0] = parent.context[0];
+            child.parent = parent.parent;
 
             // check if new parent of the child is not null, then update its child
             // reference,
             // whether it is right or left child of its parent
-            if (child.context[0] != null) {
+            if (child.parent != null) {
                 if (parent.isRightChild()) {
-                    child.context[0].context[2] = child;
+                    child.parent.right = child;
                 } else {
-                    child.context[0].context[1] = child;
+                    child.parent.left = child;
                 }
             }
 
             // lastly, update new parent and child reference after rotation has been done
-            child.context[1] = parent;
-            parent.context[0] = child;
+            child.left = parent;
+            parent.parent = child;
         }
 
         // if the child is left node of the parent, do right rotation
@@ -162,31 +161,31 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 
             // first step of right rotation, assign right child of the child node as new
             // left child of the parent
-            parent.context[1] = child.context[2];
+            parent.left = child.right;
 
             // check if newly assigned child is not null, then update its parent reference
-            if (parent.context[1] != null) {
-                parent.context[1].context[0] = parent;
+            if (parent.left != null) {
+                parent.left.parent = parent;
             }
 
             // second step of right rotation, assign the parent node's parent as the new
             // parent of the child node.
-            child.context[0] = parent.context[0];
+            child.parent = parent.parent;
 
             // check if new parent of the child is not null, then update its child
             // reference,
             // whether it is right or left child of its parent
-            if (child.context[0] != null) {
+            if (child.parent != null) {
                 if (parent.isRightChild()) {
-                    child.context[0].context[2] = child;
+                    child.parent.right = child;
                 } else {
-                    child.context[0].context[1] = child;
+                    child.parent.left = child;
                 }
             }
 
             // lastly, update new parent and child reference after rotation has been done
-            child.context[2] = parent;
-            parent.context[0] = child;
+            child.right = parent;
+            parent.parent = child;
         }
         // throw exception if child is neither right nor left child of the parent node
         else {
@@ -237,27 +236,27 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
                 throw new IllegalArgumentException(
                         "The following value is not in the tree and cannot be deleted: " + data.toString());
             }
-            boolean hasRightChild = (nodeWithData.context[2] != null);
-            boolean hasLeftChild = (nodeWithData.context[1] != null);
+            boolean hasRightChild = (nodeWithData.right != null);
+            boolean hasLeftChild = (nodeWithData.left != null);
             if (hasRightChild && hasLeftChild) {
                 // has 2 children
                 Node<T> successorNode = this.findMinOfRightSubtree(nodeWithData);
                 // replace value of node with value of successor node
                 nodeWithData.data = successorNode.data;
                 // remove successor node
-                if (successorNode.context[2] == null) {
+                if (successorNode.right == null) {
                     // successor has no children, replace with null
                     this.replaceNode(successorNode, null);
                 } else {
                     // successor has a right child, replace successor with its child
-                    this.replaceNode(successorNode, successorNode.context[2]);
+                    this.replaceNode(successorNode, successorNode.right);
                 }
             } else if (hasRightChild) {
                 // only right child, replace with right child
-                this.replaceNode(nodeWithData, nodeWithData.context[2]);
+                this.replaceNode(nodeWithData, nodeWithData.right);
             } else if (hasLeftChild) {
                 // only left child, replace with left child
-                this.replaceNode(nodeWithData, nodeWithData.context[1]);
+                this.replaceNode(nodeWithData, nodeWithData.left);
             } else {
                 // no children, replace node with a null node
                 this.replaceNode(nodeWithData, null);
@@ -296,20 +295,20 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
         if (nodeToReplace == null) {
             throw new NullPointerException("Cannot replace null node.");
         }
-        if (nodeToReplace.context[0] == null) {
+        if (nodeToReplace.parent == null) {
             // we are replacing the root
             if (replacementNode != null)
-                replacementNode.context[0] = null;
+                replacementNode.parent = null;
             this.root = replacementNode;
         } else {
             // set the parent of the replacement node
             if (replacementNode != null)
-                replacementNode.context[0] = nodeToReplace.context[0];
+                replacementNode.parent = nodeToReplace.parent;
             // do we have to attach a new left or right child to our parent?
             if (nodeToReplace.isRightChild()) {
-                nodeToReplace.context[0].context[2] = replacementNode;
+                nodeToReplace.parent.right = replacementNode;
             } else {
-                nodeToReplace.context[0].context[1] = replacementNode;
+                nodeToReplace.parent.left = replacementNode;
             }
         }
     }
@@ -322,18 +321,18 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
      * @return the node that is the inorder successor of node
      */
     protected Node<T> findMinOfRightSubtree(Node<T> node) {
-        if (node.context[1] == null && node.context[2] == null) {
+        if (node.left == null && node.right == null) {
             throw new IllegalArgumentException("Node must have two children");
         }
         // take a steop to the right
-        Node<T> current = node.context[2];
+        Node<T> current = node.right;
         while (true) {
             // then go left as often as possible to find the successor
-            if (current.context[1] == null) {
+            if (current.left == null) {
                 // we found the successor
                 return current;
             } else {
-                current = current.context[1];
+                current = current.left;
             }
         }
     }
@@ -353,10 +352,10 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
                 return current;
             } else if (compare < 0) {
                 // keep looking in the left subtree
-                current = current.context[1];
+                current = current.left;
             } else {
                 // keep looking in the right subtree
-                current = current.context[2];
+                current = current.right;
             }
         }
         // we're at a null node and did not find data, so it's not in the tree
@@ -384,12 +383,12 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
                 if (current == null) {
                     Node<T> popped = nodeStack.pop();
                     sb.append(popped.data.toString());
-                    if (!nodeStack.isEmpty() || popped.context[2] != null)
+                    if (!nodeStack.isEmpty() || popped.right != null)
                         sb.append(", ");
-                    current = popped.context[2];
+                    current = popped.right;
                 } else {
                     nodeStack.add(current);
-                    current = current.context[1];
+                    current = current.left;
                 }
             }
         }
@@ -415,10 +414,10 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
             q.add(this.root);
             while (!q.isEmpty()) {
                 Node<T> next = q.removeFirst();
-                if (next.context[1] != null)
-                    q.add(next.context[1]);
-                if (next.context[2] != null)
-                    q.add(next.context[2]);
+                if (next.left != null)
+                    q.add(next.left);
+                if (next.right != null)
+                    q.add(next.right);
                 sb.append(next.data.toString());
                 if (!q.isEmpty())
                     sb.append(", ");
@@ -473,7 +472,7 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
             }
 
             // Rotate the tree when parent node is root and the child is right of the parent
-            testTree1.rotate(testTree1.root.context[2], testTree1.root);
+            testTree1.rotate(testTree1.root.right, testTree1.root);
 
             // Check if tree has been formed as expected after rotation
             if (!testTree1.toLevelOrderString().equals("[ 60, 40, 70, 20, 50, 10, 30 ]")) {
@@ -514,7 +513,7 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
                 return false;
             }
 
-            testTree2.rotate(testTree2.root.context[1], testTree2.root);
+            testTree2.rotate(testTree2.root.left, testTree2.root);
 
             // Check if tree has been formed as expected after rotation
             if (!testTree2.toLevelOrderString().equals("[ 20, 10, 40, 30, 60, 50, 70 ]")) {
@@ -559,7 +558,7 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
                 return false;
             }
 
-            testTree3.rotate(testTree3.root.context[2].context[2], testTree3.root.context[2]);
+            testTree3.rotate(testTree3.root.right.right, testTree3.root.right);
 
             // Check if tree has been formed as expected after rotation
             if (!testTree3.toLevelOrderString().equals("[ 30, 27, 35, 25, 28, 33, 36, 24, 26, 31, 34 ]")) {
@@ -604,7 +603,7 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
                 return false;
             }
 
-            testTree4.rotate(testTree4.root.context[1].context[1], testTree4.root.context[1]);
+            testTree4.rotate(testTree4.root.left.left, testTree4.root.left);
 
             // Check if tree has been formed a expected after rotation
             if (!testTree4.toLevelOrderString().equals("[ 30, 25, 33, 24, 27, 31, 35, 26, 28, 34, 36 ]")) {
@@ -0,0 +1,67 @@
+import java.util.ArrayDeque;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import benchmarks.RedBlackTreeBenchmark.Target;
+
+/**
+ * The adapter of benchmarks.RedBlackTreeBenchmark for the RedBlackTree of this
+ * directory, which that benchmark cannot refer to from its package, so it calls
+ * this factory method through reflection.
+ */
+public class RedBlackTreeBenchmarkTargets {
+
+    /**
+     * @return an adapter for a new, empty RedBlackTree
+     */
+    public static Target redBlackTree() {
+        RedBlackTree<Integer> tree = new RedBlackTree<Integer>();
+        return new Target() {
+            public void insert(Integer value) {
+                tree.insert(value);
+            }
+
+            public boolean contains(Integer value) {
+                return tree.contains(value);
+            }
+
+            public void remove(Integer value) {
+                tree.remove(value);
+            }
+
+            public void traverse(Blackhole blackhole) {
+                // in-order walk with an explicit stack of pending nodes
+                ArrayDeque<RedBlackTree.Node<Integer>> stack = new ArrayDeque<>();
+                RedBlackTree.Node<Integer> node = tree.root;
+                while (node != null || !stack.isEmpty()) {
+                    for (; node != null; node = node.left) {
+                        stack.push(node);
+                    }
+                    node = stack.pop();
+                    blackhole.consume(node.data);
+                    node = node.right;
+                }
+            }
+
+            public int height() {
+                // level-order walk counting the levels
+                int height = 0;
+                ArrayDeque<RedBlackTree.Node<Integer>> level = new ArrayDeque<>();
+                if (tree.root != null)
+                    level.add(tree.root);
+                while (!level.isEmpty()) {
+                    height++;
+                    for (int i = level.size(); i > 0; i--) {
+                        RedBlackTree.Node<Integer> node = level.poll();
+                        if (node.left != null)
+                            level.add(node.left);
+                        if (node.right != null)
+                            level.add(node.right);
+                    }
+                }
+                return height;
+            }
+        };
+    }
+
+}
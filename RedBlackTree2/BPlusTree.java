@@ -0,0 +1,536 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * B+-tree implementation of SortedCollectionInterface. Every node holds up to
+ * order - 1 values in a sorted array, so a lookup touches about log_order(n)
+ * nodes instead of the log_2(n) nodes of a RedBlackTree, and binary searches
+ * within each node read consecutive array slots. All values are stored in the
+ * leaves; the inner nodes only hold copies of them as separators. The leaves
+ * are linked in order, so in-order and range scans walk arrays from leaf to
+ * leaf without going back up the tree.
+ *
+ * The methods behave like the ones of RedBlackTree: null values are rejected
+ * with a NullPointerException, and inserting a value that is already stored or
+ * removing a value that is not throws an IllegalArgumentException.
+ */
+public class BPlusTree<T extends Comparable<T>> implements SortedCollectionInterface<T>, Iterable<T> {
+
+	// the default maximum number of children of an inner node. The node arrays
+	// hold references, so this spans a few cache lines per node
+	public static final int DEFAULT_ORDER = 64;
+
+	/**
+	 * This class represents a node of the tree. The first count slots of values
+	 * hold its values in ascending order.
+	 */
+	protected static abstract class Node {
+		protected final Object[] values;
+		protected int count;
+
+		protected Node(int capacity) {
+			this.values = new Object[capacity];
+		}
+	}
+
+	/**
+	 * Leaf node holding the values themselves, linked to the leaf that holds the
+	 * next larger values.
+	 */
+	protected static final class Leaf extends Node {
+		protected Leaf next;
+
+		protected Leaf(int capacity) {
+			super(capacity);
+		}
+	}
+
+	/**
+	 * Inner node. Its child at index i holds the values that are at least the
+	 * separator at index i - 1 and less than the separator at index i.
+	 */
+	protected static final class Inner extends Node {
+		protected final Node[] children;
+
+		protected Inner(int capacity) {
+			super(capacity);
+			this.children = new Node[capacity + 1];
+		}
+	}
+
+	protected final int maxValues; // the most values a node may hold
+	protected final int minValues; // the fewest values a node other than the root may hold
+	protected final Comparator<? super T> comparator; // null for natural ordering
+	protected Node root = null; // reference to root node of tree, null when empty
+	protected int size = 0; // the number of values in the tree
+	protected int modCount = 0; // the number of structural changes, for fail-fast iterators
+	private Object promoted; // the separator produced by the last split of a node
+
+	/**
+	 * Creates an empty tree with the default order that orders its values by
+	 * their natural ordering.
+	 */
+	public BPlusTree() {
+		this(DEFAULT_ORDER, null);
+	}
+
+	/**
+	 * Creates an empty tree with the provided order (maximum number of children
+	 * per inner node) and comparator.
+	 *
+	 * @param order      the maximum number of children of an inner node, at least
+	 *                   3
+	 * @param comparator the comparator to order values with, or null to use their
+	 *                   natural ordering
+	 * @throws IllegalArgumentException when order is less than 3
+	 */
+	public BPlusTree(int order, Comparator<? super T> comparator) {
+		if (order < 3)
+			throw new IllegalArgumentException("The order of a BPlusTree must be at least 3: " + order);
+		this.maxValues = order - 1;
+		this.minValues = maxValues / 2;
+		this.comparator = comparator;
+	}
+
+	/**
+	 * Compares two values with the comparator of this tree, or with their
+	 * natural ordering when it has none.
+	 */
+	@SuppressWarnings("unchecked")
+	protected int compare(Object a, Object b) {
+		return comparator == null ? ((T) a).compareTo((T) b) : comparator.compare((T) a, (T) b);
+	}
+
+	/**
+	 * Binary search over the values of a node.
+	 *
+	 * @return the index of data, or -(insertion point) - 1 when data is absent
+	 */
+	protected int search(Node node, Object data) {
+		int lo = 0;
+		int hi = node.count - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			int compare = compare(node.values[mid], data);
+			if (compare < 0)
+				lo = mid + 1;
+			else if (compare > 0)
+				hi = mid - 1;
+			else
+				return mid;
+		}
+		return -(lo + 1);
+	}
+
+	/**
+	 * Returns the index of the child of an inner node whose range holds data.
+	 */
+	protected int childIndex(Inner node, Object data) {
+		int index = search(node, data);
+		// a value equal to a separator belongs to the child right of it
+		return index >= 0 ? index + 1 : -(index + 1);
+	}
+
+	/**
+	 * Returns the leaf whose range holds data.
+	 */
+	protected Leaf findLeaf(Object data) {
+		Node node = root;
+		while (node instanceof Inner) {
+			Inner inner = (Inner) node;
+			node = inner.children[childIndex(inner, data)];
+		}
+		return (Leaf) node;
+	}
+
+	/**
+	 * Inserts a new value into the leaf whose range holds it, splitting every
+	 * node on the way back up that overflows.
+	 *
+	 * @param data to be added into the tree
+	 * @return true if the value was inserted
+	 * @throws NullPointerException     when the provided data argument is null
+	 * @throws IllegalArgumentException when data is already contained in the tree
+	 */
+	public boolean insert(T data) throws NullPointerException, IllegalArgumentException {
+		// null references cannot be stored within this tree
+		if (data == null)
+			throw new NullPointerException("This BPlusTree cannot store null references.");
+
+		if (root == null)
+			root = new Leaf(maxValues + 1);
+
+		Node sibling = insertHelper(root, data);
+		if (sibling != null) {
+			// the root was split, so the tree grows by one level
+			Inner newRoot = new Inner(maxValues + 1);
+			newRoot.values[0] = promoted;
+			newRoot.children[0] = root;
+			newRoot.children[1] = sibling;
+			newRoot.count = 1;
+			root = newRoot;
+		}
+		promoted = null;
+		size++;
+		modCount++;
+		return true;
+	}
+
+	/**
+	 * Recursive helper method that inserts data below node. The node arrays have
+	 * room for one value more than allowed, so a node can be filled first and
+	 * split afterwards.
+	 *
+	 * @return the new right sibling of node when node was split (the separator
+	 *         between them is left in promoted), null otherwise
+	 */
+	private Node insertHelper(Node node, T data) {
+		if (node instanceof Leaf) {
+			Leaf leaf = (Leaf) node;
+			int index = search(leaf, data);
+			if (index >= 0)
+				throw new IllegalArgumentException("This BPlusTree already contains that value.");
+			insertAt(leaf, -(index + 1), data);
+			return leaf.count > maxValues ? splitLeaf(leaf) : null;
+		}
+
+		Inner inner = (Inner) node;
+		int index = childIndex(inner, data);
+		Node sibling = insertHelper(inner.children[index], data);
+		if (sibling == null)
+			return null;
+
+		System.arraycopy(inner.children, index + 1, inner.children, index + 2, inner.count - index);
+		inner.children[index + 1] = sibling;
+		insertAt(inner, index, promoted);
+		return inner.count > maxValues ? splitInner(inner) : null;
+	}
+
+	private static void insertAt(Node node, int index, Object data) {
+		System.arraycopy(node.values, index, node.values, index + 1, node.count - index);
+		node.values[index] = data;
+		node.count++;
+	}
+
+	/**
+	 * Moves the upper half of an overflowing leaf into a new leaf linked after
+	 * it, and promotes the smallest value of the new leaf as their separator.
+	 */
+	private Leaf splitLeaf(Leaf leaf) {
+		Leaf sibling = new Leaf(maxValues + 1);
+		int keep = leaf.count / 2;
+		sibling.count = leaf.count - keep;
+		System.arraycopy(leaf.values, keep, sibling.values, 0, sibling.count);
+		Arrays.fill(leaf.values, keep, leaf.count, null);
+		leaf.count = keep;
+
+		sibling.next = leaf.next;
+		leaf.next = sibling;
+		promoted = sibling.values[0];
+		return sibling;
+	}
+
+	/**
+	 * Moves the upper half of an overflowing inner node into a new inner node,
+	 * and promotes the separator between the two halves to the parent.
+	 */
+	private Inner splitInner(Inner inner) {
+		Inner sibling = new Inner(maxValues + 1);
+		int keep = inner.count / 2;
+		promoted = inner.values[keep];
+		sibling.count = inner.count - keep - 1;
+		System.arraycopy(inner.values, keep + 1, sibling.values, 0, sibling.count);
+		System.arraycopy(inner.children, keep + 1, sibling.children, 0, sibling.count + 1);
+		Arrays.fill(inner.values, keep, inner.count, null);
+		Arrays.fill(inner.children, keep + 1, inner.count + 1, null);
+		inner.count = keep;
+		return sibling;
+	}
+
+	/**
+	 * Removes the value data from the tree. A node left with too few values
+	 * borrows one from a sibling, or is merged with it when the sibling has none
+	 * to spare.
+	 *
+	 * @param data the value to remove
+	 * @return true if the value was removed
+	 * @throws NullPointerException     when the provided data argument is null
+	 * @throws IllegalArgumentException when data is not stored in the tree
+	 */
+	public boolean remove(T data) throws NullPointerException, IllegalArgumentException {
+		// null references will not be stored within this tree
+		if (data == null)
+			throw new NullPointerException("This BPlusTree cannot store null references.");
+
+		if (root == null || !removeHelper(root, data))
+			throw new IllegalArgumentException("The following value is not in the tree and cannot be deleted.");
+
+		if (root.count == 0) {
+			// the root lost its last separator (or value), so the tree shrinks
+			root = root instanceof Inner ? ((Inner) root).children[0] : null;
+		}
+		size--;
+		modCount++;
+		return true;
+	}
+
+	/**
+	 * Recursive helper method that removes data below node. Separators that are
+	 * equal to the removed value are left in place: they still separate the
+	 * values of their children correctly.
+	 *
+	 * @return true if data was found and removed, false otherwise
+	 */
+	private boolean removeHelper(Node node, T data) {
+		if (node instanceof Leaf) {
+			int index = search(node, data);
+			if (index < 0)
+				return false;
+			System.arraycopy(node.values, index + 1, node.values, index, node.count - index - 1);
+			node.values[--node.count] = null;
+			return true;
+		}
+
+		Inner inner = (Inner) node;
+		int index = childIndex(inner, data);
+		if (!removeHelper(inner.children[index], data))
+			return false;
+		if (inner.children[index].count < minValues)
+			fixUnderflow(inner, index);
+		return true;
+	}
+
+	/**
+	 * Restores the minimum number of values in the child at index of parent by
+	 * borrowing from its left or right sibling, or by merging it with one of
+	 * them.
+	 */
+	private void fixUnderflow(Inner parent, int index) {
+		Node child = parent.children[index];
+		Node left = index > 0 ? parent.children[index - 1] : null;
+		Node right = index < parent.count ? parent.children[index + 1] : null;
+
+		if (left != null && left.count > minValues) {
+			// move the largest value of the left sibling into child
+			if (child instanceof Leaf) {
+				insertAt(child, 0, left.values[left.count - 1]);
+				parent.values[index - 1] = child.values[0];
+			} else {
+				Inner innerChild = (Inner) child;
+				Inner innerLeft = (Inner) left;
+				System.arraycopy(innerChild.children, 0, innerChild.children, 1, innerChild.count + 1);
+				innerChild.children[0] = innerLeft.children[innerLeft.count];
+				innerLeft.children[innerLeft.count] = null;
+				insertAt(innerChild, 0, parent.values[index - 1]);
+				parent.values[index - 1] = innerLeft.values[innerLeft.count - 1];
+			}
+			left.values[--left.count] = null;
+		} else if (right != null && right.count > minValues) {
+			// move the smallest value of the right sibling into child
+			if (child instanceof Leaf) {
+				child.values[child.count++] = right.values[0];
+				removeFirst(right);
+				parent.values[index] = right.values[0];
+			} else {
+				Inner innerChild = (Inner) child;
+				Inner innerRight = (Inner) right;
+				innerChild.values[innerChild.count++] = parent.values[index];
+				innerChild.children[innerChild.count] = innerRight.children[0];
+				parent.values[index] = innerRight.values[0];
+				System.arraycopy(innerRight.children, 1, innerRight.children, 0, innerRight.count);
+				innerRight.children[innerRight.count] = null;
+				removeFirst(innerRight);
+			}
+		} else if (left != null) {
+			merge(parent, index - 1);
+		} else {
+			merge(parent, index);
+		}
+	}
+
+	private static void removeFirst(Node node) {
+		System.arraycopy(node.values, 1, node.values, 0, node.count - 1);
+		node.values[--node.count] = null;
+	}
+
+	/**
+	 * Merges the child at index + 1 of parent into the child at index, and
+	 * removes the separator between them from parent.
+	 */
+	private void merge(Inner parent, int index) {
+		Node left = parent.children[index];
+		Node right = parent.children[index + 1];
+
+		if (left instanceof Leaf) {
+			System.arraycopy(right.values, 0, left.values, left.count, right.count);
+			left.count += right.count;
+			((Leaf) left).next = ((Leaf) right).next;
+		} else {
+			Inner innerLeft = (Inner) left;
+			Inner innerRight = (Inner) right;
+			innerLeft.values[innerLeft.count] = parent.values[index];
+			System.arraycopy(innerRight.values, 0, innerLeft.values, innerLeft.count + 1, innerRight.count);
+			System.arraycopy(innerRight.children, 0, innerLeft.children, innerLeft.count + 1, innerRight.count + 1);
+			innerLeft.count += innerRight.count + 1;
+		}
+
+		System.arraycopy(parent.values, index + 1, parent.values, index, parent.count - index - 1);
+		System.arraycopy(parent.children, index + 2, parent.children, index + 1, parent.count - index - 1);
+		parent.count--;
+		parent.values[parent.count] = null;
+		parent.children[parent.count + 1] = null;
+	}
+
+	/**
+	 * Checks whether the tree contains the value data.
+	 *
+	 * @param data the data value to test for
+	 * @return true if data is in the tree, false if it is not
+	 */
+	public boolean contains(T data) {
+		// null references will not be stored within this tree
+		if (data == null)
+			throw new NullPointerException("This BPlusTree cannot store null references.");
+		if (root == null)
+			return false;
+		return search(findLeaf(data), data) >= 0;
+	}
+
+	/**
+	 * Get the size of the tree.
+	 *
+	 * @return the number of values in the tree
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Method to check if the tree is empty.
+	 *
+	 * @return true of this.size() return 0, false if this.size() > 0
+	 */
+	public boolean isEmpty() {
+		return this.size() == 0;
+	}
+
+	/**
+	 * Returns the number of levels of the tree, 0 when it is empty.
+	 *
+	 * @return the height of the tree
+	 */
+	public int height() {
+		int height = 0;
+		for (Node node = root; node != null; height++) {
+			node = node instanceof Inner ? ((Inner) node).children[0] : null;
+		}
+		return height;
+	}
+
+	/**
+	 * Returns a lazy view of the values in this tree from lo (inclusive) up to hi
+	 * (exclusive), in order. Each iterator descends to the leaf holding lo once
+	 * and then scans the linked leaves.
+	 *
+	 * @param lo the smallest value of the range (inclusive)
+	 * @param hi the end of the range (exclusive)
+	 * @return an Iterable over the values within the range
+	 * @throws NullPointerException     when lo or hi is null
+	 * @throws IllegalArgumentException when lo is greater than hi
+	 */
+	public Iterable<T> range(T lo, T hi) {
+		if (lo == null || hi == null)
+			throw new NullPointerException("Range bounds cannot be null.");
+		if (compare(lo, hi) > 0)
+			throw new IllegalArgumentException("Range start " + lo + " is greater than range end " + hi);
+		return () -> {
+			if (root == null)
+				return new LeafIterator(null, 0, hi);
+			Leaf leaf = findLeaf(lo);
+			int index = search(leaf, lo);
+			return new LeafIterator(leaf, index >= 0 ? index : -(index + 1), hi);
+		};
+	}
+
+	/**
+	 * Returns an iterator over the values of this tree in ascending order. It
+	 * fails fast when the tree is modified during the iteration.
+	 *
+	 * @return an iterator over the values of this tree in ascending order
+	 */
+	public Iterator<T> iterator() {
+		Node node = root;
+		while (node instanceof Inner) {
+			node = ((Inner) node).children[0];
+		}
+		return new LeafIterator((Leaf) node, 0, null);
+	}
+
+	/**
+	 * Iterator that scans the linked leaves from a starting position, stopping
+	 * before the first value that reaches its upper bound.
+	 */
+	protected class LeafIterator implements Iterator<T> {
+		private Leaf leaf; // the leaf holding the next value, null when done
+		private int index; // the index of the next value within leaf
+		private final T hi; // exclusive upper bound, or null when unbounded
+		private final int expectedModCount = modCount;
+
+		protected LeafIterator(Leaf leaf, int index, T hi) {
+			this.leaf = leaf;
+			this.index = index;
+			this.hi = hi;
+			advance();
+		}
+
+		// moves to the next leaf when the current one is used up, and stops at hi
+		private void advance() {
+			while (leaf != null && index >= leaf.count) {
+				leaf = leaf.next;
+				index = 0;
+			}
+			if (leaf != null && hi != null && compare(leaf.values[index], hi) >= 0)
+				leaf = null;
+		}
+
+		public boolean hasNext() {
+			return leaf != null;
+		}
+
+		@SuppressWarnings("unchecked")
+		public T next() {
+			if (modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+			if (leaf == null)
+				throw new NoSuchElementException("There are no more values in this range.");
+			T data = (T) leaf.values[index++];
+			advance();
+			return data;
+		}
+	}
+
+	/**
+	 * This method performs an inorder traversal of the tree and returns its
+	 * values in the same format as RedBlackTree.toInOrderString.
+	 *
+	 * @return string containing the ordered values of the tree
+	 */
+	public String toInOrderString() {
+		StringBuilder builder = new StringBuilder("[ ");
+		Iterator<T> it = iterator();
+		while (it.hasNext()) {
+			builder.append(it.next());
+			if (it.hasNext())
+				builder.append(", ");
+		}
+		return builder.append(" ]").toString();
+	}
+
+	public String toString() {
+		return this.toInOrderString();
+	}
+
+}
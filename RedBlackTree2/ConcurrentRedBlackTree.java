@@ -0,0 +1,222 @@
+import java.util.Comparator;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Thread-safe sorted collection built on a RedBlackTree guarded by a
+ * StampedLock. Writers take the exclusive write lock. Readers first descend
+ * the tree without any lock under an optimistic stamp, and only keep their
+ * result when no writer ran in the meantime; a descent that overlapped with an
+ * insertion or removal (and the rotations it caused) is retried, and after a
+ * few failed attempts the reader falls back to the shared read lock. Readers
+ * therefore scale with the number of cores as long as writes are rare.
+ */
+public class ConcurrentRedBlackTree<T extends Comparable<T>> implements SortedCollectionInterface<T> {
+
+	// the number of optimistic attempts made before a reader takes the read lock
+	private static final int OPTIMISTIC_ATTEMPTS = 3;
+	// an optimistic descent that takes more steps than this has most likely been
+	// sent around a cycle by a concurrent rotation, so it is abandoned
+	private static final int MAX_OPTIMISTIC_STEPS = 256;
+	// result of an optimistic descent that had to be abandoned
+	private static final int ABANDONED = -1;
+
+	private final RedBlackTree<T> tree; // the tree holding the values
+	private final StampedLock lock = new StampedLock(); // guards every access to tree
+
+	/**
+	 * Creates an empty collection that orders its values by their natural
+	 * ordering.
+	 */
+	public ConcurrentRedBlackTree() {
+		this.tree = new RedBlackTree<>();
+	}
+
+	/**
+	 * Creates an empty collection that orders its values with the provided
+	 * comparator.
+	 *
+	 * @param comparator the comparator to order values with, or null to use their
+	 *                   natural ordering
+	 */
+	public ConcurrentRedBlackTree(Comparator<? super T> comparator) {
+		this.tree = new RedBlackTree<T>(comparator);
+	}
+
+	/**
+	 * Inserts a value into this collection while holding the write lock.
+	 *
+	 * @param data to be added into this collection
+	 * @return true if the value was inserted
+	 * @throws NullPointerException     when the provided data argument is null
+	 * @throws IllegalArgumentException when data is already contained in the
+	 *                                  collection
+	 */
+	public boolean insert(T data) throws NullPointerException, IllegalArgumentException {
+		long stamp = lock.writeLock();
+		try {
+			return tree.insert(data);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Removes a value from this collection while holding the write lock.
+	 *
+	 * @param data the value to remove
+	 * @return true if the value was removed
+	 * @throws NullPointerException     when the provided data argument is null
+	 * @throws IllegalArgumentException when data is not stored in the collection
+	 */
+	public boolean remove(T data) throws NullPointerException, IllegalArgumentException {
+		long stamp = lock.writeLock();
+		try {
+			return tree.remove(data);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Inserts a value into this collection while holding the write lock, without
+	 * throwing when the value is already stored.
+	 *
+	 * @param data to be added into this collection
+	 * @return true if the value was inserted, false if it is already stored
+	 * @throws NullPointerException when the provided data argument is null
+	 */
+	public boolean tryInsert(T data) throws NullPointerException {
+		long stamp = lock.writeLock();
+		try {
+			return tree.tryInsert(data);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Removes a value from this collection while holding the write lock, without
+	 * throwing when the value is not stored.
+	 *
+	 * @param data the value to remove
+	 * @return true if the value was removed, false if it is not stored
+	 * @throws NullPointerException when the provided data argument is null
+	 */
+	public boolean tryRemove(T data) throws NullPointerException {
+		long stamp = lock.writeLock();
+		try {
+			return tree.tryRemove(data);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Checks whether this collection contains the value, using optimistic reads
+	 * that do not block (and are not blocked by) other readers.
+	 *
+	 * @param data the data value to test for
+	 * @return true if data is in the collection, false if it is not
+	 */
+	public boolean contains(T data) {
+		// null references will not be stored within this collection
+		if (data == null)
+			throw new NullPointerException("This RedBlackTree cannot store null references.");
+
+		for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+			long stamp = lock.tryOptimisticRead();
+			if (stamp == 0) {
+				// a writer holds the lock right now
+				continue;
+			}
+			int found = optimisticFind(data);
+			if (found != ABANDONED && lock.validate(stamp)) {
+				return found == 1;
+			}
+		}
+
+		// too much write traffic, wait for the read lock instead. The descent is
+		// the same lock-free one, which cannot be abandoned without writers; unlike
+		// tree.contains, it does not update the search counters of the tree, which
+		// are plain fields that the readers sharing the lock would race on
+		long stamp = lock.readLock();
+		try {
+			return optimisticFind(data) == 1;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Helper method that searches for a value without holding any lock. The
+	 * nodes may be changed by a writer during the descent, so every reference is
+	 * checked, the number of steps is bounded, and any exception caused by an
+	 * inconsistent view of the nodes abandons the descent. The caller must
+	 * validate its stamp before trusting the result.
+	 *
+	 * @return 1 when the value was found, 0 when it was not, or ABANDONED
+	 */
+	private int optimisticFind(T data) {
+		try {
+			RedBlackTree.Node<T> current = tree.root;
+			for (int steps = 0; current != null; steps++) {
+				if (steps == MAX_OPTIMISTIC_STEPS)
+					return ABANDONED;
+				T currentData = current.data;
+				if (currentData == null)
+					return ABANDONED;
+				int compare = tree.compare(data, currentData);
+				if (compare == 0)
+					return 1;
+				current = compare < 0 ? current.left : current.right;
+			}
+			return 0;
+		} catch (RuntimeException e) {
+			return ABANDONED;
+		}
+	}
+
+	/**
+	 * Get the size of this collection, read optimistically.
+	 *
+	 * @return the number of values in the collection
+	 */
+	public int size() {
+		long stamp = lock.tryOptimisticRead();
+		int size = tree.size();
+		if (!lock.validate(stamp)) {
+			stamp = lock.readLock();
+			try {
+				size = tree.size();
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Method to check if this collection is empty.
+	 *
+	 * @return true of this.size() return 0, false if this.size() > 0
+	 */
+	public boolean isEmpty() {
+		return this.size() == 0;
+	}
+
+	/**
+	 * Returns the in-order string of the underlying tree, built while holding the
+	 * read lock.
+	 *
+	 * @return string containing the ordered values of this collection
+	 */
+	public String toInOrderString() {
+		long stamp = lock.readLock();
+		try {
+			return tree.toInOrderString();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+}
@@ -0,0 +1,74 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This interface converts the values of a collection to and from their binary
+ * form, for RedBlackTreeSerializer.
+ */
+public interface ElementCodec<T> {
+
+    // retrieve an upper bound on the number of bytes that write uses for value
+    public int maxEncodedSize(T value);
+
+    // write value at the position of buffer, which has at least
+    // maxEncodedSize(value) bytes remaining
+    public void write(T value, ByteBuffer buffer);
+
+    // read a value written by write from the position of buffer
+    // throws BufferUnderflowException when buffer ends before the value does
+    public T read(ByteBuffer buffer);
+
+    // codec writing each Integer as 4 bytes
+    public static final ElementCodec<Integer> INTEGER = new ElementCodec<Integer>() {
+        public int maxEncodedSize(Integer value) {
+            return Integer.BYTES;
+        }
+
+        public void write(Integer value, ByteBuffer buffer) {
+            buffer.putInt(value);
+        }
+
+        public Integer read(ByteBuffer buffer) {
+            return buffer.getInt();
+        }
+    };
+
+    // codec writing each Long as 8 bytes
+    public static final ElementCodec<Long> LONG = new ElementCodec<Long>() {
+        public int maxEncodedSize(Long value) {
+            return Long.BYTES;
+        }
+
+        public void write(Long value, ByteBuffer buffer) {
+            buffer.putLong(value);
+        }
+
+        public Long read(ByteBuffer buffer) {
+            return buffer.getLong();
+        }
+    };
+
+    // codec writing each String as its UTF-8 length followed by its UTF-8 bytes
+    public static final ElementCodec<String> STRING = new ElementCodec<String>() {
+        public int maxEncodedSize(String value) {
+            // a UTF-16 char never takes more than 3 bytes in UTF-8
+            return Integer.BYTES + 3 * value.length();
+        }
+
+        public void write(String value, ByteBuffer buffer) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+
+        public String read(ByteBuffer buffer) {
+            int length = buffer.getInt();
+            if (length < 0)
+                throw new IllegalArgumentException("Invalid string length: " + length);
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+}
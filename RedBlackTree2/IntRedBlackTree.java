@@ -0,0 +1,703 @@
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * Red-Black Tree of primitive int keys. It works like RedBlackTree, but each
+ * node stores its key inline as an int, so keys are never boxed and every
+ * comparison in a descent is a primitive comparison instead of a call to
+ * compareTo.
+ */
+public class IntRedBlackTree {
+
+	/**
+	 * This class represents a node holding a single key within a binary tree.
+	 */
+	protected static class Node {
+		public int key;
+		// - parent is the parent reference of the node,
+		// - left is the left child reference of the node,
+		// - right is the right child reference of the node.
+		public Node parent;
+		public Node left;
+		public Node right;
+		// the color of the node: 0 for red, 1 for black
+		public byte blackHeight = 0;
+
+		public Node(int key) {
+			this.key = key;
+		}
+
+		/**
+		 * @return true when this node has a parent and is the right child of that
+		 *         parent, otherwise return false
+		 */
+		public boolean isRightChild() {
+			return parent != null && parent.right == this;
+		}
+
+	}
+
+	protected Node root; // reference to root node of tree, null when empty
+	protected int size = 0; // the number of keys in the tree
+
+	/**
+	 * Inserts a key into this tree and restores the Red-Black Tree properties.
+	 * This tree will not hold duplicate keys.
+	 * 
+	 * @param key to be added into this tree
+	 * @return true if the key was inserted
+	 * @throws IllegalArgumentException when key is already contained in the tree
+	 */
+	public boolean insert(int key) throws IllegalArgumentException {
+		if (this.root == null) {
+			// add first node to an empty tree, the root is always black
+			root = new Node(key);
+			root.blackHeight = 1;
+			size++;
+			return true;
+		} else {
+			// insert into subtree
+			Node current = this.root;
+			while (true) {
+				if (key == current.key) {
+					throw new IllegalArgumentException("This IntRedBlackTree already contains key " + key);
+				} else if (key < current.key) {
+					// insert in left subtree
+					if (current.left == null) {
+						// empty space to insert into, the node is only created now so that
+						// a duplicate does not allocate one
+						Node newNode = new Node(key);
+						current.left = newNode;
+						newNode.parent = current;
+						enforceRBTreePropertiesAfterInsert(newNode);
+						this.size++;
+						return true;
+					} else {
+						// no empty space, keep moving down the tree
+						current = current.left;
+					}
+				} else {
+					// insert in right subtree
+					if (current.right == null) {
+						// empty space to insert into, the node is only created now so that
+						// a duplicate does not allocate one
+						Node newNode = new Node(key);
+						current.right = newNode;
+						newNode.parent = current;
+						enforceRBTreePropertiesAfterInsert(newNode);
+						this.size++;
+						return true;
+					} else {
+						// no empty space, keep moving down the tree
+						current = current.right;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Performs the rotation operation on the provided nodes within this tree. When
+	 * the provided child is a left child of the provided parent, this method will
+	 * perform a right rotation. When the provided child is a right child of the
+	 * provided parent, this method will perform a left rotation. When the provided
+	 * nodes are not related in one of these ways, this method will throw an
+	 * IllegalArgumentException.
+	 * 
+	 * @param child  is the node being rotated from child to parent position
+	 *               (between these two node arguments)
+	 * @param parent is the node being rotated from parent to child position
+	 *               (between these two node arguments)
+	 * @throws IllegalArgumentException when the provided child and parent node
+	 *                                  references are not initially (pre-rotation)
+	 *                                  related that way
+	 */
+	private void rotate(Node child, Node parent) throws IllegalArgumentException {
+
+		// throw exception if the child or parent node is null
+		if (child == null || parent == null) {
+			throw new IllegalArgumentException();
+		}
+
+		// if the child is right node of the parent, do left rotation
+		if (child.isRightChild()) {
+
+			// first step of left rotation, assign left child of the child node as new right
+			// child of the parent
+			parent.right = child.left;
+
+			// check if newly assigned child is not null, then update its parent reference
+			if (parent.right != null) {
+				parent.right.parent = parent;
+			}
+
+			// second step of left rotation, assign the parent node's parent as the new
+			// parent of the child node.
+			child.parent = parent.parent;
+
+			// check if new parent of the child is not null, then update its child
+			// reference,
+			// whether it is right or left child of its parent
+			if (child.parent != null) {
+				if (parent.isRightChild()) {
+					child.parent.right = child;
+				} else {
+					child.parent.left = child;
+				}
+			}
+
+			// lastly, update new parent and child reference after rotation has been done
+			child.left = parent;
+			parent.parent = child;
+		}
+
+		// if the child is left node of the parent, do right rotation
+		else if (!child.isRightChild()) {
+
+			// first step of right rotation, assign right child of the child node as new
+			// left child of the parent
+			parent.left = child.right;
+
+			// check if newly assigned child is not null, then update its parent reference
+			if (parent.left != null) {
+				parent.left.parent = parent;
+			}
+
+			// second step of right rotation, assign the parent node's parent as the new
+			// parent of the child node.
+			child.parent = parent.parent;
+
+			// check if new parent of the child is not null, then update its child
+			// reference,
+			// whether it is right or left child of its parent
+			if (child.parent != null) {
+				if (parent.isRightChild()) {
+					child.parent.right = child;
+				} else {
+					child.parent.left = child;
+				}
+			}
+
+			// lastly, update new parent and child reference after rotation has been done
+			child.right = parent;
+			parent.parent = child;
+		}
+		// throw exception if child is neither right nor left child of the parent node
+		else {
+			throw new IllegalArgumentException("Provided child is not initially related");
+		}
+		// if the parent node was root of the tree, then assign child as new root
+		if (parent == root) {
+			root = child;
+		}
+
+	}
+
+	/**
+	 * This method checks if there are any the Red-Black Tree property violations
+	 * caused after a new node is inserted into the tree and resolves violations.
+	 * 
+	 * @param newNode
+	 */
+	protected void enforceRBTreePropertiesAfterInsert(Node newNode) {
+
+		// Base case: There is no violation
+		if (newNode.blackHeight == 1 || newNode.parent == null || newNode.parent.parent == null) {
+			return;
+		}
+
+		// Check if the new node's parent node is red
+		if (newNode.parent.blackHeight == 0) {
+			// Check if the new node is right child
+			if (newNode.isRightChild()) {
+				fixRightChildViolation(newNode);
+				// Check if the new node is left child
+			} else if (!newNode.isRightChild()) {
+				fixLeftChildViolation(newNode);
+			}
+		}
+
+	}
+
+	/**
+	 * Helper method. This method resolves any Red-Black Tree violations for a right
+	 * child
+	 * 
+	 * @param newNode
+	 */
+	private void fixRightChildViolation(Node newNode) {
+
+		// When the parent of the newly inserted node is right child of the grandparent
+		// node, and the uncle node is either null or black node
+		if (newNode.parent.isRightChild() && (newNode.parent.parent.left == null
+				|| newNode.parent.parent.left.blackHeight == 1)) {
+
+			// Left Rotation
+			rotate(newNode.parent, newNode.parent.parent);
+
+			// Swap colors
+			newNode.parent.blackHeight = 1;
+			newNode.parent.left.blackHeight = 0;
+		}
+
+		// When the parent of the newly inserted node is left child of the grandparent
+		// node, and the uncle is either null or black node
+		else if (!newNode.parent.isRightChild() && (newNode.parent.parent.right == null
+				|| newNode.parent.parent.right.blackHeight == 1)) {
+			// Right Rotation
+			rotate(newNode, newNode.parent);
+
+			// Recursively call
+			enforceRBTreePropertiesAfterInsert(newNode.left);
+		}
+
+		// When the parent of the newly inserted node is right child of the grandparent
+		// node, and uncle node is red
+		else if (newNode.parent.isRightChild() && newNode.parent.parent.left.blackHeight == 0) {
+
+			// Swap colors
+			newNode.parent.blackHeight = 1;
+			newNode.parent.parent.blackHeight = 0;
+			newNode.parent.parent.left.blackHeight = 1;
+			
+			// sets the color of the root node to black
+			this.root.blackHeight = 1;
+
+			// Recursively call with grandparent node
+			enforceRBTreePropertiesAfterInsert(newNode.parent.parent);
+
+		}
+
+		// When the parent of the newly inserted node is left child of the grandparent
+		// node, and uncle node is red
+		else if (!newNode.parent.isRightChild() && newNode.parent.parent.right.blackHeight == 0) {
+
+			// Swap colors
+			newNode.parent.blackHeight = 1;
+			newNode.parent.parent.blackHeight = 0;
+			newNode.parent.parent.right.blackHeight = 1;
+			
+			// sets the color of the root node to black
+			this.root.blackHeight = 1;
+
+			// Recursively call with grandparent node
+			enforceRBTreePropertiesAfterInsert(newNode.parent.parent);
+		}
+	}
+
+	/**
+	 * Helper method. This method resolves any Red-Black Tree violations for a left
+	 * child
+	 * 
+	 * @param newNode
+	 */
+	private void fixLeftChildViolation(Node newNode) {
+
+		// When the parent of the newly inserted node is left child of the grandparent
+		// node, and the uncle node is either null or black node
+		if (!newNode.parent.isRightChild() && (newNode.parent.parent.right == null
+				|| newNode.parent.parent.right.blackHeight == 1)) {
+
+			// Right rotation
+			rotate(newNode.parent, newNode.parent.parent);
+
+			// Swap colors
+			newNode.parent.blackHeight = 1;
+			newNode.parent.right.blackHeight = 0;
+		}
+
+		// When the parent of the newly inserted node is right child of the grandparent
+		// node, and the uncle is either null or black node
+		else if (newNode.parent.isRightChild() && (newNode.parent.parent.left == null
+				|| newNode.parent.parent.left.blackHeight == 1)) {
+
+			// Right rotation
+			rotate(newNode, newNode.parent);
+
+			// Recursively call
+			enforceRBTreePropertiesAfterInsert(newNode.right);
+		}
+
+		// When the parent of the newly inserted node is left child of the grandparent
+		// node, and uncle node is red
+		else if (!newNode.parent.isRightChild() && newNode.parent.parent.right.blackHeight == 0) {
+
+			// Swap colors
+			newNode.parent.blackHeight = 1;
+			newNode.parent.parent.blackHeight = 0;
+			newNode.parent.parent.right.blackHeight = 1;
+			
+			// sets the color of the root node to black
+			this.root.blackHeight = 1;
+
+			// Recursively call with grandparent
+			enforceRBTreePropertiesAfterInsert(newNode.parent.parent);
+		}
+
+		// When the parent of the newly inserted node is right child of the grandparent
+		// node, and uncle node is red
+		else if (newNode.parent.isRightChild() && newNode.parent.parent.left.blackHeight == 0) {
+			// Swap colors
+			newNode.parent.blackHeight = 1;
+			newNode.parent.parent.blackHeight = 0;
+			newNode.parent.parent.left.blackHeight = 1;
+			
+			// sets the color of the root node to black
+			this.root.blackHeight = 1;
+
+			// Recursively call with grandparent
+			enforceRBTreePropertiesAfterInsert(newNode.parent.parent);
+		}
+	}
+	/**
+	 * Get the size of the tree (its number of nodes).
+	 * 
+	 * @return the number of nodes in the tree
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Method to check if the tree is empty (does not contain any node).
+	 * 
+	 * @return true of this.size() return 0, false if this.size() > 0
+	 */
+	public boolean isEmpty() {
+		return this.size() == 0;
+	}
+
+	/**
+	 * Removes the key from the tree if the tree contains the key, and rebalances
+	 * the tree afterwards like RedBlackTree.remove does.
+	 * 
+	 * @return true if the key was removed
+	 * @throws IllegalArgumentException when key is not stored in the tree
+	 */
+	public boolean remove(int key) throws IllegalArgumentException {
+		Node nodeWithKey = this.findNodeWithKey(key);
+		// throw exception if node with key does not exist
+		if (nodeWithKey == null) {
+			throw new IllegalArgumentException("The following key is not in the tree and cannot be deleted: " + key);
+		}
+		// the node that is unlinked: the node itself, or its successor when it has
+		// two children, which then has at most a right child
+		Node unlinked = nodeWithKey;
+		if (nodeWithKey.right != null && nodeWithKey.left != null) {
+			unlinked = this.findMinOfRightSubtree(nodeWithKey);
+			// replace key of node with key of successor node
+			nodeWithKey.key = unlinked.key;
+		}
+		Node child = unlinked.left != null ? unlinked.left : unlinked.right;
+		Node parent = unlinked.parent;
+		this.replaceNode(unlinked, child);
+		// unlinking a black node leaves its paths one black node short
+		if (unlinked.blackHeight == 1)
+			enforceRBTreePropertiesAfterRemove(child, parent);
+		this.size--;
+		return true;
+	}
+
+	/**
+	 * This method restores the Red-Black Tree properties after a black node was
+	 * unlinked, when node (which may be null) took its place below parent, with
+	 * the same cases as RedBlackTree.enforceRBTreePropertiesAfterRemove.
+	 *
+	 * @param node   the node that took the place of the unlinked node, or null
+	 * @param parent the parent of node
+	 */
+	protected void enforceRBTreePropertiesAfterRemove(Node node, Node parent) {
+		while (node != root && isBlack(node)) {
+			if (node == parent.left) {
+				// the sibling is not null, since its paths hold at least one black node
+				Node sibling = parent.right;
+				if (!isBlack(sibling)) {
+					// a red sibling is rotated up, so that the new sibling is black
+					sibling.blackHeight = 1;
+					parent.blackHeight = 0;
+					rotate(sibling, parent);
+					sibling = parent.right;
+				}
+				if (isBlack(sibling.left) && isBlack(sibling.right)) {
+					// take one black node from the sibling's paths as well
+					sibling.blackHeight = 0;
+					node = parent;
+					parent = node.parent;
+				} else {
+					if (isBlack(sibling.right)) {
+						// move the red child of the sibling to the outer side
+						sibling.left.blackHeight = 1;
+						sibling.blackHeight = 0;
+						rotate(sibling.left, sibling);
+						sibling = parent.right;
+					}
+					// rotate the sibling up, in the color of the parent, above two black
+					// children
+					sibling.blackHeight = parent.blackHeight;
+					parent.blackHeight = 1;
+					sibling.right.blackHeight = 1;
+					rotate(sibling, parent);
+					node = root;
+				}
+			} else {
+				Node sibling = parent.left;
+				if (!isBlack(sibling)) {
+					sibling.blackHeight = 1;
+					parent.blackHeight = 0;
+					rotate(sibling, parent);
+					sibling = parent.left;
+				}
+				if (isBlack(sibling.left) && isBlack(sibling.right)) {
+					sibling.blackHeight = 0;
+					node = parent;
+					parent = node.parent;
+				} else {
+					if (isBlack(sibling.left)) {
+						sibling.right.blackHeight = 1;
+						sibling.blackHeight = 0;
+						rotate(sibling.right, sibling);
+						sibling = parent.left;
+					}
+					sibling.blackHeight = parent.blackHeight;
+					parent.blackHeight = 1;
+					sibling.left.blackHeight = 1;
+					rotate(sibling, parent);
+					node = root;
+				}
+			}
+		}
+		if (node != null)
+			node.blackHeight = 1;
+	}
+
+	// null children count as black
+	private static boolean isBlack(Node node) {
+		return node == null || node.blackHeight == 1;
+	}
+
+	/**
+	 * Checks whether the tree contains the key.
+	 * 
+	 * @param key the key to test for
+	 * @return true if key is in the tree, false if it is not in the tree
+	 */
+	public boolean contains(int key) {
+		return this.findNodeWithKey(key) != null;
+	}
+
+	/**
+	 * Returns the smallest key in the tree.
+	 * 
+	 * @return the smallest key
+	 * @throws NoSuchElementException when the tree is empty
+	 */
+	public int first() {
+		if (this.root == null)
+			throw new NoSuchElementException("This IntRedBlackTree is empty.");
+		Node current = this.root;
+		while (current.left != null) {
+			current = current.left;
+		}
+		return current.key;
+	}
+
+	/**
+	 * Returns the largest key in the tree.
+	 * 
+	 * @return the largest key
+	 * @throws NoSuchElementException when the tree is empty
+	 */
+	public int last() {
+		if (this.root == null)
+			throw new NoSuchElementException("This IntRedBlackTree is empty.");
+		Node current = this.root;
+		while (current.right != null) {
+			current = current.right;
+		}
+		return current.key;
+	}
+
+	/**
+	 * Performs the action for each key of this tree in ascending order, walking
+	 * successors through parent references.
+	 * 
+	 * @param action the action to perform on each key
+	 */
+	public void forEach(IntConsumer action) {
+		Node node = this.root;
+		while (node != null && node.left != null) {
+			node = node.left;
+		}
+		while (node != null) {
+			action.accept(node.key);
+			if (node.right != null) {
+				// smallest key of the right subtree
+				node = node.right;
+				while (node.left != null) {
+					node = node.left;
+				}
+			} else {
+				// climb until we come up from a left child
+				while (node.isRightChild()) {
+					node = node.parent;
+				}
+				node = node.parent;
+			}
+		}
+	}
+
+	/**
+	 * Helper method that will replace a node with a replacement node. The
+	 * replacement node may be null to remove the node from the tree.
+	 * 
+	 * @param nodeToReplace   the node to replace
+	 * @param replacementNode the replacement for the node (may be null)
+	 */
+	protected void replaceNode(Node nodeToReplace, Node replacementNode) {
+		if (nodeToReplace == null) {
+			throw new NullPointerException("Cannot replace null node.");
+		}
+		if (nodeToReplace.parent == null) {
+			// we are replacing the root
+			if (replacementNode != null)
+				replacementNode.parent = null;
+			this.root = replacementNode;
+		} else {
+			// set the parent of the replacement node
+			if (replacementNode != null)
+				replacementNode.parent = nodeToReplace.parent;
+			// do we have to attach a new left or right child to our parent?
+			if (nodeToReplace.isRightChild()) {
+				nodeToReplace.parent.right = replacementNode;
+			} else {
+				nodeToReplace.parent.left = replacementNode;
+			}
+		}
+	}
+
+	/**
+	 * Helper method that will return the inorder successor of a node with two
+	 * children.
+	 * 
+	 * @param node the node to find the successor for
+	 * @return the node that is the inorder successor of node
+	 */
+	protected Node findMinOfRightSubtree(Node node) {
+		if (node.left == null && node.right == null) {
+			throw new IllegalArgumentException("Node must have two children");
+		}
+		// take a steop to the right
+		Node current = node.right;
+		while (true) {
+			// then go left as often as possible to find the successor
+			if (current.left == null) {
+				// we found the successor
+				return current;
+			} else {
+				current = current.left;
+			}
+		}
+	}
+
+	/**
+	 * Helper method that will return the node in the tree that contains a specific
+	 * key. Returns null if there is no node that contains the key.
+	 * 
+	 * @return the node that contains the key, or null of no such node exists
+	 */
+	protected Node findNodeWithKey(int key) {
+		Node current = this.root;
+		while (current != null) {
+			if (key == current.key) {
+				// we found our key
+				return current;
+			} else if (key < current.key) {
+				// keep looking in the left subtree
+				current = current.left;
+			} else {
+				// keep looking in the right subtree
+				current = current.right;
+			}
+		}
+		// we're at a null node and did not find key, so it's not in the tree
+		return null;
+	}
+
+	/**
+	 * Checks every Red-Black Tree invariant in O(n) time, like
+	 * RedBlackTree.validate: the root is black, no red node has a red child,
+	 * every path from a node to its leaves has the same number of black nodes,
+	 * the keys are in strictly ascending order, the parent references match the
+	 * child references, and size matches the number of nodes.
+	 *
+	 * @throws IllegalStateException describing the first violation found
+	 */
+	public void validate() {
+		if (root == null) {
+			if (size != 0)
+				throw new IllegalStateException("The tree is empty but its size is " + size);
+			return;
+		}
+		if (root.parent != null)
+			throw new IllegalStateException("The root " + root.key + " has a parent");
+		if (root.blackHeight != 1)
+			throw new IllegalStateException("The root " + root.key + " is red");
+		int[] count = new int[1];
+		validateSubtree(root, null, null, count);
+		if (count[0] != size)
+			throw new IllegalStateException("The tree holds " + count[0] + " nodes but its size is " + size);
+	}
+
+	/**
+	 * Recursive helper method for validate that checks the subtree at node, whose
+	 * keys must be greater than the key of lo and less than the key of hi (when
+	 * they are not null), and adds its number of nodes to count.
+	 *
+	 * @return the black height of the subtree
+	 */
+	private int validateSubtree(Node node, Node lo, Node hi, int[] count) {
+		if (node == null)
+			return 0;
+		count[0]++;
+		if ((lo != null && node.key <= lo.key) || (hi != null && node.key >= hi.key))
+			throw new IllegalStateException("The node " + node.key + " is out of order");
+		validateLink(node, node.left);
+		validateLink(node, node.right);
+		int leftHeight = validateSubtree(node.left, lo, node, count);
+		int rightHeight = validateSubtree(node.right, node, hi, count);
+		if (leftHeight != rightHeight)
+			throw new IllegalStateException("The subtrees of " + node.key + " have the black heights " + leftHeight
+					+ " and " + rightHeight);
+		return leftHeight + node.blackHeight;
+	}
+
+	// checks the reference from child back to node and the colors of both
+	private static void validateLink(Node node, Node child) {
+		if (child == null)
+			return;
+		if (child.parent != node)
+			throw new IllegalStateException("The node " + child.key + " does not reference its parent " + node.key);
+		if (node.blackHeight == 0 && child.blackHeight == 0)
+			throw new IllegalStateException("The red node " + node.key + " has the red child " + child.key);
+	}
+
+	/**
+	 * This method performs an inorder traversal of the tree, assembling the keys
+	 * into a comma separated string within brackets like
+	 * RedBlackTree.toInOrderString.
+	 * 
+	 * @return string containing the ordered keys of this tree
+	 */
+	public String toInOrderString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("[ ");
+		forEach(key -> {
+			if (sb.length() > 2)
+				sb.append(", ");
+			sb.append(key);
+		});
+		sb.append(" ]");
+		return sb.toString();
+	}
+
+}
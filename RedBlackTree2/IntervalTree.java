@@ -0,0 +1,238 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Interval tree built on RedBlackTree. The intervals are ordered by their start
+ * (and then by their end), and every node also stores the largest end of any
+ * interval in its subtree. Rotations, insertions, removals, and bulk loads keep
+ * that maximum up to date through the augment hooks of RedBlackTree, so a query
+ * can skip every subtree whose intervals all end before the queried range. A
+ * query with k results visits O(min(n, (k + 1) log n)) nodes: every result may
+ * cost a path of nodes that end too early, but the query never visits a node
+ * twice.
+ *
+ * split, join, and the set operations of RedBlackTree keep the maximums as
+ * well, and return interval trees.
+ *
+ * Intervals are closed: [start, end] holds both of its endpoints. The same
+ * interval cannot be stored twice.
+ */
+public class IntervalTree<T extends Comparable<T>> extends RedBlackTree<IntervalTree.Interval<T>> {
+
+	/**
+	 * This class represents a closed interval [start, end] of values.
+	 */
+	public static class Interval<T extends Comparable<T>> implements Comparable<Interval<T>> {
+		public final T start;
+		public final T end;
+
+		/**
+		 * Creates the interval [start, end].
+		 *
+		 * @throws NullPointerException     when start or end is null
+		 * @throws IllegalArgumentException when start is greater than end
+		 */
+		public Interval(T start, T end) {
+			if (start == null || end == null)
+				throw new NullPointerException("Interval endpoints cannot be null.");
+			if (start.compareTo(end) > 0)
+				throw new IllegalArgumentException("Interval start " + start + " is greater than its end " + end);
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * @return true when this interval shares at least one value with [lo, hi]
+		 */
+		public boolean overlaps(T lo, T hi) {
+			return start.compareTo(hi) <= 0 && end.compareTo(lo) >= 0;
+		}
+
+		public int compareTo(Interval<T> other) {
+			int compare = start.compareTo(other.start);
+			return compare != 0 ? compare : end.compareTo(other.end);
+		}
+
+		public boolean equals(Object other) {
+			if (!(other instanceof Interval))
+				return false;
+			Interval<?> interval = (Interval<?>) other;
+			return start.equals(interval.start) && end.equals(interval.end);
+		}
+
+		public int hashCode() {
+			return 31 * start.hashCode() + end.hashCode();
+		}
+
+		public String toString() {
+			return "[" + start + ", " + end + "]";
+		}
+	}
+
+	/**
+	 * Node that also stores the largest end of the intervals in its subtree.
+	 */
+	protected static class IntervalNode<T extends Comparable<T>> extends Node<Interval<T>> {
+		public T maxEnd;
+
+		public IntervalNode(Interval<T> data) {
+			super(data);
+			this.maxEnd = data.end;
+		}
+	}
+
+	@Override
+	protected Node<Interval<T>> createNode(Interval<T> data) {
+		return new IntervalNode<>(data);
+	}
+
+	@Override
+	protected RedBlackTree<Interval<T>> createTree() {
+		return new IntervalTree<T>();
+	}
+
+	@Override
+	protected void augment(Node<Interval<T>> node) {
+		IntervalNode<T> intervalNode = (IntervalNode<T>) node;
+		T maxEnd = node.data.end;
+		if (node.left != null)
+			maxEnd = max(maxEnd, ((IntervalNode<T>) node.left).maxEnd);
+		if (node.right != null)
+			maxEnd = max(maxEnd, ((IntervalNode<T>) node.right).maxEnd);
+		intervalNode.maxEnd = maxEnd;
+	}
+
+	@Override
+	protected void augmentPath(Node<Interval<T>> node) {
+		for (; node != null; node = node.parent) {
+			augment(node);
+		}
+	}
+
+	private T max(T a, T b) {
+		return a.compareTo(b) >= 0 ? a : b;
+	}
+
+	/**
+	 * Inserts the interval [start, end] into this tree.
+	 *
+	 * @return true if the interval was inserted
+	 * @throws NullPointerException     when start or end is null
+	 * @throws IllegalArgumentException when start is greater than end, or when
+	 *                                  the interval is already in the tree
+	 */
+	public boolean insert(T start, T end) throws NullPointerException, IllegalArgumentException {
+		return insert(new Interval<>(start, end));
+	}
+
+	/**
+	 * Removes the interval [start, end] from this tree.
+	 *
+	 * @return true if the interval was removed
+	 * @throws NullPointerException     when start or end is null
+	 * @throws IllegalArgumentException when the interval is not in the tree
+	 */
+	public boolean remove(T start, T end) throws NullPointerException, IllegalArgumentException {
+		return remove(new Interval<>(start, end));
+	}
+
+	/**
+	 * Returns the intervals that hold point, ordered by their start.
+	 *
+	 * @param point the value to look for
+	 * @return the intervals holding point
+	 * @throws NullPointerException when point is null
+	 */
+	public List<Interval<T>> stab(T point) {
+		return overlapping(point, point);
+	}
+
+	/**
+	 * Returns the intervals that share at least one value with [lo, hi], ordered
+	 * by their start.
+	 *
+	 * @param lo the start of the queried range (inclusive)
+	 * @param hi the end of the queried range (inclusive)
+	 * @return the overlapping intervals
+	 * @throws NullPointerException     when lo or hi is null
+	 * @throws IllegalArgumentException when lo is greater than hi
+	 */
+	public List<Interval<T>> overlapping(T lo, T hi) {
+		List<Interval<T>> result = new ArrayList<>();
+		forEachOverlapping(lo, hi, result::add);
+		return result;
+	}
+
+	/**
+	 * Performs the action for each interval that shares at least one value with
+	 * [lo, hi], in order of their start, without collecting them into a list.
+	 *
+	 * @param lo     the start of the queried range (inclusive)
+	 * @param hi     the end of the queried range (inclusive)
+	 * @param action the action to perform on each overlapping interval
+	 * @throws NullPointerException     when lo, hi, or action is null
+	 * @throws IllegalArgumentException when lo is greater than hi
+	 */
+	public void forEachOverlapping(T lo, T hi, Consumer<? super Interval<T>> action) {
+		if (lo == null || hi == null)
+			throw new NullPointerException("Range bounds cannot be null.");
+		if (action == null)
+			throw new NullPointerException("The action cannot be null.");
+		if (lo.compareTo(hi) > 0)
+			throw new IllegalArgumentException("Range start " + lo + " is greater than range end " + hi);
+		forEachOverlapping((IntervalNode<T>) root, lo, hi, action);
+	}
+
+	/**
+	 * Recursive helper method that visits the overlapping intervals of the
+	 * subtree at node in order. A subtree is skipped when all of its intervals
+	 * end before lo, and the right subtree of a node is skipped when the node
+	 * starts after hi, since every interval in it starts later still.
+	 */
+	private void forEachOverlapping(IntervalNode<T> node, T lo, T hi, Consumer<? super Interval<T>> action) {
+		if (node == null || node.maxEnd.compareTo(lo) < 0)
+			return;
+		forEachOverlapping((IntervalNode<T>) node.left, lo, hi, action);
+		if (node.data.start.compareTo(hi) > 0)
+			return;
+		if (node.data.end.compareTo(lo) >= 0)
+			action.accept(node.data);
+		forEachOverlapping((IntervalNode<T>) node.right, lo, hi, action);
+	}
+
+	/**
+	 * Checks the invariants of RedBlackTree.validate, and that every node stores
+	 * the largest end of the intervals in its subtree.
+	 *
+	 * @throws IllegalStateException describing the first violation found
+	 */
+	@Override
+	public void validate() {
+		super.validate();
+		validateMaxEnd((IntervalNode<T>) root);
+	}
+
+	/**
+	 * Recursive helper method for validate that checks the maximums of the
+	 * subtree at node.
+	 *
+	 * @return the largest end in the subtree, or null when it is empty
+	 */
+	private T validateMaxEnd(IntervalNode<T> node) {
+		if (node == null)
+			return null;
+		T maxEnd = node.data.end;
+		T left = validateMaxEnd((IntervalNode<T>) node.left);
+		if (left != null)
+			maxEnd = max(maxEnd, left);
+		T right = validateMaxEnd((IntervalNode<T>) node.right);
+		if (right != null)
+			maxEnd = max(maxEnd, right);
+		if (!node.maxEnd.equals(maxEnd))
+			throw new IllegalStateException(
+					"The node " + node.data + " stores the maximum end " + node.maxEnd + " instead of " + maxEnd);
+		return maxEnd;
+	}
+
+}
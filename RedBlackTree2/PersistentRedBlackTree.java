@@ -0,0 +1,352 @@
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Persistent (immutable) Red-Black Tree. Nodes are never modified after they
+ * are created, so insert and remove leave this tree untouched and return a new
+ * version instead. Only the O(log n) nodes on the search path are copied and
+ * every other node is shared between the versions, which makes every version a
+ * consistent snapshot that can be read from any thread without locking.
+ *
+ * Nodes have no parent references (a shared node can have many parents), so
+ * rebalancing is done while returning from the recursion: insertion follows
+ * Okasaki's balance cases and removal follows Kahrs' deletion algorithm.
+ */
+public class PersistentRedBlackTree<T extends Comparable<T>> implements Iterable<T> {
+
+	private static final byte RED = 0;
+	private static final byte BLACK = 1;
+
+	/**
+	 * This class represents an immutable node holding a single value within a
+	 * persistent tree.
+	 */
+	protected static final class Node<T> {
+		public final T data;
+		public final byte color; // RED or BLACK
+		public final Node<T> left;
+		public final Node<T> right;
+
+		public Node(byte color, Node<T> left, T data, Node<T> right) {
+			this.color = color;
+			this.left = left;
+			this.data = data;
+			this.right = right;
+		}
+	}
+
+	protected final Node<T> root; // reference to root node of this version
+	protected final int size; // the number of values in this version
+	protected final Comparator<? super T> comparator; // null for natural ordering
+
+	/**
+	 * Creates an empty tree that orders its values by their natural ordering.
+	 */
+	public PersistentRedBlackTree() {
+		this(null, 0, null);
+	}
+
+	/**
+	 * Creates an empty tree that orders its values with the provided comparator.
+	 *
+	 * @param comparator the comparator to order values with, or null to use their
+	 *                   natural ordering
+	 */
+	public PersistentRedBlackTree(Comparator<? super T> comparator) {
+		this(null, 0, comparator);
+	}
+
+	private PersistentRedBlackTree(Node<T> root, int size, Comparator<? super T> comparator) {
+		this.root = root;
+		this.size = size;
+		this.comparator = comparator;
+	}
+
+	/**
+	 * Returns a new version of this tree that also contains data. This version is
+	 * not changed.
+	 *
+	 * @param data to be added into the new version
+	 * @return the version containing data
+	 * @throws NullPointerException     when the provided data argument is null
+	 * @throws IllegalArgumentException when data is already contained in the tree
+	 */
+	public PersistentRedBlackTree<T> insert(T data) throws NullPointerException, IllegalArgumentException {
+		// null references cannot be stored within this tree
+		if (data == null)
+			throw new NullPointerException("This RedBlackTree cannot store null references.");
+
+		Node<T> newRoot = blacken(insertHelper(root, data));
+		return new PersistentRedBlackTree<T>(newRoot, size + 1, comparator);
+	}
+
+	/**
+	 * Recursive helper method that returns a copy of the subtree at node with data
+	 * added to it. The copy may have a red root with a red child, which is fixed
+	 * by the balance of its (black) parent or by blackening the new root.
+	 */
+	private Node<T> insertHelper(Node<T> node, T data) {
+		if (node == null)
+			return new Node<T>(RED, null, data, null);
+
+		int compare = compare(data, node.data);
+		if (compare == 0) {
+			throw new IllegalArgumentException("This RedBlackTree already contains that value.");
+		} else if (compare < 0) {
+			Node<T> left = insertHelper(node.left, data);
+			return node.color == BLACK ? balance(left, node.data, node.right)
+					: new Node<T>(RED, left, node.data, node.right);
+		} else {
+			Node<T> right = insertHelper(node.right, data);
+			return node.color == BLACK ? balance(node.left, node.data, right)
+					: new Node<T>(RED, node.left, node.data, right);
+		}
+	}
+
+	/**
+	 * Returns a new version of this tree without data. This version is not
+	 * changed.
+	 *
+	 * @param data the value to remove
+	 * @return the version without data
+	 * @throws NullPointerException     when the provided data argument is null
+	 * @throws IllegalArgumentException when data is not stored in the tree
+	 */
+	public PersistentRedBlackTree<T> remove(T data) throws NullPointerException, IllegalArgumentException {
+		// null references will not be stored within this tree
+		if (data == null)
+			throw new NullPointerException("This RedBlackTree cannot store null references.");
+
+		Node<T> newRoot = removeHelper(root, data);
+		return new PersistentRedBlackTree<T>(newRoot == null ? null : blacken(newRoot), size - 1, comparator);
+	}
+
+	/**
+	 * Recursive helper method that returns a copy of the subtree at node without
+	 * data. When node is black the copy has one less black node on each path,
+	 * which the caller repairs with balanceLeft or balanceRight.
+	 */
+	private Node<T> removeHelper(Node<T> node, T data) {
+		if (node == null)
+			throw new IllegalArgumentException("The following value is not in the tree and cannot be deleted.");
+
+		int compare = compare(data, node.data);
+		if (compare == 0) {
+			return append(node.left, node.right);
+		} else if (compare < 0) {
+			if (isBlack(node.left))
+				return balanceLeft(removeHelper(node.left, data), node.data, node.right);
+			return new Node<T>(RED, removeHelper(node.left, data), node.data, node.right);
+		} else {
+			if (isBlack(node.right))
+				return balanceRight(node.left, node.data, removeHelper(node.right, data));
+			return new Node<T>(RED, node.left, node.data, removeHelper(node.right, data));
+		}
+	}
+
+	/**
+	 * Builds a black node from left, data and right, resolving a red node with a
+	 * red child in either subtree by turning the three nodes involved into a red
+	 * parent with two black children.
+	 */
+	private static <T> Node<T> balance(Node<T> left, T data, Node<T> right) {
+		if (isRed(left) && isRed(right))
+			return new Node<T>(RED, blacken(left), data, blacken(right));
+		if (isRed(left)) {
+			if (isRed(left.left))
+				return new Node<T>(RED, blacken(left.left), left.data,
+						new Node<T>(BLACK, left.right, data, right));
+			if (isRed(left.right))
+				return new Node<T>(RED, new Node<T>(BLACK, left.left, left.data, left.right.left), left.right.data,
+						new Node<T>(BLACK, left.right.right, data, right));
+		}
+		if (isRed(right)) {
+			if (isRed(right.right))
+				return new Node<T>(RED, new Node<T>(BLACK, left, data, right.left), right.data,
+						blacken(right.right));
+			if (isRed(right.left))
+				return new Node<T>(RED, new Node<T>(BLACK, left, data, right.left.left), right.left.data,
+						new Node<T>(BLACK, right.left.right, right.data, right.right));
+		}
+		return new Node<T>(BLACK, left, data, right);
+	}
+
+	/**
+	 * Joins left, data and right when the left subtree has one less black node
+	 * on each path than the right subtree.
+	 */
+	private static <T> Node<T> balanceLeft(Node<T> left, T data, Node<T> right) {
+		if (isRed(left))
+			return new Node<T>(RED, blacken(left), data, right);
+		if (isBlack(right))
+			return balance(left, data, redden(right));
+		if (isRed(right) && isBlack(right.left))
+			return new Node<T>(RED, new Node<T>(BLACK, left, data, right.left.left), right.left.data,
+					balance(right.left.right, right.data, redden(right.right)));
+		throw new IllegalStateException("The Red-Black Tree properties are violated.");
+	}
+
+	/**
+	 * Joins left, data and right when the right subtree has one less black node
+	 * on each path than the left subtree.
+	 */
+	private static <T> Node<T> balanceRight(Node<T> left, T data, Node<T> right) {
+		if (isRed(right))
+			return new Node<T>(RED, left, data, blacken(right));
+		if (isBlack(left))
+			return balance(redden(left), data, right);
+		if (isRed(left) && isBlack(left.right))
+			return new Node<T>(RED, balance(redden(left.left), left.data, left.right.left), left.right.data,
+					new Node<T>(BLACK, left.right.right, data, right));
+		throw new IllegalStateException("The Red-Black Tree properties are violated.");
+	}
+
+	/**
+	 * Merges two subtrees with the same number of black nodes on each path, where
+	 * every value in left is smaller than every value in right. This replaces
+	 * the node removed from between them.
+	 */
+	private static <T> Node<T> append(Node<T> left, Node<T> right) {
+		if (left == null)
+			return right;
+		if (right == null)
+			return left;
+
+		if (isRed(left) && isRed(right)) {
+			Node<T> middle = append(left.right, right.left);
+			if (isRed(middle))
+				return new Node<T>(RED, new Node<T>(RED, left.left, left.data, middle.left), middle.data,
+						new Node<T>(RED, middle.right, right.data, right.right));
+			return new Node<T>(RED, left.left, left.data, new Node<T>(RED, middle, right.data, right.right));
+		}
+		if (isBlack(left) && isBlack(right)) {
+			Node<T> middle = append(left.right, right.left);
+			if (isRed(middle))
+				return new Node<T>(RED, new Node<T>(BLACK, left.left, left.data, middle.left), middle.data,
+						new Node<T>(BLACK, middle.right, right.data, right.right));
+			return balanceLeft(left.left, left.data, new Node<T>(BLACK, middle, right.data, right.right));
+		}
+		if (isRed(right))
+			return new Node<T>(RED, append(left, right.left), right.data, right.right);
+		return new Node<T>(RED, left.left, left.data, append(left.right, right));
+	}
+
+	private static boolean isRed(Node<?> node) {
+		return node != null && node.color == RED;
+	}
+
+	private static boolean isBlack(Node<?> node) {
+		return node != null && node.color == BLACK;
+	}
+
+	private static <T> Node<T> blacken(Node<T> node) {
+		return node.color == BLACK ? node : new Node<T>(BLACK, node.left, node.data, node.right);
+	}
+
+	private static <T> Node<T> redden(Node<T> node) {
+		if (node.color != BLACK)
+			throw new IllegalStateException("The Red-Black Tree properties are violated.");
+		return new Node<T>(RED, node.left, node.data, node.right);
+	}
+
+	/**
+	 * Compares two values with the comparator of this tree, or with their
+	 * natural ordering when it has none.
+	 */
+	protected int compare(T a, T b) {
+		return comparator == null ? a.compareTo(b) : comparator.compare(a, b);
+	}
+
+	/**
+	 * Checks whether this version contains the value data.
+	 *
+	 * @param data the data value to test for
+	 * @return true if data is in this version, false if it is not
+	 */
+	public boolean contains(T data) {
+		// null references will not be stored within this tree
+		if (data == null)
+			throw new NullPointerException("This RedBlackTree cannot store null references.");
+
+		Node<T> current = root;
+		while (current != null) {
+			int compare = compare(data, current.data);
+			if (compare == 0)
+				return true;
+			current = compare < 0 ? current.left : current.right;
+		}
+		return false;
+	}
+
+	/**
+	 * Get the size of this version.
+	 *
+	 * @return the number of values in this version
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Method to check if this version is empty.
+	 *
+	 * @return true of this.size() return 0, false if this.size() > 0
+	 */
+	public boolean isEmpty() {
+		return this.size() == 0;
+	}
+
+	/**
+	 * Returns an iterator over the values of this version in ascending order.
+	 * Versions never change, so the iterator cannot be invalidated by later
+	 * inserts or removes.
+	 *
+	 * @return an iterator over the values of this version
+	 */
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+			private final ArrayDeque<Node<T>> stack = new ArrayDeque<>();
+			{
+				pushLeftSpine(root);
+			}
+
+			private void pushLeftSpine(Node<T> node) {
+				for (; node != null; node = node.left) {
+					stack.push(node);
+				}
+			}
+
+			public boolean hasNext() {
+				return !stack.isEmpty();
+			}
+
+			public T next() {
+				if (stack.isEmpty())
+					throw new NoSuchElementException();
+				Node<T> node = stack.pop();
+				pushLeftSpine(node.right);
+				return node.data;
+			}
+		};
+	}
+
+	/**
+	 * This method performs an inorder traversal of this version and returns its
+	 * values in the same format as RedBlackTree.toInOrderString.
+	 *
+	 * @return string containing the ordered values of this version
+	 */
+	public String toInOrderString() {
+		StringBuilder builder = new StringBuilder("[ ");
+		Iterator<T> it = iterator();
+		while (it.hasNext()) {
+			builder.append(it.next());
+			if (it.hasNext())
+				builder.append(", ");
+		}
+		return builder.append(" ]").toString();
+	}
+
+}
@@ -0,0 +1,555 @@
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Red-Black Tree that keeps its nodes in parallel arrays instead of separate
+ * Node objects. A node is an index into these arrays: its parent, children,
+ * color and data are stored at that index of the parent, left, right, color
+ * and data arrays. The slots of removed nodes are kept on a free list and
+ * reused by later insertions, so once the arrays have grown to fit the tree,
+ * insert and remove do not allocate anything.
+ */
+public class PooledRedBlackTree<T extends Comparable<T>> implements SortedCollectionInterface<T> {
+
+	protected static final int NIL = -1; // index used as a null reference
+	protected static final byte RED = 0;
+	protected static final byte BLACK = 1;
+
+	// The context of the node at index i in the tree:
+	// - parent[i] is the parent index of the node,
+	// - left[i] is the left child index of the node,
+	// - right[i] is the right child index of the node,
+	// - color[i] is the color of the node (RED or BLACK),
+	// - data[i] is the value stored in the node.
+	// The right array also links the free slots together, starting at freeHead.
+	protected int[] parent;
+	protected int[] left;
+	protected int[] right;
+	protected byte[] color;
+	protected Object[] data;
+
+	protected int root = NIL; // index of root node of tree, NIL when empty
+	protected int size = 0; // the number of values in the tree
+	protected int used = 0; // the number of slots that have ever been handed out
+	protected int freeHead = NIL; // index of the first free slot, NIL when none
+	protected final Comparator<? super T> comparator; // ordering of values, null for natural order
+
+	/**
+	 * Creates an empty tree with room for 16 values, ordering its values by their
+	 * natural ordering.
+	 */
+	public PooledRedBlackTree() {
+		this(16, null);
+	}
+
+	/**
+	 * Creates an empty tree with room for the provided number of values before
+	 * its arrays need to grow.
+	 *
+	 * @param capacity   the initial number of slots
+	 * @param comparator the comparator to order values with, or null to use their
+	 *                   natural ordering
+	 */
+	public PooledRedBlackTree(int capacity, Comparator<? super T> comparator) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("capacity must be positive");
+		this.parent = new int[capacity];
+		this.left = new int[capacity];
+		this.right = new int[capacity];
+		this.color = new byte[capacity];
+		this.data = new Object[capacity];
+		this.comparator = comparator;
+	}
+
+	/**
+	 * Inserts a value into this tree and restores the Red-Black Tree properties.
+	 * This tree will not hold null references, nor duplicate data values.
+	 *
+	 * @param value to be added into this tree
+	 * @return true if the value was inserted
+	 * @throws NullPointerException     when the provided value is null
+	 * @throws IllegalArgumentException when value is already contained in the tree
+	 */
+	public boolean insert(T value) throws NullPointerException, IllegalArgumentException {
+		// null references cannot be stored within this tree
+		if (value == null)
+			throw new NullPointerException("This RedBlackTree cannot store null references.");
+
+		if (this.root == NIL) {
+			// add first node to an empty tree, the root is always black
+			root = allocate(value, NIL);
+			color[root] = BLACK;
+			size++;
+			return true;
+		}
+		// insert into subtree
+		int current = this.root;
+		while (true) {
+			int compare = compare(value, dataAt(current));
+			if (compare == 0) {
+				throw new IllegalArgumentException("This RedBlackTree already contains value " + value.toString());
+			} else if (compare < 0) {
+				// insert in left subtree
+				if (left[current] == NIL) {
+					// empty space to insert into
+					int newNode = allocate(value, current);
+					left[current] = newNode;
+					enforceRBTreePropertiesAfterInsert(newNode);
+					this.size++;
+					return true;
+				}
+				current = left[current];
+			} else {
+				// insert in right subtree
+				if (right[current] == NIL) {
+					// empty space to insert into
+					int newNode = allocate(value, current);
+					right[current] = newNode;
+					enforceRBTreePropertiesAfterInsert(newNode);
+					this.size++;
+					return true;
+				}
+				current = right[current];
+			}
+		}
+	}
+
+	/**
+	 * Helper method that hands out a slot for a new red leaf, taking it from the
+	 * free list when possible and growing the arrays otherwise.
+	 *
+	 * @param value       the value of the new node
+	 * @param parentIndex the index of the new node's parent
+	 * @return the index of the new node
+	 */
+	protected int allocate(T value, int parentIndex) {
+		int node;
+		if (freeHead != NIL) {
+			node = freeHead;
+			freeHead = right[node];
+		} else {
+			if (used == data.length)
+				grow();
+			node = used++;
+		}
+		parent[node] = parentIndex;
+		left[node] = NIL;
+		right[node] = NIL;
+		color[node] = RED;
+		data[node] = value;
+		return node;
+	}
+
+	/**
+	 * Helper method that returns the slot of a removed node to the free list.
+	 */
+	protected void release(int node) {
+		// drop the reference so that the value can be garbage collected
+		data[node] = null;
+		parent[node] = NIL;
+		left[node] = NIL;
+		right[node] = freeHead;
+		freeHead = node;
+	}
+
+	/**
+	 * Helper method that doubles the length of every array.
+	 */
+	private void grow() {
+		int capacity = data.length * 2;
+		parent = Arrays.copyOf(parent, capacity);
+		left = Arrays.copyOf(left, capacity);
+		right = Arrays.copyOf(right, capacity);
+		color = Arrays.copyOf(color, capacity);
+		data = Arrays.copyOf(data, capacity);
+	}
+
+	/**
+	 * @return true when the node has a parent and is the right child of that
+	 *         parent, otherwise return false
+	 */
+	protected boolean isRightChild(int node) {
+		return parent[node] != NIL && right[parent[node]] == node;
+	}
+
+	/**
+	 * Helper method that returns the value stored at a node.
+	 */
+	@SuppressWarnings("unchecked")
+	protected T dataAt(int node) {
+		return (T) data[node];
+	}
+
+	/**
+	 * Helper method that compares two values with the ordering of this tree.
+	 */
+	protected int compare(T a, T b) {
+		return comparator == null ? a.compareTo(b) : comparator.compare(a, b);
+	}
+
+	/**
+	 * Performs the rotation operation on the provided nodes within this tree, as
+	 * RedBlackTree.rotate does: a right rotation when child is the left child of
+	 * parent, and a left rotation when it is the right child.
+	 *
+	 * @param child      is the node being rotated from child to parent position
+	 * @param parentNode is the node being rotated from parent to child position
+	 * @throws IllegalArgumentException when the provided nodes are not related
+	 */
+	private void rotate(int child, int parentNode) throws IllegalArgumentException {
+		if (child == NIL || parentNode == NIL || parent[child] != parentNode) {
+			throw new IllegalArgumentException("Provided child is not initially related");
+		}
+		int grandparent = parent[parentNode];
+		if (isRightChild(child)) {
+			// left rotation: the left child of child becomes the right child of parent
+			right[parentNode] = left[child];
+			if (right[parentNode] != NIL)
+				parent[right[parentNode]] = parentNode;
+			left[child] = parentNode;
+		} else {
+			// right rotation: the right child of child becomes the left child of parent
+			left[parentNode] = right[child];
+			if (left[parentNode] != NIL)
+				parent[left[parentNode]] = parentNode;
+			right[child] = parentNode;
+		}
+		// child takes the place of parent below the grandparent
+		parent[child] = grandparent;
+		if (grandparent == NIL) {
+			root = child;
+		} else if (right[grandparent] == parentNode) {
+			right[grandparent] = child;
+		} else {
+			left[grandparent] = child;
+		}
+		parent[parentNode] = child;
+	}
+
+	/**
+	 * This method checks if there are any the Red-Black Tree property violations
+	 * caused after a new node is inserted into the tree and resolves violations,
+	 * with the same cases as RedBlackTree.enforceRBTreePropertiesAfterInsert.
+	 *
+	 * @param newNode
+	 */
+	protected void enforceRBTreePropertiesAfterInsert(int newNode) {
+		int parentNode = parent[newNode];
+		// Base case: There is no violation
+		if (color[newNode] == BLACK || parentNode == NIL || parent[parentNode] == NIL) {
+			return;
+		}
+		// Check if the new node's parent node is red
+		if (color[parentNode] == RED) {
+			int grandparent = parent[parentNode];
+			boolean parentIsRight = isRightChild(parentNode);
+			int uncle = parentIsRight ? left[grandparent] : right[grandparent];
+
+			if (uncle != NIL && color[uncle] == RED) {
+				// uncle node is red: swap colors and continue with the grandparent
+				color[parentNode] = BLACK;
+				color[grandparent] = RED;
+				color[uncle] = BLACK;
+				color[root] = BLACK;
+				enforceRBTreePropertiesAfterInsert(grandparent);
+			} else if (isRightChild(newNode) == parentIsRight) {
+				// new node and parent are on the same side: rotate the parent up
+				rotate(parentNode, grandparent);
+				color[parentNode] = BLACK;
+				color[grandparent] = RED;
+			} else {
+				// new node and parent are on opposite sides: rotate the new node up,
+				// then resolve the violation at the old parent
+				rotate(newNode, parentNode);
+				enforceRBTreePropertiesAfterInsert(parentNode);
+			}
+		}
+	}
+
+	/**
+	 * Get the size of the tree (its number of nodes).
+	 *
+	 * @return the number of nodes in the tree
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Method to check if the tree is empty (does not contain any node).
+	 *
+	 * @return true of this.size() return 0, false if this.size() > 0
+	 */
+	public boolean isEmpty() {
+		return this.size() == 0;
+	}
+
+	/**
+	 * Removes the value from the tree if the tree contains the value, returning
+	 * the slot of the unlinked node to the free list, and rebalances the tree
+	 * afterwards like RedBlackTree.remove does.
+	 *
+	 * @return true if the value was removed
+	 * @throws NullPointerException     when the provided value is null
+	 * @throws IllegalArgumentException when value is not stored in the tree
+	 */
+	public boolean remove(T value) throws NullPointerException, IllegalArgumentException {
+		// null references will not be stored within this tree
+		if (value == null)
+			throw new NullPointerException("This RedBlackTree cannot store null references.");
+		int nodeWithData = findNodeWithData(value);
+		// throw exception if node with data does not exist
+		if (nodeWithData == NIL) {
+			throw new IllegalArgumentException(
+					"The following value is not in the tree and cannot be deleted: " + value.toString());
+		}
+		// the node that is unlinked: the node itself, or its successor when it has
+		// two children, which then has at most a right child
+		int unlinked = nodeWithData;
+		if (left[nodeWithData] != NIL && right[nodeWithData] != NIL) {
+			// move the successor's value up, then unlink the successor
+			unlinked = right[nodeWithData];
+			while (left[unlinked] != NIL) {
+				unlinked = left[unlinked];
+			}
+			data[nodeWithData] = data[unlinked];
+		}
+		int child = left[unlinked] != NIL ? left[unlinked] : right[unlinked];
+		int parentNode = parent[unlinked];
+		replaceNode(unlinked, child);
+		// unlinking a black node leaves its paths one black node short
+		if (color[unlinked] == BLACK)
+			enforceRBTreePropertiesAfterRemove(child, parentNode);
+		release(unlinked);
+		this.size--;
+		return true;
+	}
+
+	/**
+	 * This method restores the Red-Black Tree properties after a black node was
+	 * unlinked, when node (which may be NIL) took its place below parentNode, with
+	 * the same cases as RedBlackTree.enforceRBTreePropertiesAfterRemove.
+	 *
+	 * @param node       the node that took the place of the unlinked node, or NIL
+	 * @param parentNode the parent of node
+	 */
+	protected void enforceRBTreePropertiesAfterRemove(int node, int parentNode) {
+		while (node != root && isBlack(node)) {
+			if (node == left[parentNode]) {
+				// the sibling is not NIL, since its paths hold at least one black node
+				int sibling = right[parentNode];
+				if (!isBlack(sibling)) {
+					// a red sibling is rotated up, so that the new sibling is black
+					color[sibling] = BLACK;
+					color[parentNode] = RED;
+					rotate(sibling, parentNode);
+					sibling = right[parentNode];
+				}
+				if (isBlack(left[sibling]) && isBlack(right[sibling])) {
+					// take one black node from the sibling's paths as well
+					color[sibling] = RED;
+					node = parentNode;
+					parentNode = parent[node];
+				} else {
+					if (isBlack(right[sibling])) {
+						// move the red child of the sibling to the outer side
+						color[left[sibling]] = BLACK;
+						color[sibling] = RED;
+						rotate(left[sibling], sibling);
+						sibling = right[parentNode];
+					}
+					// rotate the sibling up, in the color of the parent, above two black
+					// children
+					color[sibling] = color[parentNode];
+					color[parentNode] = BLACK;
+					color[right[sibling]] = BLACK;
+					rotate(sibling, parentNode);
+					node = root;
+				}
+			} else {
+				int sibling = left[parentNode];
+				if (!isBlack(sibling)) {
+					color[sibling] = BLACK;
+					color[parentNode] = RED;
+					rotate(sibling, parentNode);
+					sibling = left[parentNode];
+				}
+				if (isBlack(left[sibling]) && isBlack(right[sibling])) {
+					color[sibling] = RED;
+					node = parentNode;
+					parentNode = parent[node];
+				} else {
+					if (isBlack(left[sibling])) {
+						color[right[sibling]] = BLACK;
+						color[sibling] = RED;
+						rotate(right[sibling], sibling);
+						sibling = left[parentNode];
+					}
+					color[sibling] = color[parentNode];
+					color[parentNode] = BLACK;
+					color[left[sibling]] = BLACK;
+					rotate(sibling, parentNode);
+					node = root;
+				}
+			}
+		}
+		if (node != NIL)
+			color[node] = BLACK;
+	}
+
+	// NIL children count as black
+	private boolean isBlack(int node) {
+		return node == NIL || color[node] == BLACK;
+	}
+
+	/**
+	 * Checks whether the tree contains the value.
+	 *
+	 * @param value the data value to test for
+	 * @return true if value is in the tree, false if it is not in the tree
+	 */
+	public boolean contains(T value) {
+		// null references will not be stored within this tree
+		if (value == null)
+			throw new NullPointerException("This RedBlackTree cannot store null references.");
+		return findNodeWithData(value) != NIL;
+	}
+
+	/**
+	 * Helper method that will replace a node with a replacement node. The
+	 * replacement node may be NIL to remove the node from the tree.
+	 *
+	 * @param nodeToReplace   the node to replace
+	 * @param replacementNode the replacement for the node (may be NIL)
+	 */
+	protected void replaceNode(int nodeToReplace, int replacementNode) {
+		int parentNode = parent[nodeToReplace];
+		if (replacementNode != NIL)
+			parent[replacementNode] = parentNode;
+		if (parentNode == NIL) {
+			// we are replacing the root
+			root = replacementNode;
+		} else if (right[parentNode] == nodeToReplace) {
+			right[parentNode] = replacementNode;
+		} else {
+			left[parentNode] = replacementNode;
+		}
+	}
+
+	/**
+	 * Helper method that will return the node in the tree that contains a specific
+	 * value. Returns NIL if there is no node that contains the value.
+	 *
+	 * @return the node that contains the data, or NIL of no such node exists
+	 */
+	protected int findNodeWithData(T value) {
+		int current = this.root;
+		while (current != NIL) {
+			int compare = compare(value, dataAt(current));
+			if (compare == 0) {
+				// we found our value
+				return current;
+			}
+			// keep looking in the left or right subtree
+			current = compare < 0 ? left[current] : right[current];
+		}
+		// we're at a NIL node and did not find data, so it's not in the tree
+		return NIL;
+	}
+
+	/**
+	 * Checks every Red-Black Tree invariant in O(n) time, like
+	 * RedBlackTree.validate: the root is black, no red node has a red child,
+	 * every path from a node to its leaves has the same number of black nodes,
+	 * the values are in strictly ascending order, the parent indices match the
+	 * child indices, and size matches the number of nodes.
+	 *
+	 * @throws IllegalStateException describing the first violation found
+	 */
+	public void validate() {
+		if (root == NIL) {
+			if (size != 0)
+				throw new IllegalStateException("The tree is empty but its size is " + size);
+			return;
+		}
+		if (parent[root] != NIL)
+			throw new IllegalStateException("The root " + dataAt(root) + " has a parent");
+		if (color[root] != BLACK)
+			throw new IllegalStateException("The root " + dataAt(root) + " is red");
+		int[] count = new int[1];
+		validateSubtree(root, null, null, count);
+		if (count[0] != size)
+			throw new IllegalStateException("The tree holds " + count[0] + " nodes but its size is " + size);
+	}
+
+	/**
+	 * Recursive helper method for validate that checks the subtree at node, whose
+	 * values must be greater than lo and less than hi (when they are not null),
+	 * and adds its number of nodes to count.
+	 *
+	 * @return the black height of the subtree
+	 */
+	private int validateSubtree(int node, T lo, T hi, int[] count) {
+		if (node == NIL)
+			return 0;
+		count[0]++;
+		T value = dataAt(node);
+		if ((lo != null && compare(value, lo) <= 0) || (hi != null && compare(value, hi) >= 0))
+			throw new IllegalStateException("The node " + value + " is out of order");
+		validateLink(node, left[node]);
+		validateLink(node, right[node]);
+		int leftHeight = validateSubtree(left[node], lo, value, count);
+		int rightHeight = validateSubtree(right[node], value, hi, count);
+		if (leftHeight != rightHeight)
+			throw new IllegalStateException(
+					"The subtrees of " + value + " have the black heights " + leftHeight + " and " + rightHeight);
+		return leftHeight + color[node];
+	}
+
+	// checks the index from child back to node and the colors of both
+	private void validateLink(int node, int child) {
+		if (child == NIL)
+			return;
+		if (parent[child] != node)
+			throw new IllegalStateException("The node " + dataAt(child) + " does not reference its parent " + dataAt(node));
+		if (color[node] == RED && color[child] == RED)
+			throw new IllegalStateException("The red node " + dataAt(node) + " has the red child " + dataAt(child));
+	}
+
+	/**
+	 * This method performs an inorder traversal of the tree by walking successors
+	 * through the parent array, assembling the values into a comma separated
+	 * string within brackets like RedBlackTree.toInOrderString.
+	 *
+	 * @return string containing the ordered values of this tree
+	 */
+	public String toInOrderString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("[ ");
+		int node = root;
+		while (node != NIL && left[node] != NIL) {
+			node = left[node];
+		}
+		while (node != NIL) {
+			sb.append(dataAt(node).toString());
+			if (right[node] != NIL) {
+				// smallest value of the right subtree
+				node = right[node];
+				while (left[node] != NIL) {
+					node = left[node];
+				}
+			} else {
+				// climb until we come up from a left child
+				while (isRightChild(node)) {
+					node = parent[node];
+				}
+				node = parent[node];
+			}
+			if (node != NIL)
+				sb.append(", ");
+		}
+		sb.append(" ]");
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,215 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+
+/**
+ * Sorted multiset built on RedBlackTree. Equal values share a single node that
+ * counts their occurrences, so inserting a value that is already stored only
+ * increments its count, without allocating a node or throwing an exception,
+ * and removing a value decrements its count until the last occurrence removes
+ * the node. size returns the total number of occurrences, and the iterators,
+ * forEach, and toInOrderString return each value as many times as it occurs.
+ *
+ * Joining and splitting keep the counts, and split sums them to size both
+ * halves. The set operations of RedBlackTree match nodes rather than
+ * occurrences, so they reject multisets.
+ */
+public class RedBlackMultiset<T extends Comparable<T>> extends RedBlackTree<T> {
+
+	/**
+	 * Node that also counts the occurrences of its value.
+	 */
+	protected static class CountedNode<T> extends Node<T> {
+		public int count = 1;
+
+		public CountedNode(T data) {
+			super(data);
+		}
+	}
+
+	/**
+	 * Creates an empty multiset that orders its values by their natural
+	 * ordering.
+	 */
+	public RedBlackMultiset() {
+		super();
+	}
+
+	/**
+	 * Creates an empty multiset that orders its values with the provided
+	 * comparator; values that compare as equal are counted as the same value.
+	 *
+	 * @param comparator the comparator to order values with, or null to use their
+	 *                   natural ordering
+	 */
+	public RedBlackMultiset(Comparator<? super T> comparator) {
+		super(comparator);
+	}
+
+	@Override
+	protected Node<T> createNode(T data) {
+		return new CountedNode<>(data);
+	}
+
+	@Override
+	protected RedBlackTree<T> createTree() {
+		return new RedBlackMultiset<T>(comparator);
+	}
+
+	@Override
+	protected boolean holdsDuplicates() {
+		return true;
+	}
+
+	/**
+	 * Records another occurrence of the value of existing.
+	 *
+	 * @return true, the value is always added, so tryInsert never fails
+	 * @throws IllegalStateException when the value already occurs
+	 *                               Integer.MAX_VALUE times
+	 */
+	@Override
+	protected boolean insertDuplicate(Node<T> existing) {
+		CountedNode<T> node = (CountedNode<T>) existing;
+		if (node.count == Integer.MAX_VALUE || size == Integer.MAX_VALUE)
+			throw new IllegalStateException("Too many occurrences of value " + existing.data.toString());
+		node.count++;
+		size++;
+		modCount++;
+		return true;
+	}
+
+	@Override
+	protected void copyData(Node<T> source, Node<T> target) {
+		super.copyData(source, target);
+		((CountedNode<T>) target).count = ((CountedNode<T>) source).count;
+	}
+
+	@Override
+	protected int occurrences(Node<T> node) {
+		return ((CountedNode<T>) node).count;
+	}
+
+	/**
+	 * Removes one occurrence of the value of node. The node itself is only
+	 * unlinked with the last occurrence, so remove, tryRemove, and
+	 * removeIfPresent all remove a single occurrence.
+	 */
+	@Override
+	protected T removeOccurrence(Node<T> node) {
+		CountedNode<T> countedNode = (CountedNode<T>) node;
+		if (countedNode.count == 1)
+			return removeNode(node);
+		countedNode.count--;
+		size--;
+		modCount++;
+		return node.data;
+	}
+
+	/**
+	 * Returns the number of occurrences of the value data in the multiset.
+	 *
+	 * @param data the value to count
+	 * @return the number of occurrences of data, 0 when it is not stored
+	 * @throws NullPointerException when the provided data argument is null
+	 */
+	public int count(T data) {
+		if (data == null)
+			throw new NullPointerException("This RedBlackTree cannot store null references.");
+		Node<T> node = findNodeWithData(data);
+		return node == null ? 0 : ((CountedNode<T>) node).count;
+	}
+
+	/**
+	 * Adds all of the provided values, which must be sorted in ascending order
+	 * but may repeat, to the multiset in O(n + m) time. Each run of equal values
+	 * becomes a single node counting them, runs equal to a stored value add to
+	 * its count, and the whole tree is rebuilt as in RedBlackTree.addAllSorted.
+	 * The multiset is left unchanged when the values are invalid.
+	 *
+	 * @param sorted the values to add, in ascending order
+	 * @throws NullPointerException     when sorted or any of its values is null
+	 * @throws IllegalArgumentException when the values are not in ascending order
+	 * @throws IllegalStateException    when the multiset would hold more than
+	 *                                  Integer.MAX_VALUE occurrences
+	 */
+	@Override
+	public void addAllSorted(Collection<? extends T> sorted) {
+		// the distinct values of the rebuilt tree, in order, along with their counts
+		List<T> values = new ArrayList<>();
+		List<Integer> counts = new ArrayList<>();
+		long total = size;
+		Node<T> node = firstNode();
+		T previous = null;
+		for (T value : sorted) {
+			if (value == null)
+				throw new NullPointerException("This RedBlackTree cannot store null references.");
+			if (previous != null && compare(previous, value) > 0)
+				throw new IllegalArgumentException(
+						"Values must be in ascending order: " + value.toString() + " follows " + previous.toString());
+			previous = value;
+			// the stored values up to value come first, with their counts
+			while (node != null && compare(node.data, value) <= 0) {
+				values.add(node.data);
+				counts.add(occurrences(node));
+				node = successor(node);
+			}
+			int last = values.size() - 1;
+			if (last >= 0 && compare(values.get(last), value) == 0) {
+				if (counts.get(last) == Integer.MAX_VALUE)
+					throw new IllegalStateException("Too many occurrences of value " + value.toString());
+				counts.set(last, counts.get(last) + 1);
+			} else {
+				values.add(value);
+				counts.add(1);
+			}
+			total++;
+		}
+		if (total > Integer.MAX_VALUE)
+			throw new IllegalStateException("Too many occurrences to store in a RedBlackMultiset.");
+		for (; node != null; node = successor(node)) {
+			values.add(node.data);
+			counts.add(occurrences(node));
+		}
+		loadSorted(values.iterator(), values.size());
+		// the loader creates every node with a count of one
+		int i = 0;
+		for (node = firstNode(); node != null; node = successor(node)) {
+			((CountedNode<T>) node).count = counts.get(i++);
+		}
+		this.size = (int) total;
+	}
+
+	/**
+	 * Adds all of the provided values to the multiset one at a time. Unlike for
+	 * addAllSorted, the values do not need to be sorted, and adding m values
+	 * takes O(m log n) time.
+	 *
+	 * @param values the values to add
+	 * @throws NullPointerException when values or any of its values is null
+	 */
+	public void addAll(Collection<? extends T> values) {
+		for (T value : values) {
+			insert(value);
+		}
+	}
+
+	/**
+	 * Returns a spliterator over the values of the multiset in ascending order.
+	 * Unlike the one of RedBlackTree, it does not report DISTINCT.
+	 *
+	 * @return a spliterator over the values of the multiset
+	 */
+	@Override
+	public Spliterator<T> spliterator() {
+		return new TreeSpliterator(firstNode(), size) {
+			@Override
+			public int characteristics() {
+				return super.characteristics() & ~Spliterator.DISTINCT;
+			}
+		};
+	}
+
+}
@@ -1,5 +1,15 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.LinkedList;
-import java.util.Stack;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
 
 /**
  * Red-Black Tree implementation with a Node inner class for representing the
@@ -8,24 +18,24 @@ import java.util.Stack;
  * this activity, we will start with implementing rotations for the binary
  * search tree insert algorithm.
  */
-public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionInterface<T> {
+public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionInterface<T>, Iterable<T> {
 
 	/**
 	 * This class represents a node holding a single value within a binary tree.
 	 */
 	protected static class Node<T> {
 		public T data;
-		// The context array stores the context of the node in the tree:
-		// - context[0] is the parent reference of the node,
-		// - context[1] is the left child reference of the node,
-		// - context[2] is the right child reference of the node.
-		// The @SupressWarning("unchecked") annotation is used to supress an unchecked
-		// cast warning. Java only allows us to instantiate arrays without generic
-		// type parameters, so we use this cast here to avoid future casts of the
-		// node type's data field.
-		@SuppressWarnings("unchecked")
-		public Node<T>[] context = (Node<T>[]) new Node[3];
-		public int blackHeight = 0;
+		// The context of the node in the tree is stored in direct fields, rather
+		// than in a separate array, so that moving between nodes does not have to
+		// go through an extra object:
+		// - parent is the parent reference of the node,
+		// - left is the left child reference of the node,
+		// - right is the right child reference of the node.
+		public Node<T> parent;
+		public Node<T> left;
+		public Node<T> right;
+		// the color of the node: 0 for red, 1 for black
+		public byte blackHeight = 0;
 
 		public Node(T data) {
 			this.data = data;
@@ -37,13 +47,169 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 		 *         parent, otherwise return false
 		 */
 		public boolean isRightChild() {
-			return context[0] != null && context[0].context[2] == this;
+			return parent != null && parent.right == this;
 		}
 
 	}
 
 	protected Node<T> root; // reference to root node of tree, null when empty
 	protected int size = 0; // the number of values in the tree
+	protected int modCount = 0; // the number of structural changes, for fail-fast iteration
+	protected final Comparator<? super T> comparator; // ordering of values, null for natural order
+
+	// shape statistics, see getStats. They are plain counters, like modCount, so
+	// they cost a single increment and may be off when the tree is shared
+	// between threads without synchronization
+	protected long rotations = 0; // the number of rotations done by insert and remove
+	protected long recolors = 0; // the number of times a red uncle was recolored by insert
+	protected long searches = 0; // the number of calls to findNodeWithData
+	protected long searchSteps = 0; // the number of nodes visited by findNodeWithData
+
+	protected boolean fingerSearch = false; // true to start searches from finger, see setFingerSearch
+	protected Node<T> finger = null; // the node of the last lookup or insertion, null when unknown
+
+	/**
+	 * Creates an empty tree that orders its values by their natural ordering.
+	 */
+	public RedBlackTree() {
+		this.comparator = null;
+	}
+
+	/**
+	 * Creates an empty tree that orders its values with the provided comparator.
+	 * A comparator written for the value type, such as Long::compare, avoids the
+	 * dynamic dispatch of compareTo when many value types share the same call
+	 * sites.
+	 *
+	 * @param comparator the comparator to order values with, or null to use their
+	 *                   natural ordering
+	 */
+	public RedBlackTree(Comparator<? super T> comparator) {
+		this.comparator = comparator;
+	}
+
+	/**
+	 * Helper method that compares two values with the ordering of this tree.
+	 *
+	 * @return a negative number, zero, or a positive number when a is less than,
+	 *         equal to, or greater than b
+	 */
+	protected int compare(T a, T b) {
+		return compare(comparator, a, b);
+	}
+
+	/**
+	 * Helper method that compares two values with the provided comparator, or
+	 * with their natural ordering when it is null.
+	 */
+	private static <T extends Comparable<T>> int compare(Comparator<? super T> comparator, T a, T b) {
+		return comparator == null ? a.compareTo(b) : comparator.compare(a, b);
+	}
+
+	/**
+	 * Creates the node holding a new value. Subclasses that keep extra data in
+	 * their nodes (an augmented tree) return a subclass of Node here.
+	 *
+	 * @param data the value of the node
+	 * @return the new node
+	 */
+	protected Node<T> createNode(T data) {
+		return new Node<>(data);
+	}
+
+	/**
+	 * Recomputes the extra data that an augmented tree keeps in node from the
+	 * value of node and the extra data of its children. It is called whenever
+	 * the children of a node change: for both nodes of a rotation and for every
+	 * node built by a bulk load. This tree keeps no extra data, so it does
+	 * nothing.
+	 *
+	 * @param node the node to update
+	 */
+	protected void augment(Node<T> node) {
+	}
+
+	/**
+	 * Recomputes the extra data of node and of all of its ancestors, after a
+	 * node was linked below node or removed from below it. This tree keeps no
+	 * extra data, so it does nothing; augmented trees call augment on every node
+	 * up to the root.
+	 *
+	 * @param node the lowest node whose subtree changed, may be null
+	 */
+	protected void augmentPath(Node<T> node) {
+	}
+
+	/**
+	 * Called by tryInsert when the tree already holds a value equal to the
+	 * inserted one. This tree does not hold duplicates, so the value is not
+	 * inserted; a tree that counts duplicates (like RedBlackMultiset) records
+	 * another occurrence instead.
+	 *
+	 * @param existing the node holding the value equal to the inserted one
+	 * @return the result of tryInsert, false here
+	 */
+	protected boolean insertDuplicate(Node<T> existing) {
+		return false;
+	}
+
+	/**
+	 * Called by removeIfPresent with the node holding the value to remove. This
+	 * tree holds every value once, so the node is unlinked; a tree that counts
+	 * duplicates (like RedBlackMultiset) only removes its last occurrence.
+	 *
+	 * @param node the node holding the value to remove
+	 * @return the removed value
+	 */
+	protected T removeOccurrence(Node<T> node) {
+		return removeNode(node);
+	}
+
+	/**
+	 * Moves the value of source into target, when remove replaces the value of a
+	 * node with two children by the value of its successor. Subclasses that keep
+	 * extra data per value copy it along.
+	 *
+	 * @param source the node whose value is moved
+	 * @param target the node receiving the value
+	 */
+	protected void copyData(Node<T> source, Node<T> target) {
+		target.data = source.data;
+	}
+
+	/**
+	 * Returns how many times the value of node is part of the collection. The
+	 * iterators, forEach, and toInOrderString return each value this many times.
+	 * Every value of this tree occurs once.
+	 *
+	 * @param node a node of this tree
+	 * @return the number of occurrences of the value of node
+	 */
+	protected int occurrences(Node<T> node) {
+		return 1;
+	}
+
+	/**
+	 * Creates an empty tree of the same kind and with the same ordering as this
+	 * one. split, join, and the set operations move nodes into such a tree, so
+	 * that subclasses keep their node type and their augment hooks.
+	 *
+	 * @return a new empty tree
+	 */
+	protected RedBlackTree<T> createTree() {
+		return new RedBlackTree<T>(comparator);
+	}
+
+	/**
+	 * Returns whether a node of this tree may stand for several equal values, as
+	 * in RedBlackMultiset. The set operations match nodes rather than values, so
+	 * they reject such trees.
+	 *
+	 * @return false, every node of this tree holds a single value
+	 */
+	protected boolean holdsDuplicates() {
+		return false;
+	}
 
 	/**
 	 * Performs a naive insertion into a binary search tree: adding the input data
@@ -57,50 +223,83 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 	 * @throws IllegalArgumentException when data is already contained in the tree
 	 */
 	public boolean insert(T data) throws NullPointerException, IllegalArgumentException {
+		if (!tryInsert(data))
+			throw new IllegalArgumentException("This RedBlackTree already contains value " + data.toString());
+		return true;
+	}
+
+	/**
+	 * Inserts the value data like insert, but reports a value that is already in
+	 * the tree by returning false instead of throwing, so callers that expect
+	 * duplicates do not pay for building an exception.
+	 *
+	 * @param data to be added into this binary search tree
+	 * @return true if the value was inserted, false if the tree already contains it
+	 * @throws NullPointerException when the provided data argument is null
+	 */
+	public boolean tryInsert(T data) throws NullPointerException {
 		// null references cannot be stored within this tree
 		if (data == null)
 			throw new NullPointerException("This RedBlackTree cannot store null references.");
 
-		Node<T> newNode = new Node<>(data);
 		if (this.root == null) {
-			// add first node to an empty tree
+			// add first node to an empty tree, the root is always black
+			Node<T> newNode = createNode(data);
 			root = newNode;
+			root.blackHeight = 1;
 			size++;
+			modCount++;
+			if (fingerSearch)
+				finger = newNode;
 			return true;
 		} else {
-			// insert into subtree
-			Node<T> current = this.root;
+			// insert into the subtree where data belongs, which is the whole tree
+			// unless finger search finds a smaller one
+			Node<T> current = searchStart(data);
 			while (true) {
-				int compare = newNode.data.compareTo(current.data);
+				int compare = compare(data, current.data);
 				if (compare == 0) {
-					throw new IllegalArgumentException("This RedBlackTree already contains value " + data.toString());
+					if (fingerSearch)
+						finger = current;
+					return insertDuplicate(current);
 				} else if (compare < 0) {
 					// insert in left subtree
-					if (current.context[1] == null) {
-						// empty space to insert into
-						current.context[1] = newNode;
-						newNode.context[0] = current;
+					if (current.left == null) {
+						// empty space to insert into, the node is only created now so that
+						// a duplicate does not allocate one
+						Node<T> newNode = createNode(data);
+						current.left = newNode;
+						newNode.parent = current;
+						augmentPath(newNode);
 						enforceRBTreePropertiesAfterInsert(newNode);
 						this.size++;
+						this.modCount++;
+						if (fingerSearch)
+							finger = newNode;
 						return true;
 					} else {
 						// no empty space, keep moving down the tree
-						current = current.context[1];
+						current = current.left;
 					}
 				} else {
 					// insert in right subtree
-					if (current.context[2] == null) {
+					if (current.right == null) {
 						// empty space to insert into
-						current.context[2] = newNode;
-						newNode.context[0] = current;
+						Node<T> newNode = createNode(data);
+						current.right = newNode;
+						newNode.parent = current;
+						augmentPath(newNode);
 						// calls enforceRBTreePropertiesAfterInsert and passes along the newly inserted
 						// node
 						enforceRBTreePropertiesAfterInsert(newNode);
 						this.size++;
+						this.modCount++;
+						if (fingerSearch)
+							finger = newNode;
 						return true;
 					} else {
 						// no empty space, keep moving down the tree
-						current = current.context[2];
+						current = current.right;
 					}
 				}
 			}
@@ -129,37 +328,38 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 		if (child == null || parent == null) {
 			throw new IllegalArgumentException();
 		}
+		rotations++;
 
 		// if the child is right node of the parent, do left rotation
 		if (child.isRightChild()) {
 
 			// first step of left rotation, assign left child of the child node as new right
 			// child of the parent
-			parent.context[2] = child.context[1];
+			parent.right = child.left;
 
 			// check if newly assigned child is not null, then update its parent reference
-			if (parent.context[2] != null) {
-				parent.context[2].context[0] = parent;
+			if (parent.right != null) {
+				parent.right.parent = parent;
 			}
 
 			// second step of left rotation, assign the parent node's parent as the new
 			// parent of the child node.
-			child.context[0] = parent.context[0];
+			child.parent = parent.parent;
 
 			// check if new parent of the child is not null, then update its child
 			// reference,
 			// whether it is right or left child of its parent
-			if (child.context[0] != null) {
+			if (child.parent != null) {
 				if (parent.isRightChild()) {
-					child.context[0].context[2] = child;
+					child.parent.right = child;
 				} else {
-					child.context[0].context[1] = child;
+					child.parent.left = child;
 				}
 			}
 
 			// lastly, update new parent and child reference after rotation has been done
-			child.context[1] = parent;
-			parent.context[0] = child;
+			child.left = parent;
+			parent.parent = child;
 		}
 
 		// if the child is left node of the parent, do right rotation
@@ -167,31 +367,31 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 
 			// first step of right rotation, assign right child of the child node as new
 			// left child of the parent
-			parent.context[1] = child.context[2];
+			parent.left = child.right;
 
 			// check if newly assigned child is not null, then update its parent reference
-			if (parent.context[1] != null) {
-				parent.context[1].context[0] = parent;
+			if (parent.left != null) {
+				parent.left.parent = parent;
 			}
 
 			// second step of right rotation, assign the parent node's parent as the new
 			// parent of the child node.
-			child.context[0] = parent.context[0];
+			child.parent = parent.parent;
 
 			// check if new parent of the child is not null, then update its child
 			// reference,
 			// whether it is right or left child of its parent
-			if (child.context[0] != null) {
+			if (child.parent != null) {
 				if (parent.isRightChild()) {
-					child.context[0].context[2] = child;
+					child.parent.right = child;
 				} else {
-					child.context[0].context[1] = child;
+					child.parent.left = child;
 				}
 			}
 
 			// lastly, update new parent and child reference after rotation has been done
-			child.context[2] = parent;
-			parent.context[0] = child;
+			child.right = parent;
+			parent.parent = child;
 		}
 		// throw exception if child is neither right nor left child of the parent node
 		else {
@@ -202,6 +402,10 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 			root = child;
 		}
 
+		// the parent is now below the child, so its summary is updated first
+		augment(parent);
+		augment(child);
+
 	}
 
 	/**
@@ -213,12 +417,12 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 	protected void enforceRBTreePropertiesAfterInsert(Node<T> newNode) {
 
 		// Base case: There is no violation
-		if (newNode.blackHeight == 1 || newNode.context[0] == null || newNode.context[0].context[0] == null) {
+		if (newNode.blackHeight == 1 || newNode.parent == null || newNode.parent.parent == null) {
 			return;
 		}
 
 		// Check if the new node's parent node is red
-		if (newNode.context[0].blackHeight == 0) {
+		if (newNode.parent.blackHeight == 0) {
 			// Check if the new node is right child
 			if (newNode.isRightChild()) {
 				fixRightChildViolation(newNode);
@@ -240,59 +444,61 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 
 		// When the parent of the newly inserted node is right child of the grandparent
 		// node, and the uncle node is either null or black node
-		if (newNode.context[0].isRightChild() && (newNode.context[0].context[0].context[1] == null
-				|| newNode.context[0].context[0].context[1].blackHeight == 1)) {
+		if (newNode.parent.isRightChild() && (newNode.parent.parent.left == null
+				|| newNode.parent.parent.left.blackHeight == 1)) {
 
 			// Left Rotation
-			rotate(newNode.context[0], newNode.context[0].context[0]);
+			rotate(newNode.parent, newNode.parent.parent);
 
 			// Swap colors
-			newNode.context[0].blackHeight = 1;
-			newNode.context[0].context[1].blackHeight = 0;
+			newNode.parent.blackHeight = 1;
+			newNode.parent.left.blackHeight = 0;
 		}
 
 		// When the parent of the newly inserted node is left child of the grandparent
 		// node, and the uncle is either null or black node
-		else if (!newNode.context[0].isRightChild() && (newNode.context[0].context[0].context[2] == null
-				|| newNode.context[0].context[0].context[2].blackHeight == 1)) {
+		else if (!newNode.parent.isRightChild() && (newNode.parent.parent.right == null
+				|| newNode.parent.parent.right.blackHeight == 1)) {
 			// Right Rotation
-			rotate(newNode, newNode.context[0]);
+			rotate(newNode, newNode.parent);
 
 			// Recursively call
-			enforceRBTreePropertiesAfterInsert(newNode.context[1]);
+			enforceRBTreePropertiesAfterInsert(newNode.left);
 		}
 
 		// When the parent of the newly inserted node is right child of the grandparent
 		// node, and uncle node is red
-		else if (newNode.context[0].isRightChild() && newNode.context[0].context[0].context[1].blackHeight == 0) {
+		else if (newNode.parent.isRightChild() && newNode.parent.parent.left.blackHeight == 0) {
 
 			// Swap colors
-			newNode.context[0].blackHeight = 1;
-			newNode.context[0].context[0].blackHeight = 0;
-			newNode.context[0].context[0].context[1].blackHeight = 1;
+			recolors++;
+			newNode.parent.blackHeight = 1;
+			newNode.parent.parent.blackHeight = 0;
+			newNode.parent.parent.left.blackHeight = 1;
 			
 			// sets the color of the root node to black
 			this.root.blackHeight = 1;
 
 			// Recursively call with grandparent node
-			enforceRBTreePropertiesAfterInsert(newNode.context[0].context[0]);
+			enforceRBTreePropertiesAfterInsert(newNode.parent.parent);
 
 		}
 
 		// When the parent of the newly inserted node is left child of the grandparent
 		// node, and uncle node is red
-		else if (!newNode.context[0].isRightChild() && newNode.context[0].context[0].context[2].blackHeight == 0) {
+		else if (!newNode.parent.isRightChild() && newNode.parent.parent.right.blackHeight == 0) {
 
 			// Swap colors
-			newNode.context[0].blackHeight = 1;
-			newNode.context[0].context[0].blackHeight = 0;
-			newNode.context[0].context[0].context[2].blackHeight = 1;
+			recolors++;
+			newNode.parent.blackHeight = 1;
+			newNode.parent.parent.blackHeight = 0;
+			newNode.parent.parent.right.blackHeight = 1;
 			
 			// sets the color of the root node to black
 			this.root.blackHeight = 1;
 
 			// Recursively call with grandparent node
-			enforceRBTreePropertiesAfterInsert(newNode.context[0].context[0]);
+			enforceRBTreePropertiesAfterInsert(newNode.parent.parent);
 		}
 	}
 
@@ -306,58 +512,60 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 
 		// When the parent of the newly inserted node is left child of the grandparent
 		// node, and the uncle node is either null or black node
-		if (!newNode.context[0].isRightChild() && (newNode.context[0].context[0].context[2] == null
-				|| newNode.context[0].context[0].context[2].blackHeight == 1)) {
+		if (!newNode.parent.isRightChild() && (newNode.parent.parent.right == null
+				|| newNode.parent.parent.right.blackHeight == 1)) {
 
 			// Right rotation
-			rotate(newNode.context[0], newNode.context[0].context[0]);
+			rotate(newNode.parent, newNode.parent.parent);
 
 			// Swap colors
-			newNode.context[0].blackHeight = 1;
-			newNode.context[0].context[2].blackHeight = 0;
+			newNode.parent.blackHeight = 1;
+			newNode.parent.right.blackHeight = 0;
 		}
 
 		// When the parent of the newly inserted node is right child of the grandparent
 		// node, and the uncle is either null or black node
-		else if (newNode.context[0].isRightChild() && (newNode.context[0].context[0].context[1] == null
-				|| newNode.context[0].context[0].context[1].blackHeight == 1)) {
+		else if (newNode.parent.isRightChild() && (newNode.parent.parent.left == null
+				|| newNode.parent.parent.left.blackHeight == 1)) {
 
 			// Right rotation
-			rotate(newNode, newNode.context[0]);
+			rotate(newNode, newNode.parent);
 
 			// Recursively call
-			enforceRBTreePropertiesAfterInsert(newNode.context[2]);
+			enforceRBTreePropertiesAfterInsert(newNode.right);
 		}
 
 		// When the parent of the newly inserted node is left child of the grandparent
 		// node, and uncle node is red
-		else if (!newNode.context[0].isRightChild() && newNode.context[0].context[0].context[2].blackHeight == 0) {
+		else if (!newNode.parent.isRightChild() && newNode.parent.parent.right.blackHeight == 0) {
 
 			// Swap colors
-			newNode.context[0].blackHeight = 1;
-			newNode.context[0].context[0].blackHeight = 0;
-			newNode.context[0].context[0].context[2].blackHeight = 1;
+			recolors++;
+			newNode.parent.blackHeight = 1;
+			newNode.parent.parent.blackHeight = 0;
+			newNode.parent.parent.right.blackHeight = 1;
 			
 			// sets the color of the root node to black
 			this.root.blackHeight = 1;
 
 			// Recursively call with grandparent
-			enforceRBTreePropertiesAfterInsert(newNode.context[0].context[0]);
+			enforceRBTreePropertiesAfterInsert(newNode.parent.parent);
 		}
 
 		// When the parent of the newly inserted node is right child of the grandparent
 		// node, and uncle node is red
-		else if (newNode.context[0].isRightChild() && newNode.context[0].context[0].context[1].blackHeight == 0) {
+		else if (newNode.parent.isRightChild() && newNode.parent.parent.left.blackHeight == 0) {
 			// Swap colors
-			newNode.context[0].blackHeight = 1;
-			newNode.context[0].context[0].blackHeight = 0;
-			newNode.context[0].context[0].context[1].blackHeight = 1;
+			recolors++;
+			newNode.parent.blackHeight = 1;
+			newNode.parent.parent.blackHeight = 0;
+			newNode.parent.parent.left.blackHeight = 1;
 			
 			// sets the color of the root node to black
 			this.root.blackHeight = 1;
 
 			// Recursively call with grandparent
-			enforceRBTreePropertiesAfterInsert(newNode.context[0].context[0]);
+			enforceRBTreePropertiesAfterInsert(newNode.parent.parent);
 		}
 	}
 
@@ -380,53 +588,171 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 	}
 
 	/**
-	 * Removes the value data from the tree if the tree contains the value. This
-	 * method will not attempt to rebalance the tree after the removal and should be
-	 * updated once the tree uses Red-Black Tree insertion.
+	 * Removes all values from the tree. Views like range, headSet and tailSet
+	 * that were created before see the empty tree.
+	 */
+	public void clear() {
+		this.root = null;
+		this.size = 0;
+		this.modCount++;
+		this.finger = null;
+	}
+
+	/**
+	 * Removes the value data from the tree if the tree contains the value, and
+	 * rebalances the tree afterwards like insert does.
 	 * 
 	 * @return true if the value was remove, false if it didn't exist
 	 * @throws NullPointerException     when the provided data argument is null
 	 * @throws IllegalArgumentException when data is not stored in the tree
 	 */
 	public boolean remove(T data) throws NullPointerException, IllegalArgumentException {
+		if (removeIfPresent(data) == null)
+			throw new IllegalArgumentException(
+					"The following value is not in the tree and cannot be deleted: " + data.toString());
+		return true;
+	}
+
+	/**
+	 * Removes the value data like remove, but reports a value that is not in the
+	 * tree by returning false instead of throwing.
+	 *
+	 * @param data the value to remove
+	 * @return true if the value was removed, false if the tree does not contain it
+	 * @throws NullPointerException when the provided data argument is null
+	 */
+	public boolean tryRemove(T data) throws NullPointerException {
+		return removeIfPresent(data) != null;
+	}
+
+	/**
+	 * Removes the value data from the tree if the tree contains it, with a single
+	 * descent: the node found by the lookup is unlinked directly.
+	 *
+	 * @param data the value to remove
+	 * @return the value that was stored in the tree (which equals data, but may be
+	 *         a different object), or null if the tree does not contain data
+	 * @throws NullPointerException when the provided data argument is null
+	 */
+	public T removeIfPresent(T data) throws NullPointerException {
 		// null references will not be stored within this tree
-		if (data == null) {
+		if (data == null)
 			throw new NullPointerException("This RedBlackTree cannot store null references.");
-		} else {
-			Node<T> nodeWithData = this.findNodeWithData(data);
-			// throw exception if node with data does not exist
-			if (nodeWithData == null) {
-				throw new IllegalArgumentException(
-						"The following value is not in the tree and cannot be deleted: " + data.toString());
-			}
-			boolean hasRightChild = (nodeWithData.context[2] != null);
-			boolean hasLeftChild = (nodeWithData.context[1] != null);
-			if (hasRightChild && hasLeftChild) {
-				// has 2 children
-				Node<T> successorNode = this.findMinOfRightSubtree(nodeWithData);
-				// replace value of node with value of successor node
-				nodeWithData.data = successorNode.data;
-				// remove successor node
-				if (successorNode.context[2] == null) {
-					// successor has no children, replace with null
-					this.replaceNode(successorNode, null);
+		Node<T> nodeWithData = this.findNodeWithData(data);
+		return nodeWithData == null ? null : removeOccurrence(nodeWithData);
+	}
+
+	/**
+	 * Helper method that unlinks the value of a node from the tree.
+	 *
+	 * @param nodeWithData the node holding the value to remove
+	 * @return the removed value
+	 */
+	protected T removeNode(Node<T> nodeWithData) {
+		T removed = nodeWithData.data;
+		boolean hasRightChild = (nodeWithData.right != null);
+		boolean hasLeftChild = (nodeWithData.left != null);
+		// the finger moves to a node that stays in the tree: the node whose value
+		// is replaced by its successor, or the parent of the removed node
+		if (fingerSearch)
+			finger = (hasRightChild && hasLeftChild) ? nodeWithData : nodeWithData.parent;
+		// the node that is unlinked: the node itself, or its successor when it has
+		// two children, which then has at most a right child
+		Node<T> unlinked = nodeWithData;
+		if (hasRightChild && hasLeftChild) {
+			unlinked = this.findMinOfRightSubtree(nodeWithData);
+			// replace value of node with value of successor node
+			copyData(unlinked, nodeWithData);
+		}
+		Node<T> child = unlinked.left != null ? unlinked.left : unlinked.right;
+		Node<T> parent = unlinked.parent;
+		this.replaceNode(unlinked, child);
+		// unlinking a black node leaves its paths one black node short
+		if (unlinked.blackHeight == 1)
+			enforceRBTreePropertiesAfterRemove(child, parent);
+		this.size--;
+		this.modCount++;
+		return removed;
+	}
+
+	/**
+	 * This method restores the Red-Black Tree properties after a black node was
+	 * unlinked, when node (which may be null) took its place below parent: every
+	 * path through node is one black node short. A red node is simply colored
+	 * black. Otherwise the missing black node is either borrowed from the sibling
+	 * subtree by rotations, or the sibling is colored red and the shortage moves up
+	 * to the parent, at most up to the root.
+	 *
+	 * @param node   the node that took the place of the unlinked node, or null
+	 * @param parent the parent of node
+	 */
+	protected void enforceRBTreePropertiesAfterRemove(Node<T> node, Node<T> parent) {
+		while (node != root && isBlack(node)) {
+			if (node == parent.left) {
+				// the sibling is not null, since its paths hold at least one black node
+				Node<T> sibling = parent.right;
+				if (!isBlack(sibling)) {
+					// a red sibling is rotated up, so that the new sibling is black
+					sibling.blackHeight = 1;
+					parent.blackHeight = 0;
+					rotate(sibling, parent);
+					sibling = parent.right;
+				}
+				if (isBlack(sibling.left) && isBlack(sibling.right)) {
+					// take one black node from the sibling's paths as well
+					sibling.blackHeight = 0;
+					node = parent;
+					parent = node.parent;
 				} else {
-					// successor has a right child, replace successor with its child
-					this.replaceNode(successorNode, successorNode.context[2]);
+					if (isBlack(sibling.right)) {
+						// move the red child of the sibling to the outer side
+						sibling.left.blackHeight = 1;
+						sibling.blackHeight = 0;
+						rotate(sibling.left, sibling);
+						sibling = parent.right;
+					}
+					// rotate the sibling up, in the color of the parent, above two black
+					// children
+					sibling.blackHeight = parent.blackHeight;
+					parent.blackHeight = 1;
+					sibling.right.blackHeight = 1;
+					rotate(sibling, parent);
+					node = root;
 				}
-			} else if (hasRightChild) {
-				// only right child, replace with right child
-				this.replaceNode(nodeWithData, nodeWithData.context[2]);
-			} else if (hasLeftChild) {
-				// only left child, replace with left child
-				this.replaceNode(nodeWithData, nodeWithData.context[1]);
 			} else {
-				// no children, replace node with a null node
-				this.replaceNode(nodeWithData, null);
+				Node<T> sibling = parent.left;
+				if (!isBlack(sibling)) {
+					sibling.blackHeight = 1;
+					parent.blackHeight = 0;
+					rotate(sibling, parent);
+					sibling = parent.left;
+				}
+				if (isBlack(sibling.left) && isBlack(sibling.right)) {
+					sibling.blackHeight = 0;
+					node = parent;
+					parent = node.parent;
+				} else {
+					if (isBlack(sibling.left)) {
+						sibling.right.blackHeight = 1;
+						sibling.blackHeight = 0;
+						rotate(sibling.right, sibling);
+						sibling = parent.left;
+					}
+					sibling.blackHeight = parent.blackHeight;
+					parent.blackHeight = 1;
+					sibling.left.blackHeight = 1;
+					rotate(sibling, parent);
+					node = root;
+				}
 			}
-			this.size--;
-			return true;
 		}
+		if (node != null)
+			node.blackHeight = 1;
+	}
+
+	// null children count as black
+	private static boolean isBlack(Node<?> node) {
+		return node == null || node.blackHeight == 1;
 	}
 
 	/**
@@ -446,6 +772,674 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 		}
 	}
 
+	/**
+	 * Builds a new tree from values that are already sorted in strictly ascending
+	 * order. The tree is built bottom-up in O(n) time, without any comparisons
+	 * beyond checking the order of the input or any rotations: every level is
+	 * colored black except for an incomplete bottom level, which is colored red.
+	 *
+	 * @param sorted the values to store, in strictly ascending order
+	 * @return a new tree holding the values
+	 * @throws NullPointerException     when sorted or any of its values is null
+	 * @throws IllegalArgumentException when the values are not in strictly
+	 *                                  ascending order
+	 */
+	public static <T extends Comparable<T>> RedBlackTree<T> fromSorted(Collection<? extends T> sorted) {
+		return fromSorted(sorted, null);
+	}
+
+	/**
+	 * Builds a new tree from values that are already sorted in strictly ascending
+	 * order according to the provided comparator, as in fromSorted.
+	 *
+	 * @param sorted     the values to store, in strictly ascending order
+	 * @param comparator the comparator to order values with, or null to use their
+	 *                   natural ordering
+	 * @return a new tree holding the values
+	 * @throws NullPointerException     when sorted or any of its values is null
+	 * @throws IllegalArgumentException when the values are not in strictly
+	 *                                  ascending order
+	 */
+	public static <T extends Comparable<T>> RedBlackTree<T> fromSorted(Collection<? extends T> sorted,
+			Comparator<? super T> comparator) {
+		RedBlackTree<T> tree = new RedBlackTree<T>(comparator);
+		tree.loadSorted(sorted.iterator(), sorted.size());
+		return tree;
+	}
+
+	/**
+	 * Adds all of the provided values, which must be sorted in strictly ascending
+	 * order, to this tree. When this tree is empty, the values are bulk-loaded
+	 * as in fromSorted. Otherwise, they are merged with the values already in
+	 * the tree and the whole tree is rebuilt, in O(n + m) time.
+	 *
+	 * @param sorted the values to add, in strictly ascending order
+	 * @throws NullPointerException     when sorted or any of its values is null
+	 * @throws IllegalArgumentException when the values are not in strictly
+	 *                                  ascending order, or when one of them is
+	 *                                  already contained in the tree
+	 */
+	public void addAllSorted(Collection<? extends T> sorted) {
+		if (this.root == null) {
+			loadSorted(sorted.iterator(), sorted.size());
+			return;
+		}
+		// merge the values of this tree with the new ones into a single array
+		List<T> merged = new ArrayList<>(this.size + sorted.size());
+		Iterator<? extends T> added = sorted.iterator();
+		// whether nextAdded holds a value, which is never null
+		boolean hasAdded = added.hasNext();
+		T nextAdded = hasAdded ? nonNull(added.next()) : null;
+		for (Node<T> node = firstNode(); node != null; node = successor(node)) {
+			while (hasAdded && compare(nextAdded, node.data) < 0) {
+				merged.add(nextAdded);
+				hasAdded = added.hasNext();
+				nextAdded = hasAdded ? nonNull(added.next()) : null;
+			}
+			if (hasAdded && compare(nextAdded, node.data) == 0)
+				throw new IllegalArgumentException("This RedBlackTree already contains value " + nextAdded.toString());
+			merged.add(node.data);
+		}
+		while (hasAdded) {
+			merged.add(nextAdded);
+			hasAdded = added.hasNext();
+			nextAdded = hasAdded ? nonNull(added.next()) : null;
+		}
+		// the loader checks the order of the merged values before replacing the tree
+		loadSorted(merged.iterator(), merged.size());
+	}
+
+	// returns data, which must not be null
+	private static <T> T nonNull(T data) {
+		if (data == null)
+			throw new NullPointerException("This RedBlackTree cannot store null references.");
+		return data;
+	}
+
+	/**
+	 * Helper method that replaces the contents of this tree with count values
+	 * taken from the provided iterator, which must return them in strictly
+	 * ascending order. The tree is left unchanged when the values are invalid.
+	 *
+	 * @param values iterator returning the values in ascending order
+	 * @param count  the number of values to take from the iterator
+	 */
+	protected void loadSorted(Iterator<? extends T> values, int count) {
+		// the deepest level of the tree is only complete when count + 1 is a power
+		// of two; when it is incomplete, its nodes are the red ones
+		int redDepth = 31 - Integer.numberOfLeadingZeros(count + 1);
+		SortedLoader loader = new SortedLoader(values);
+		Node<T> newRoot = loader.build(count, 0, redDepth);
+		this.root = newRoot;
+		this.size = count;
+		this.modCount++;
+		this.finger = null;
+	}
+
+	/**
+	 * Helper class that builds a balanced tree in order from a sorted iterator,
+	 * checking that each value is greater than the one before it.
+	 */
+	protected class SortedLoader {
+		private final Iterator<? extends T> values; // the values to build from
+		private T previous = null; // the last value taken from the iterator
+
+		protected SortedLoader(Iterator<? extends T> values) {
+			this.values = values;
+		}
+
+		/**
+		 * Builds a subtree holding the next count values of the iterator.
+		 *
+		 * @param count    the number of values in the subtree
+		 * @param depth    the depth of the subtree's root within the whole tree
+		 * @param redDepth the depth at which nodes are colored red
+		 * @return the root of the subtree, or null when count is zero
+		 */
+		protected Node<T> build(int count, int depth, int redDepth) {
+			if (count == 0)
+				return null;
+			// the left subtree gets the smaller half of the remaining values
+			int leftCount = (count - 1) / 2;
+			Node<T> left = build(leftCount, depth + 1, redDepth);
+			if (!values.hasNext())
+				throw new IllegalArgumentException("Fewer values were provided than expected.");
+			T data = values.next();
+			if (data == null)
+				throw new NullPointerException("This RedBlackTree cannot store null references.");
+			if (previous != null && compare(previous, data) >= 0)
+				throw new IllegalArgumentException(
+						"Values must be in strictly ascending order: " + data.toString() + " follows " + previous.toString());
+			previous = data;
+			Node<T> node = createNode(data);
+			node.blackHeight = (byte) (depth == redDepth ? 0 : 1);
+			node.left = left;
+			if (left != null)
+				left.parent = node;
+			node.right = build(count - 1 - leftCount, depth + 1, redDepth);
+			if (node.right != null)
+				node.right.parent = node;
+			augment(node);
+			return node;
+		}
+	}
+
+	/**
+	 * Joins two trees around a pivot value: every value of left must be smaller
+	 * than pivot, and every value of right must be greater than pivot. The nodes
+	 * of both trees are reused, so this takes O(log n) time, and both trees are
+	 * left empty afterwards. The new tree is of the same kind as left, so
+	 * joining two multisets or two interval trees returns another one.
+	 *
+	 * @param left  the tree holding the values smaller than pivot
+	 * @param pivot the value between the two trees
+	 * @param right the tree holding the values greater than pivot
+	 * @return a new tree holding the values of left, pivot and right
+	 * @throws NullPointerException     when any of the arguments is null
+	 * @throws IllegalArgumentException when the values are not ordered as
+	 *                                  described above, or when the two trees are
+	 *                                  not of the same kind
+	 */
+	public static <T extends Comparable<T>> RedBlackTree<T> join(RedBlackTree<T> left, T pivot,
+			RedBlackTree<T> right) {
+		if (pivot == null)
+			throw new NullPointerException("This RedBlackTree cannot store null references.");
+		checkSameKind(left, right);
+		Node<T> leftMax = left.lastNode();
+		Node<T> rightMin = right.firstNode();
+		if ((leftMax != null && left.compare(leftMax.data, pivot) >= 0)
+				|| (rightMin != null && left.compare(rightMin.data, pivot) <= 0))
+			throw new IllegalArgumentException("The pivot " + pivot.toString() + " does not separate the two trees.");
+
+		Subtree<T> joined = new Subtree<>();
+		left.joinNodes(left.takeSubtree(), left.createNode(pivot), right.takeSubtree(), joined);
+		RedBlackTree<T> result = left.createTree();
+		result.putSubtree(joined, left.size + 1 + right.size);
+		left.size = 0;
+		right.size = 0;
+		return result;
+	}
+
+	/**
+	 * Splits this tree around the provided key: the values smaller than key stay
+	 * in this tree, and the values greater than or equal to key are moved into
+	 * the returned tree, which is of the same kind as this one. Restructuring the
+	 * nodes takes O(log n) time; updating the sizes of the two trees takes time
+	 * proportional to the smaller one.
+	 *
+	 * @param key the value to split around
+	 * @return a new tree holding the values greater than or equal to key
+	 * @throws NullPointerException when key is null
+	 */
+	public RedBlackTree<T> split(T key) {
+		if (key == null)
+			throw new NullPointerException("This RedBlackTree cannot store null references.");
+		Subtree<T> less = new Subtree<>();
+		Subtree<T> greater = new Subtree<>();
+		Subtree<T> whole = takeSubtree();
+		Node<T> found = splitNodes(whole.root, whole.blackHeight, key, less, greater);
+		if (found != null) {
+			// the key itself belongs to the greater half, as its smallest value
+			joinNodes(new Subtree<>(), found, greater, greater);
+		}
+		// the sizes of the halves are not tracked by the nodes, so count both
+		// halves in step and stop at the end of the smaller one; the sizes count
+		// the occurrences of the values, which differ from the nodes in a multiset
+		int lessSize = 0;
+		int greaterSize = 0;
+		Node<T> lessNode = leftmost(less.root);
+		Node<T> greaterNode = leftmost(greater.root);
+		while (lessNode != null && greaterNode != null) {
+			lessSize += occurrences(lessNode);
+			lessNode = successor(lessNode);
+			greaterSize += occurrences(greaterNode);
+			greaterNode = successor(greaterNode);
+		}
+		if (lessNode == null)
+			greaterSize = this.size - lessSize;
+		else
+			lessSize = this.size - greaterSize;
+		RedBlackTree<T> result = createTree();
+		result.putSubtree(greater, greaterSize);
+		this.putSubtree(less, lessSize);
+		return result;
+	}
+
+	/**
+	 * Returns a new tree holding every value of either tree. The work is split
+	 * into independent subtrees with split and join, and large inputs are
+	 * processed in parallel on the common ForkJoinPool. The nodes of both trees
+	 * are reused, so both trees are left empty afterwards.
+	 * Both trees are expected to use the same ordering, and the new tree is of
+	 * the same kind as a and uses its ordering. Multisets are not supported,
+	 * since their nodes stand for several occurrences.
+	 *
+	 * @param a the first tree
+	 * @param b the second tree
+	 * @return a new tree holding the union of the two trees
+	 * @throws IllegalArgumentException when the two trees are not of the same
+	 *                                  kind, or when they hold duplicates
+	 */
+	public static <T extends Comparable<T>> RedBlackTree<T> union(RedBlackTree<T> a, RedBlackTree<T> b) {
+		return runSetOperation(SetOperation.UNION, a, b);
+	}
+
+	/**
+	 * Returns a new tree holding the values contained in both trees. Like union,
+	 * large inputs are processed in parallel, and both trees are left empty
+	 * afterwards.
+	 *
+	 * @param a the first tree
+	 * @param b the second tree
+	 * @return a new tree holding the intersection of the two trees
+	 * @throws IllegalArgumentException when the two trees are not of the same
+	 *                                  kind, or when they hold duplicates
+	 */
+	public static <T extends Comparable<T>> RedBlackTree<T> intersection(RedBlackTree<T> a, RedBlackTree<T> b) {
+		return runSetOperation(SetOperation.INTERSECTION, a, b);
+	}
+
+	/**
+	 * Returns a new tree holding the values of a that are not contained in b.
+	 * Like union, large inputs are processed in parallel, and both trees are left
+	 * empty afterwards.
+	 *
+	 * @param a the tree to take values from
+	 * @param b the tree holding the values to leave out
+	 * @return a new tree holding the difference of the two trees
+	 * @throws IllegalArgumentException when the two trees are not of the same
+	 *                                  kind, or when they hold duplicates
+	 */
+	public static <T extends Comparable<T>> RedBlackTree<T> difference(RedBlackTree<T> a, RedBlackTree<T> b) {
+		return runSetOperation(SetOperation.DIFFERENCE, a, b);
+	}
+
+	/**
+	 * Helper method that runs a set operation over the detached contents of two
+	 * trees and wraps the result in a new tree.
+	 */
+	private static <T extends Comparable<T>> RedBlackTree<T> runSetOperation(int operation, RedBlackTree<T> a,
+			RedBlackTree<T> b) {
+		checkSameKind(a, b);
+		if (a.holdsDuplicates())
+			throw new IllegalArgumentException("Set operations are not supported on trees that hold duplicates.");
+		int sizeA = a.size;
+		int sizeB = b.size;
+		// only fork tasks for the top levels of the recursion, and only when
+		// the inputs are large enough to make it worthwhile
+		int forkDepth = 0;
+		if (sizeA + sizeB >= SetOperation.PARALLEL_THRESHOLD) {
+			forkDepth = 34 - Integer.numberOfLeadingZeros(ForkJoinPool.getCommonPoolParallelism());
+		}
+		SetOperation<T> task = new SetOperation<>(operation, a.takeSubtree(), b.takeSubtree(), a, forkDepth);
+		Subtree<T> joined = forkDepth > 0 ? ForkJoinPool.commonPool().invoke(task) : task.compute();
+		// the matches are the values found in both trees
+		int resultSize;
+		if (operation == SetOperation.UNION)
+			resultSize = sizeA + sizeB - task.matches;
+		else if (operation == SetOperation.INTERSECTION)
+			resultSize = task.matches;
+		else
+			resultSize = sizeA - task.matches;
+		a.size = 0;
+		b.size = 0;
+		RedBlackTree<T> result = a.createTree();
+		result.putSubtree(joined, resultSize);
+		return result;
+	}
+
+	/**
+	 * Helper method that checks that two trees can share their nodes: nodes of
+	 * different kinds of trees carry different data, like the counts of a
+	 * multiset or the subtree maximums of an interval tree.
+	 */
+	private static void checkSameKind(RedBlackTree<?> a, RedBlackTree<?> b) {
+		if (a.getClass() != b.getClass())
+			throw new IllegalArgumentException("Cannot combine a " + a.getClass().getSimpleName() + " with a "
+					+ b.getClass().getSimpleName() + ".");
+	}
+
+	/**
+	 * Helper method that detaches the whole tree from this object, leaving this
+	 * tree empty (except for its size, which the caller updates).
+	 *
+	 * @return the detached nodes along with their black height
+	 */
+	private Subtree<T> takeSubtree() {
+		Subtree<T> subtree = new Subtree<>();
+		subtree.root = this.root;
+		if (subtree.root != null) {
+			subtree.root.blackHeight = 1;
+			for (Node<T> node = subtree.root; node != null; node = node.left) {
+				subtree.blackHeight += node.blackHeight;
+			}
+		}
+		this.root = null;
+		this.modCount++;
+		this.finger = null;
+		return subtree;
+	}
+
+	/**
+	 * Helper method that makes the provided detached nodes the contents of this
+	 * tree.
+	 */
+	private void putSubtree(Subtree<T> subtree, int size) {
+		this.root = subtree.root;
+		this.size = size;
+		this.modCount++;
+		this.finger = null;
+	}
+
+	/**
+	 * Helper method that returns the leftmost node of a subtree.
+	 */
+	private static <T> Node<T> leftmost(Node<T> node) {
+		while (node != null && node.left != null) {
+			node = node.left;
+		}
+		return node;
+	}
+
+	/**
+	 * A detached subtree, identified by its root, along with its black height:
+	 * the number of black nodes on every path from the root down to a null
+	 * child. The root of a non-empty subtree is always black.
+	 */
+	protected static class Subtree<T> {
+		protected Node<T> root;
+		protected int blackHeight;
+	}
+
+	/**
+	 * Helper method that joins two detached subtrees around a detached pivot
+	 * node. The shorter subtree is hung off the spine of the taller one at the
+	 * first black node with the same black height, and any red property
+	 * violation is resolved through enforceRBTreePropertiesAfterInsert. The
+	 * nodes whose children change are augmented with the hooks of this tree. The
+	 * time taken is proportional to the difference in black heights.
+	 *
+	 * @param left   the subtree holding the values smaller than the pivot
+	 * @param pivot  the node between the two subtrees
+	 * @param right  the subtree holding the values greater than the pivot
+	 * @param result the subtree to store the joined nodes in (may be one of the
+	 *               inputs)
+	 */
+	private void joinNodes(Subtree<T> left, Node<T> pivot, Subtree<T> right, Subtree<T> result) {
+		Node<T> leftRoot = left.root;
+		Node<T> rightRoot = right.root;
+		int leftHeight = left.blackHeight;
+		int rightHeight = right.blackHeight;
+		pivot.parent = null;
+		pivot.left = null;
+		pivot.right = null;
+
+		if (leftHeight == rightHeight) {
+			// same height: the pivot becomes a new black root over both subtrees
+			pivot.blackHeight = 1;
+			pivot.left = leftRoot;
+			pivot.right = rightRoot;
+			if (leftRoot != null)
+				leftRoot.parent = pivot;
+			if (rightRoot != null)
+				rightRoot.parent = pivot;
+			augment(pivot);
+			result.root = pivot;
+			result.blackHeight = leftHeight + 1;
+			return;
+		}
+
+		// the pivot is inserted as a red node, like a new leaf would be
+		pivot.blackHeight = 0;
+		RedBlackTree<T> scratch = createTree();
+		int shorterHeight = Math.min(leftHeight, rightHeight);
+		if (leftHeight > rightHeight) {
+			// walk down the right spine of the left subtree
+			Node<T> parent = null;
+			Node<T> current = leftRoot;
+			int height = leftHeight;
+			while (current != null && !(current.blackHeight == 1 && height <= rightHeight)) {
+				height -= current.blackHeight;
+				parent = current;
+				current = current.right;
+			}
+			pivot.left = current;
+			if (current != null)
+				current.parent = pivot;
+			pivot.right = rightRoot;
+			if (rightRoot != null)
+				rightRoot.parent = pivot;
+			pivot.parent = parent;
+			parent.right = pivot;
+			scratch.root = leftRoot;
+		} else {
+			// walk down the left spine of the right subtree
+			Node<T> parent = null;
+			Node<T> current = rightRoot;
+			int height = rightHeight;
+			while (current != null && !(current.blackHeight == 1 && height <= leftHeight)) {
+				height -= current.blackHeight;
+				parent = current;
+				current = current.left;
+			}
+			pivot.right = current;
+			if (current != null)
+				current.parent = pivot;
+			pivot.left = leftRoot;
+			if (leftRoot != null)
+				leftRoot.parent = pivot;
+			pivot.parent = parent;
+			parent.left = pivot;
+			scratch.root = rightRoot;
+		}
+		// the ancestors of the pivot gained its subtree, before any rotation
+		scratch.augmentPath(pivot);
+		scratch.enforceRBTreePropertiesAfterInsert(pivot);
+		scratch.root.blackHeight = 1;
+
+		// the pivot's children always keep the shorter black height, so the new
+		// black height is found by climbing from the pivot instead of the root
+		int blackHeight = shorterHeight;
+		for (Node<T> node = pivot; node != null; node = node.parent) {
+			blackHeight += node.blackHeight;
+		}
+		result.root = scratch.root;
+		result.blackHeight = blackHeight;
+	}
+
+	/**
+	 * Helper method that splits a detached subtree around a key. The nodes
+	 * holding values smaller than key are joined into less, and those holding
+	 * greater values into greater.
+	 *
+	 * @param node        the root of the subtree to split
+	 * @param blackHeight the black height of the subtree
+	 * @param key         the value to split around
+	 * @param less        the subtree to store the smaller values in
+	 * @param greater     the subtree to store the greater values in
+	 * @return the detached node holding key, or null if there is no such node
+	 */
+	private Node<T> splitNodes(Node<T> node, int blackHeight, T key, Subtree<T> less, Subtree<T> greater) {
+		if (node == null) {
+			less.root = null;
+			less.blackHeight = 0;
+			greater.root = null;
+			greater.blackHeight = 0;
+			return null;
+		}
+		Subtree<T> left = detachChild(node.left, blackHeight - node.blackHeight);
+		Subtree<T> right = detachChild(node.right, blackHeight - node.blackHeight);
+		node.left = null;
+		node.right = null;
+		node.parent = null;
+
+		int compare = compare(key, node.data);
+		if (compare == 0) {
+			// both children are already on the correct side
+			less.root = left.root;
+			less.blackHeight = left.blackHeight;
+			greater.root = right.root;
+			greater.blackHeight = right.blackHeight;
+			return node;
+		} else if (compare < 0) {
+			// split the left child and join its greater part to the right child
+			Node<T> found = splitNodes(left.root, left.blackHeight, key, less, greater);
+			joinNodes(greater, node, right, greater);
+			return found;
+		} else {
+			// split the right child and join its smaller part to the left child
+			Node<T> found = splitNodes(right.root, right.blackHeight, key, less, greater);
+			joinNodes(left, node, less, less);
+			return found;
+		}
+	}
+
+	/**
+	 * Helper method that splits the node holding the largest value off a
+	 * detached subtree, storing the remaining nodes in rest.
+	 *
+	 * @return the detached node holding the largest value
+	 */
+	private Node<T> splitLast(Node<T> node, int blackHeight, Subtree<T> rest) {
+		Subtree<T> left = detachChild(node.left, blackHeight - node.blackHeight);
+		Node<T> right = node.right;
+		node.left = null;
+		node.right = null;
+		node.parent = null;
+		if (right == null) {
+			rest.root = left.root;
+			rest.blackHeight = left.blackHeight;
+			return node;
+		}
+		Subtree<T> rightSubtree = detachChild(right, blackHeight - node.blackHeight);
+		Node<T> last = splitLast(rightSubtree.root, rightSubtree.blackHeight, rest);
+		joinNodes(left, node, rest, rest);
+		return last;
+	}
+
+	/**
+	 * Helper method that joins two detached subtrees without a pivot, by using
+	 * the largest value of the left subtree as the pivot.
+	 */
+	private void joinNodes(Subtree<T> left, Subtree<T> right, Subtree<T> result) {
+		if (left.root == null) {
+			result.root = right.root;
+			result.blackHeight = right.blackHeight;
+		} else if (right.root == null) {
+			result.root = left.root;
+			result.blackHeight = left.blackHeight;
+		} else {
+			Subtree<T> rest = new Subtree<>();
+			Node<T> last = splitLast(left.root, left.blackHeight, rest);
+			joinNodes(rest, last, right, result);
+		}
+	}
+
+	/**
+	 * Helper method that detaches a child from its parent, coloring it black when
+	 * it was red so that it can be used as the root of a subtree.
+	 *
+	 * @param child       the child to detach (may be null)
+	 * @param blackHeight the black height of the child
+	 * @return the detached child along with its updated black height
+	 */
+	private static <T> Subtree<T> detachChild(Node<T> child, int blackHeight) {
+		Subtree<T> subtree = new Subtree<>();
+		subtree.root = child;
+		subtree.blackHeight = blackHeight;
+		if (child != null) {
+			child.parent = null;
+			if (child.blackHeight == 0) {
+				child.blackHeight = 1;
+				subtree.blackHeight++;
+			}
+		}
+		return subtree;
+	}
+
+	/**
+	 * Task computing a union, intersection or difference of two detached
+	 * subtrees. The root of one subtree is used to split the other one, and the
+	 * two resulting pairs of subtrees are processed independently (in parallel
+	 * for the top forkDepth levels) before being joined back together, with the
+	 * ordering and the hooks of the tree the operands were taken from.
+	 */
+	protected static class SetOperation<T extends Comparable<T>> extends RecursiveTask<Subtree<T>> {
+		private static final long serialVersionUID = 1L;
+		protected static final int UNION = 0;
+		protected static final int INTERSECTION = 1;
+		protected static final int DIFFERENCE = 2;
+		// the smallest combined input size that is processed in parallel
+		protected static final int PARALLEL_THRESHOLD = 1 << 14;
+
+		private final int operation; // one of UNION, INTERSECTION or DIFFERENCE
+		private final Subtree<T> a; // the first operand
+		private final Subtree<T> b; // the second operand
+		private final RedBlackTree<T> tree; // the tree whose ordering and hooks are used
+		private final int forkDepth; // the number of levels left to fork tasks for
+		protected int matches = 0; // the number of values found in both operands
+
+		protected SetOperation(int operation, Subtree<T> a, Subtree<T> b, RedBlackTree<T> tree, int forkDepth) {
+			this.operation = operation;
+			this.a = a;
+			this.b = b;
+			this.tree = tree;
+			this.forkDepth = forkDepth;
+		}
+
+		protected Subtree<T> compute() {
+			Subtree<T> empty = new Subtree<>();
+			if (a.root == null)
+				return operation == UNION ? b : empty;
+			if (b.root == null)
+				return operation == INTERSECTION ? empty : a;
+
+			// difference splits a around the root of b, so that the nodes of b are
+			// dropped; union and intersection split b around the root of a
+			Subtree<T> pivotSide = operation == DIFFERENCE ? b : a;
+			Subtree<T> splitSide = operation == DIFFERENCE ? a : b;
+			Node<T> pivot = pivotSide.root;
+			Subtree<T> pivotLeft = detachChild(pivot.left, pivotSide.blackHeight - pivot.blackHeight);
+			Subtree<T> pivotRight = detachChild(pivot.right, pivotSide.blackHeight - pivot.blackHeight);
+			pivot.left = null;
+			pivot.right = null;
+			Subtree<T> less = new Subtree<>();
+			Subtree<T> greater = new Subtree<>();
+			Node<T> found = tree.splitNodes(splitSide.root, splitSide.blackHeight, pivot.data, less, greater);
+
+			SetOperation<T> leftTask;
+			SetOperation<T> rightTask;
+			if (operation == DIFFERENCE) {
+				leftTask = new SetOperation<>(operation, less, pivotLeft, tree, forkDepth - 1);
+				rightTask = new SetOperation<>(operation, greater, pivotRight, tree, forkDepth - 1);
+			} else {
+				leftTask = new SetOperation<>(operation, pivotLeft, less, tree, forkDepth - 1);
+				rightTask = new SetOperation<>(operation, pivotRight, greater, tree, forkDepth - 1);
+			}
+			Subtree<T> leftResult;
+			Subtree<T> rightResult;
+			if (forkDepth > 0) {
+				leftTask.fork();
+				rightResult = rightTask.compute();
+				leftResult = leftTask.join();
+			} else {
+				leftResult = leftTask.compute();
+				rightResult = rightTask.compute();
+			}
+			matches = leftTask.matches + rightTask.matches + (found != null ? 1 : 0);
+
+			Subtree<T> result = new Subtree<>();
+			if (operation == UNION || (operation == INTERSECTION && found != null)) {
+				// the pivot is part of the result
+				tree.joinNodes(leftResult, pivot, rightResult, result);
+			} else {
+				// the pivot (and any node found equal to it) is dropped
+				tree.joinNodes(leftResult, rightResult, result);
+			}
+			return result;
+		}
+	}
+
 	/**
 	 * Helper method that will replace a node with a replacement node. The
 	 * replacement node may be null to remove the node from the tree.
@@ -457,21 +1451,22 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 		if (nodeToReplace == null) {
 			throw new NullPointerException("Cannot replace null node.");
 		}
-		if (nodeToReplace.context[0] == null) {
+		if (nodeToReplace.parent == null) {
 			// we are replacing the root
 			if (replacementNode != null)
-				replacementNode.context[0] = null;
+				replacementNode.parent = null;
 			this.root = replacementNode;
 		} else {
 			// set the parent of the replacement node
 			if (replacementNode != null)
-				replacementNode.context[0] = nodeToReplace.context[0];
+				replacementNode.parent = nodeToReplace.parent;
 			// do we have to attach a new left or right child to our parent?
 			if (nodeToReplace.isRightChild()) {
-				nodeToReplace.context[0].context[2] = replacementNode;
+				nodeToReplace.parent.right = replacementNode;
 			} else {
-				nodeToReplace.context[0].context[1] = replacementNode;
+				nodeToReplace.parent.left = replacementNode;
 			}
+			augmentPath(nodeToReplace.parent);
 		}
 	}
 
@@ -483,18 +1478,18 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 	 * @return the node that is the inorder successor of node
 	 */
 	protected Node<T> findMinOfRightSubtree(Node<T> node) {
-		if (node.context[1] == null && node.context[2] == null) {
+		if (node.left == null && node.right == null) {
 			throw new IllegalArgumentException("Node must have two children");
 		}
 		// take a steop to the right
-		Node<T> current = node.context[2];
+		Node<T> current = node.right;
 		while (true) {
 			// then go left as often as possible to find the successor
-			if (current.context[1] == null) {
+			if (current.left == null) {
 				// we found the successor
 				return current;
 			} else {
-				current = current.context[1];
+				current = current.left;
 			}
 		}
 	}
@@ -506,24 +1501,602 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 	 * @return the node that contains the data, or null of no such node exists
 	 */
 	protected Node<T> findNodeWithData(T data) {
-		Node<T> current = this.root;
+		Node<T> current = searchStart(data);
+		Node<T> last = current;
+		searches++;
 		while (current != null) {
-			int compare = data.compareTo(current.data);
+			searchSteps++;
+			last = current;
+			int compare = compare(data, current.data);
 			if (compare == 0) {
 				// we found our value
+				if (fingerSearch)
+					finger = current;
 				return current;
 			} else if (compare < 0) {
 				// keep looking in the left subtree
-				current = current.context[1];
+				current = current.left;
 			} else {
 				// keep looking in the right subtree
-				current = current.context[2];
+				current = current.right;
 			}
 		}
-		// we're at a null node and did not find data, so it's not in the tree
+		// we're at a null node and did not find data, so it's not in the tree; the
+		// last node visited is next to where data would be
+		if (fingerSearch)
+			finger = last;
 		return null;
 	}
 
+	/**
+	 * Enables or disables finger search. With finger search, lookups and
+	 * insertions do not start at the root but at the node of the previous lookup
+	 * or insertion (the finger): they climb through parent references only until
+	 * they reach a subtree whose range holds the value, and descend from there.
+	 * A value d positions away from the previous one is usually found within a
+	 * subtree of height O(log d), so sequential and nearby accesses take close to
+	 * constant time, while distant ones cost at most one extra climb to the root.
+	 *
+	 * @param enabled true to enable finger search, false to always start at the
+	 *                root
+	 */
+	public void setFingerSearch(boolean enabled) {
+		this.fingerSearch = enabled;
+		this.finger = null;
+	}
+
+	/**
+	 * @return true when finger search is enabled, see setFingerSearch
+	 */
+	public boolean isFingerSearch() {
+		return fingerSearch;
+	}
+
+	/**
+	 * Helper method that returns the node to start searching for data from: the
+	 * root, or with finger search, the lowest ancestor of the finger (or the
+	 * finger itself) whose subtree holds the range that data belongs to.
+	 *
+	 * While climbing towards larger values, a node that is a left child has its
+	 * parent as the upper bound of its subtree, so the climb stops at the first
+	 * such node whose parent is greater than data; right children share the
+	 * upper bound of their parent and are passed without a comparison. Climbing
+	 * towards smaller values is symmetric.
+	 */
+	protected Node<T> searchStart(T data) {
+		Node<T> current = finger;
+		if (!fingerSearch || current == null)
+			return root;
+		int compare = compare(data, current.data);
+		if (compare == 0)
+			return current;
+		boolean larger = compare > 0;
+		while (current.parent != null) {
+			Node<T> parent = current.parent;
+			if (larger ? parent.left == current : parent.right == current) {
+				compare = compare(data, parent.data);
+				if (compare == 0)
+					return parent;
+				if (larger ? compare < 0 : compare > 0)
+					return current;
+			}
+			current = parent;
+		}
+		// the climb ended at the root, or at the top of a subtree that is no longer
+		// part of this tree when the finger is out of date
+		return root;
+	}
+
+	/**
+	 * Helper method that will return the node holding the smallest value that is
+	 * greater than (or equal to, when inclusive is true) the provided value.
+	 *
+	 * @param data      the value to compare against
+	 * @param inclusive true if a node holding data itself may be returned
+	 * @return the ceiling (or higher) node, or null if no such node exists
+	 */
+	protected Node<T> findCeilingNode(T data, boolean inclusive) {
+		Node<T> current = this.root;
+		Node<T> best = null;
+		while (current != null) {
+			int compare = compare(data, current.data);
+			if (compare == 0 && inclusive) {
+				// exact match is the ceiling
+				return current;
+			} else if (compare < 0) {
+				// current is a candidate, look for a smaller one on the left
+				best = current;
+				current = current.left;
+			} else {
+				// current is too small, look on the right
+				current = current.right;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Helper method that will return the node holding the largest value that is
+	 * smaller than (or equal to, when inclusive is true) the provided value.
+	 *
+	 * @param data      the value to compare against
+	 * @param inclusive true if a node holding data itself may be returned
+	 * @return the floor (or lower) node, or null if no such node exists
+	 */
+	protected Node<T> findFloorNode(T data, boolean inclusive) {
+		Node<T> current = this.root;
+		Node<T> best = null;
+		while (current != null) {
+			int compare = compare(data, current.data);
+			if (compare == 0 && inclusive) {
+				// exact match is the floor
+				return current;
+			} else if (compare > 0) {
+				// current is a candidate, look for a larger one on the right
+				best = current;
+				current = current.right;
+			} else {
+				// current is too large, look on the left
+				current = current.left;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Helper method that will return the in-order successor of any node by
+	 * following child and parent references, without using any extra memory.
+	 *
+	 * @param node the node to find the successor for
+	 * @return the next node in order, or null if node holds the largest value
+	 */
+	protected Node<T> successor(Node<T> node) {
+		if (node.right != null) {
+			// smallest value of the right subtree
+			Node<T> current = node.right;
+			while (current.left != null) {
+				current = current.left;
+			}
+			return current;
+		}
+		// otherwise climb until we come up from a left child
+		Node<T> current = node;
+		while (current.isRightChild()) {
+			current = current.parent;
+		}
+		return current.parent;
+	}
+
+	/**
+	 * Helper method that will return the in-order predecessor of any node by
+	 * following child and parent references, without using any extra memory.
+	 *
+	 * @param node the node to find the predecessor for
+	 * @return the previous node in order, or null if node holds the smallest value
+	 */
+	protected Node<T> predecessor(Node<T> node) {
+		if (node.left != null) {
+			// largest value of the left subtree
+			Node<T> current = node.left;
+			while (current.right != null) {
+				current = current.right;
+			}
+			return current;
+		}
+		// otherwise climb until we come up from a right child
+		Node<T> current = node;
+		while (current.parent != null && !current.isRightChild()) {
+			current = current.parent;
+		}
+		return current.parent;
+	}
+
+	/**
+	 * Helper method that will return the node holding the smallest value.
+	 *
+	 * @return the leftmost node of the tree, or null when the tree is empty
+	 */
+	protected Node<T> firstNode() {
+		Node<T> current = this.root;
+		while (current != null && current.left != null) {
+			current = current.left;
+		}
+		return current;
+	}
+
+	/**
+	 * Helper method that will return the node holding the largest value.
+	 *
+	 * @return the rightmost node of the tree, or null when the tree is empty
+	 */
+	protected Node<T> lastNode() {
+		Node<T> current = this.root;
+		while (current != null && current.right != null) {
+			current = current.right;
+		}
+		return current;
+	}
+
+	/**
+	 * Returns the largest value in this tree that is less than or equal to the
+	 * provided value.
+	 *
+	 * @param data the value to compare against
+	 * @return the floor value, or null if there is no such value
+	 * @throws NullPointerException when the provided data argument is null
+	 */
+	public T floor(T data) {
+		if (data == null)
+			throw new NullPointerException("This RedBlackTree cannot store null references.");
+		Node<T> node = findFloorNode(data, true);
+		return node == null ? null : node.data;
+	}
+
+	/**
+	 * Returns the smallest value in this tree that is greater than or equal to the
+	 * provided value.
+	 *
+	 * @param data the value to compare against
+	 * @return the ceiling value, or null if there is no such value
+	 * @throws NullPointerException when the provided data argument is null
+	 */
+	public T ceiling(T data) {
+		if (data == null)
+			throw new NullPointerException("This RedBlackTree cannot store null references.");
+		Node<T> node = findCeilingNode(data, true);
+		return node == null ? null : node.data;
+	}
+
+	/**
+	 * Returns the smallest value in this tree that is strictly greater than the
+	 * provided value.
+	 *
+	 * @param data the value to compare against
+	 * @return the higher value, or null if there is no such value
+	 * @throws NullPointerException when the provided data argument is null
+	 */
+	public T higher(T data) {
+		if (data == null)
+			throw new NullPointerException("This RedBlackTree cannot store null references.");
+		Node<T> node = findCeilingNode(data, false);
+		return node == null ? null : node.data;
+	}
+
+	/**
+	 * Returns the largest value in this tree that is strictly less than the
+	 * provided value.
+	 *
+	 * @param data the value to compare against
+	 * @return the lower value, or null if there is no such value
+	 * @throws NullPointerException when the provided data argument is null
+	 */
+	public T lower(T data) {
+		if (data == null)
+			throw new NullPointerException("This RedBlackTree cannot store null references.");
+		Node<T> node = findFloorNode(data, false);
+		return node == null ? null : node.data;
+	}
+
+	/**
+	 * Returns a lazy view of the values in this tree from lo (inclusive) up to hi
+	 * (exclusive), in order. Each iterator descends to lo in O(log n) and then
+	 * walks successors until hi is reached, so no values are copied.
+	 *
+	 * @param lo the smallest value of the range (inclusive)
+	 * @param hi the end of the range (exclusive)
+	 * @return an Iterable over the values within the range
+	 * @throws NullPointerException     when lo or hi is null
+	 * @throws IllegalArgumentException when lo is greater than hi
+	 */
+	public Iterable<T> range(T lo, T hi) {
+		if (lo == null || hi == null)
+			throw new NullPointerException("Range bounds cannot be null.");
+		if (compare(lo, hi) > 0)
+			throw new IllegalArgumentException("Range start " + lo + " is greater than range end " + hi);
+		return () -> new TreeIterator(findCeilingNode(lo, true), hi, false);
+	}
+
+	/**
+	 * Returns a lazy view of the values in this tree that are strictly less than
+	 * hi, in order.
+	 *
+	 * @param hi the end of the range (exclusive)
+	 * @return an Iterable over the values less than hi
+	 * @throws NullPointerException when hi is null
+	 */
+	public Iterable<T> headSet(T hi) {
+		if (hi == null)
+			throw new NullPointerException("Range bounds cannot be null.");
+		return () -> new TreeIterator(firstNode(), hi, false);
+	}
+
+	/**
+	 * Returns a lazy view of the values in this tree that are greater than or
+	 * equal to lo, in order.
+	 *
+	 * @param lo the smallest value of the range (inclusive)
+	 * @return an Iterable over the values greater than or equal to lo
+	 * @throws NullPointerException when lo is null
+	 */
+	public Iterable<T> tailSet(T lo) {
+		if (lo == null)
+			throw new NullPointerException("Range bounds cannot be null.");
+		return () -> new TreeIterator(findCeilingNode(lo, true), null, false);
+	}
+
+	/**
+	 * Returns an iterator over the values of this tree in ascending order. The
+	 * iterator walks successors through parent references, so it uses O(1) extra
+	 * memory, and it fails fast when the tree is modified during the iteration.
+	 *
+	 * @return an iterator over the values of this tree in ascending order
+	 */
+	public Iterator<T> iterator() {
+		return new TreeIterator(firstNode(), null, false);
+	}
+
+	/**
+	 * Returns an iterator over the values of this tree in descending order. Like
+	 * iterator(), it walks predecessors through parent references.
+	 *
+	 * @return an iterator over the values of this tree in descending order
+	 */
+	public Iterator<T> descendingIterator() {
+		return new TreeIterator(lastNode(), null, true);
+	}
+
+	/**
+	 * Performs the action for each value of this tree in ascending order without
+	 * allocating an iterator.
+	 *
+	 * @param action the action to perform on each value
+	 * @throws ConcurrentModificationException when the tree is modified by the
+	 *                                         action
+	 */
+	public void forEach(Consumer<? super T> action) {
+		if (action == null)
+			throw new NullPointerException("The action cannot be null.");
+		int expectedModCount = modCount;
+		for (Node<T> node = firstNode(); node != null; node = successor(node)) {
+			for (int i = occurrences(node); i > 0; i--) {
+				action.accept(node.data);
+			}
+			if (modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+		}
+	}
+
+	/**
+	 * Returns a spliterator over the values of this tree in ascending order. The
+	 * spliterator reports its exact size and walks the tree through parent
+	 * references like iterator().
+	 *
+	 * @return a spliterator over the values of this tree
+	 */
+	public Spliterator<T> spliterator() {
+		return new TreeSpliterator(firstNode(), size);
+	}
+
+	/**
+	 * Iterator that walks the tree in order (or in reverse order) from a starting
+	 * node through parent references, stopping before the first value that
+	 * reaches its upper bound.
+	 */
+	protected class TreeIterator implements Iterator<T> {
+		private Node<T> next; // the node holding the next value to return
+		private final T hi; // exclusive upper bound, or null when unbounded
+		private final boolean descending; // true to walk predecessors instead
+		private int returned = 0; // the occurrences of the value of next returned so far
+		private int expectedModCount = modCount;
+
+		protected TreeIterator(Node<T> first, T hi, boolean descending) {
+			this.hi = hi;
+			this.descending = descending;
+			this.next = withinBound(first);
+		}
+
+		// returns node when it is below the upper bound, null otherwise
+		private Node<T> withinBound(Node<T> node) {
+			if (node != null && hi != null && compare(node.data, hi) >= 0)
+				return null;
+			return node;
+		}
+
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		public T next() {
+			if (modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+			if (next == null)
+				throw new NoSuchElementException("There are no more values in this range.");
+			T data = next.data;
+			if (++returned < occurrences(next))
+				return data;
+			returned = 0;
+			next = descending ? predecessor(next) : withinBound(successor(next));
+			return data;
+		}
+	}
+
+	/**
+	 * Spliterator that walks the tree in order through parent references. It
+	 * does not split, since handing out a subtree would need a stack of pending
+	 * nodes to resume from.
+	 */
+	protected class TreeSpliterator implements Spliterator<T> {
+		private Node<T> next; // the node holding the next value to return
+		private long remaining; // the number of values not yet returned
+		private int returned = 0; // the occurrences of the value of next returned so far
+		private final int expectedModCount = modCount;
+
+		protected TreeSpliterator(Node<T> first, long remaining) {
+			this.next = first;
+			this.remaining = remaining;
+		}
+
+		public boolean tryAdvance(Consumer<? super T> action) {
+			if (action == null)
+				throw new NullPointerException("The action cannot be null.");
+			if (modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+			if (next == null)
+				return false;
+			T data = next.data;
+			if (++returned == occurrences(next)) {
+				returned = 0;
+				next = successor(next);
+			}
+			remaining--;
+			action.accept(data);
+			return true;
+		}
+
+		public void forEachRemaining(Consumer<? super T> action) {
+			if (action == null)
+				throw new NullPointerException("The action cannot be null.");
+			for (; next != null; next = successor(next)) {
+				for (int i = occurrences(next) - returned; i > 0; i--) {
+					action.accept(next.data);
+				}
+				returned = 0;
+			}
+			remaining = 0;
+			if (modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+		}
+
+		public Spliterator<T> trySplit() {
+			return null;
+		}
+
+		public long estimateSize() {
+			return remaining;
+		}
+
+		public int characteristics() {
+			return Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL
+					| Spliterator.SIZED;
+		}
+
+		public Comparator<? super T> getComparator() {
+			// null means the values are in their natural order
+			return comparator;
+		}
+	}
+
+	/**
+	 * Returns the number of nodes on the longest path from the root to a leaf, 0
+	 * when the tree is empty. This visits every node, in O(n) time, but only needs
+	 * stack space for one path, which is O(log n) deep in a balanced tree.
+	 *
+	 * @return the height of the tree
+	 */
+	public int height() {
+		return height(root);
+	}
+
+	private static int height(Node<?> node) {
+		return node == null ? 0 : 1 + Math.max(height(node.left), height(node.right));
+	}
+
+	/**
+	 * Returns the number of black nodes on the path from the root to its leftmost
+	 * leaf, which is the black height of every path when the tree is valid.
+	 *
+	 * @return the black height of the tree
+	 */
+	public int blackHeight() {
+		int blackHeight = 0;
+		for (Node<T> node = root; node != null; node = node.left) {
+			blackHeight += node.blackHeight;
+		}
+		return blackHeight;
+	}
+
+	/**
+	 * Checks every Red-Black Tree invariant in O(n) time: the root is black, no
+	 * red node has a red child, every path from a node to its leaves has the same
+	 * number of black nodes, the values are in strictly ascending order, the
+	 * parent references match the child references, and size matches the number
+	 * of values (the number of nodes, unless a node holds several occurrences).
+	 *
+	 * @throws IllegalStateException describing the first violation found
+	 */
+	public void validate() {
+		if (root == null) {
+			if (size != 0)
+				throw new IllegalStateException("The tree is empty but its size is " + size);
+			return;
+		}
+		if (root.parent != null)
+			throw new IllegalStateException("The root " + root.data + " has a parent");
+		if (root.blackHeight != 1)
+			throw new IllegalStateException("The root " + root.data + " is red");
+		int[] count = new int[1];
+		validateSubtree(root, null, null, count);
+		if (count[0] != size)
+			throw new IllegalStateException("The tree holds " + count[0] + " values but its size is " + size);
+	}
+
+	/**
+	 * Recursive helper method for validate that checks the subtree at node, whose
+	 * values must be greater than lo and less than hi (when they are not null),
+	 * and adds the number of occurrences of its values to count.
+	 *
+	 * @return the black height of the subtree
+	 */
+	private int validateSubtree(Node<T> node, T lo, T hi, int[] count) {
+		if (node == null)
+			return 0;
+		count[0] += occurrences(node);
+		if (node.data == null)
+			throw new IllegalStateException("A node holds null");
+		if (node.blackHeight != 0 && node.blackHeight != 1)
+			throw new IllegalStateException("The node " + node.data + " has no valid color: " + node.blackHeight);
+		if ((lo != null && compare(node.data, lo) <= 0) || (hi != null && compare(node.data, hi) >= 0))
+			throw new IllegalStateException("The node " + node.data + " is out of order");
+		validateLink(node, node.left);
+		validateLink(node, node.right);
+		int leftHeight = validateSubtree(node.left, lo, node.data, count);
+		int rightHeight = validateSubtree(node.right, node.data, hi, count);
+		if (leftHeight != rightHeight)
+			throw new IllegalStateException("The subtrees of " + node.data + " have the black heights " + leftHeight
+					+ " and " + rightHeight);
+		return leftHeight + node.blackHeight;
+	}
+
+	// checks the reference from child back to node and the colors of both
+	private static <T> void validateLink(Node<T> node, Node<T> child) {
+		if (child == null)
+			return;
+		if (child.parent != node)
+			throw new IllegalStateException("The node " + child.data + " does not reference its parent " + node.data);
+		if (node.blackHeight == 0 && child.blackHeight == 0)
+			throw new IllegalStateException("The red node " + node.data + " has the red child " + child.data);
+	}
+
+	/**
+	 * Returns a statistics view of this tree, which can be registered as a JMX
+	 * MBean with RedBlackTreeStats.register.
+	 *
+	 * @return the statistics of this tree
+	 */
+	public RedBlackTreeStats getStats() {
+		return new RedBlackTreeStats(this);
+	}
+
+	/**
+	 * Sets the rotation, recolor, and search counters of this tree back to 0.
+	 */
+	public void resetStats() {
+		rotations = 0;
+		recolors = 0;
+		searches = 0;
+		searchSteps = 0;
+	}
+
 	/**
 	 * This method performs an inorder traversal of the tree. The string
 	 * representations of each data value within this tree are assembled into a
@@ -535,23 +2108,15 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 	 */
 	public String toInOrderString() {
 		// generate a string of all values of the tree in (ordered) in-order
-		// traversal sequence
-		StringBuffer sb = new StringBuffer();
+		// traversal sequence, walking successors instead of using a stack
+		StringBuilder sb = new StringBuilder();
 		sb.append("[ ");
-		if (this.root != null) {
-			Stack<Node<T>> nodeStack = new Stack<>();
-			Node<T> current = this.root;
-			while (!nodeStack.isEmpty() || current != null) {
-				if (current == null) {
-					Node<T> popped = nodeStack.pop();
-					sb.append(popped.data.toString());
-					if (!nodeStack.isEmpty() || popped.context[2] != null)
-						sb.append(", ");
-					current = popped.context[2];
-				} else {
-					nodeStack.add(current);
-					current = current.context[1];
-				}
+		Node<T> lastNode = lastNode();
+		for (Node<T> node = firstNode(); node != null; node = successor(node)) {
+			for (int i = occurrences(node); i > 0; i--) {
+				sb.append(node.data.toString());
+				if (node != lastNode || i > 1)
+					sb.append(", ");
 			}
 		}
 		sb.append(" ]");
@@ -575,10 +2140,10 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 			q.add(this.root);
 			while (!q.isEmpty()) {
 				Node<T> next = q.removeFirst();
-				if (next.context[1] != null)
-					q.add(next.context[1]);
-				if (next.context[2] != null)
-					q.add(next.context[2]);
+				if (next.left != null)
+					q.add(next.left);
+				if (next.right != null)
+					q.add(next.right);
 				sb.append(next.data.toString());
 				if (!q.isEmpty())
 					sb.append(", ");
@@ -0,0 +1,68 @@
+import org.openjdk.jmh.infra.Blackhole;
+
+import benchmarks.RedBlackTreeBenchmark.Target;
+
+/**
+ * The adapters of benchmarks.RedBlackTreeBenchmark for the collections of this
+ * directory, which that benchmark cannot refer to from its package, so it calls
+ * these factory methods through reflection.
+ */
+public class RedBlackTreeBenchmarkTargets {
+
+	/**
+	 * @return an adapter for a new, empty RedBlackTree
+	 */
+	public static Target redBlackTree() {
+		RedBlackTree<Integer> tree = new RedBlackTree<Integer>();
+		return new Target() {
+			public void insert(Integer value) {
+				tree.insert(value);
+			}
+
+			public boolean contains(Integer value) {
+				return tree.contains(value);
+			}
+
+			public void remove(Integer value) {
+				tree.remove(value);
+			}
+
+			public void traverse(Blackhole blackhole) {
+				tree.forEach(blackhole::consume);
+			}
+
+			public int height() {
+				return tree.height();
+			}
+		};
+	}
+
+	/**
+	 * @return an adapter for a new, empty BPlusTree
+	 */
+	public static Target bPlusTree() {
+		BPlusTree<Integer> bPlusTree = new BPlusTree<Integer>();
+		return new Target() {
+			public void insert(Integer value) {
+				bPlusTree.insert(value);
+			}
+
+			public boolean contains(Integer value) {
+				return bPlusTree.contains(value);
+			}
+
+			public void remove(Integer value) {
+				bPlusTree.remove(value);
+			}
+
+			public void traverse(Blackhole blackhole) {
+				bPlusTree.forEach(blackhole::consume);
+			}
+
+			public int height() {
+				return bPlusTree.height();
+			}
+		};
+	}
+
+}
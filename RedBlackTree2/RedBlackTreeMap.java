@@ -0,0 +1,331 @@
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * This class implements MapADT with a RedBlackTree holding key-value pairs
+ * ordered by their keys. Besides the operations of the MapADT, which all take
+ * O(log n) time, it offers ordered navigation over its entries.
+ * 
+ * @param <KeyType>
+ * @param <ValueType>
+ */
+public class RedBlackTreeMap<KeyType extends Comparable<KeyType>, ValueType> implements MapADT<KeyType, ValueType> {
+
+	private final RedBlackTree<KeyValuePair<KeyType, ValueType>> tree; // tree of pairs ordered by key
+
+	/**
+	 * The helper class pairs key and value to a single mapping object. Pairs are
+	 * compared by their keys only, so that a pair with a null value can be used
+	 * to look up the pair stored for a key.
+	 *
+	 * @param <KeyType>
+	 * @param <ValueType>
+	 */
+	protected static class KeyValuePair<KeyType extends Comparable<KeyType>, ValueType>
+			implements Comparable<KeyValuePair<KeyType, ValueType>>, Map.Entry<KeyType, ValueType> {
+
+		protected KeyType key; // key of the pair
+		protected ValueType value; // value of the pair
+
+		/**
+		 * Constructor of KeyValuePair class
+		 * 
+		 * @param key
+		 * @param value
+		 */
+		protected KeyValuePair(KeyType key, ValueType value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		/**
+		 * getter method for key
+		 * 
+		 * @return key
+		 */
+		public KeyType getKey() {
+			return this.key;
+		}
+
+		/**
+		 * getter method for value
+		 * 
+		 * @return value
+		 */
+		public ValueType getValue() {
+			return this.value;
+		}
+
+		/**
+		 * Entries of this map are read-only, use remove and put to change a value.
+		 * 
+		 * @throws UnsupportedOperationException always
+		 */
+		public ValueType setValue(ValueType value) {
+			throw new UnsupportedOperationException("entries of this map are read-only");
+		}
+
+		/**
+		 * compares two pairs by their keys
+		 */
+		public int compareTo(KeyValuePair<KeyType, ValueType> other) {
+			return this.key.compareTo(other.key);
+		}
+
+		/**
+		 * compares this pair with another Map.Entry by key and value, as specified
+		 * by Map.Entry; unlike compareTo, which only compares keys
+		 */
+		public boolean equals(Object other) {
+			if (!(other instanceof Map.Entry))
+				return false;
+			Map.Entry<?, ?> entry = (Map.Entry<?, ?>) other;
+			return Objects.equals(key, entry.getKey()) && Objects.equals(value, entry.getValue());
+		}
+
+		/**
+		 * hashes key and value as specified by Map.Entry
+		 */
+		public int hashCode() {
+			return Objects.hashCode(key) ^ Objects.hashCode(value);
+		}
+
+		public String toString() {
+			return key + "=" + value;
+		}
+	}
+
+	/**
+	 * Default constructor of RedBlackTreeMap class
+	 * 
+	 */
+	public RedBlackTreeMap() {
+		this.tree = new RedBlackTree<>();
+	}
+
+	/**
+	 * The method adds a new key-value pair/mapping to this collection
+	 * 
+	 * @param key   - the key of newly added object
+	 * @param value - the value of newly added object
+	 * @throws IllegalArgumentException - when key is null or duplicate of one
+	 *                                  already stored
+	 */
+	public void put(KeyType key, ValueType value) throws IllegalArgumentException {
+		if (key == null) {
+			throw new IllegalArgumentException("key cannot be null!");
+		}
+		if (!tree.tryInsert(new KeyValuePair<>(key, value))) {
+			throw new IllegalArgumentException("key is already stored in tree map!");
+		}
+	}
+
+	/**
+	 * check whether a key maps to a value within this collection
+	 * 
+	 * @param key - key of the pair
+	 */
+	public boolean containsKey(KeyType key) {
+		if (key == null) {
+			return false;
+		}
+		return tree.findNodeWithData(probe(key)) != null;
+	}
+
+	/**
+	 * retrieve the specific value that a key maps to throws exception when key is
+	 * not stored in this collection
+	 * 
+	 * @param key - key of the pair
+	 * @throws NoSuchElementException - when key is not stored in this collection
+	 */
+	public ValueType get(KeyType key) throws NoSuchElementException {
+		RedBlackTree.Node<KeyValuePair<KeyType, ValueType>> node = key == null ? null
+				: tree.findNodeWithData(probe(key));
+		if (node == null) {
+			throw new NoSuchElementException("this key is not stored in this collection");
+		}
+		return node.data.getValue();
+	}
+
+	/**
+	 * remove the mapping for a given key from this collection throws exception when
+	 * key is not stored in this collection
+	 * 
+	 * @param key - key of the pair
+	 * @throws NoSuchElementException - when key is not stored in this collection
+	 */
+	public ValueType remove(KeyType key) throws NoSuchElementException {
+		KeyValuePair<KeyType, ValueType> removed = key == null ? null : tree.removeIfPresent(probe(key));
+		if (removed == null) {
+			throw new NoSuchElementException("this key is not stored in this collection");
+		}
+		return removed.getValue();
+	}
+
+	/**
+	 * remove all key-value pairs from this collection; the views returned before
+	 * are emptied as well
+	 */
+	public void clear() {
+		tree.clear();
+	}
+
+	/**
+	 * retrieve the number of keys stored within this collection
+	 */
+	public int getSize() {
+		return tree.size();
+	}
+
+	/**
+	 * retrieve this collection's capacity, which for a tree is always the number
+	 * of keys it stores
+	 */
+	public int getCapacity() {
+		return tree.size();
+	}
+
+	/**
+	 * retrieve the entry with the smallest key
+	 * 
+	 * @return the first entry, or null when this collection is empty
+	 */
+	public Map.Entry<KeyType, ValueType> firstEntry() {
+		return entryOf(tree.firstNode());
+	}
+
+	/**
+	 * retrieve the entry with the largest key
+	 * 
+	 * @return the last entry, or null when this collection is empty
+	 */
+	public Map.Entry<KeyType, ValueType> lastEntry() {
+		return entryOf(tree.lastNode());
+	}
+
+	/**
+	 * retrieve the entry with the largest key less than or equal to the given key
+	 * 
+	 * @param key - the key to compare against
+	 * @return the floor entry, or null when there is no such entry
+	 */
+	public Map.Entry<KeyType, ValueType> floorEntry(KeyType key) {
+		return tree.floor(probe(key));
+	}
+
+	/**
+	 * retrieve the entry with the smallest key greater than or equal to the given
+	 * key
+	 * 
+	 * @param key - the key to compare against
+	 * @return the ceiling entry, or null when there is no such entry
+	 */
+	public Map.Entry<KeyType, ValueType> ceilingEntry(KeyType key) {
+		return tree.ceiling(probe(key));
+	}
+
+	/**
+	 * retrieve the entry with the smallest key strictly greater than the given key
+	 * 
+	 * @param key - the key to compare against
+	 * @return the higher entry, or null when there is no such entry
+	 */
+	public Map.Entry<KeyType, ValueType> higherEntry(KeyType key) {
+		return tree.higher(probe(key));
+	}
+
+	/**
+	 * retrieve the entry with the largest key strictly less than the given key
+	 * 
+	 * @param key - the key to compare against
+	 * @return the lower entry, or null when there is no such entry
+	 */
+	public Map.Entry<KeyType, ValueType> lowerEntry(KeyType key) {
+		return tree.lower(probe(key));
+	}
+
+	/**
+	 * retrieve a lazy view of the entries with keys from fromKey (inclusive) to
+	 * toKey (exclusive), in key order
+	 * 
+	 * @param fromKey - the smallest key of the view (inclusive)
+	 * @param toKey   - the end of the view (exclusive)
+	 * @return an Iterable over the entries of the view
+	 * @throws IllegalArgumentException - when fromKey is greater than toKey
+	 */
+	public Iterable<Map.Entry<KeyType, ValueType>> subMap(KeyType fromKey, KeyType toKey) {
+		return entries(tree.range(probe(fromKey), probe(toKey)));
+	}
+
+	/**
+	 * retrieve a lazy view of the entries with keys strictly less than toKey, in
+	 * key order
+	 * 
+	 * @param toKey - the end of the view (exclusive)
+	 * @return an Iterable over the entries of the view
+	 */
+	public Iterable<Map.Entry<KeyType, ValueType>> headMap(KeyType toKey) {
+		return entries(tree.headSet(probe(toKey)));
+	}
+
+	/**
+	 * retrieve a lazy view of the entries with keys greater than or equal to
+	 * fromKey, in key order
+	 * 
+	 * @param fromKey - the smallest key of the view (inclusive)
+	 * @return an Iterable over the entries of the view
+	 */
+	public Iterable<Map.Entry<KeyType, ValueType>> tailMap(KeyType fromKey) {
+		return entries(tree.tailSet(probe(fromKey)));
+	}
+
+	/**
+	 * retrieve a lazy view of all entries, in key order
+	 * 
+	 * @return an Iterable over the entries of this collection
+	 */
+	public Iterable<Map.Entry<KeyType, ValueType>> entries() {
+		return entries(tree);
+	}
+
+	/**
+	 * creates a pair holding only a key, used to look up the stored pair
+	 * 
+	 * @throws NullPointerException - when key is null
+	 */
+	private KeyValuePair<KeyType, ValueType> probe(KeyType key) {
+		if (key == null) {
+			throw new NullPointerException("key cannot be null!");
+		}
+		return new KeyValuePair<>(key, null);
+	}
+
+	/**
+	 * returns the pair stored in a node, or null for a null node
+	 */
+	private Map.Entry<KeyType, ValueType> entryOf(RedBlackTree.Node<KeyValuePair<KeyType, ValueType>> node) {
+		return node == null ? null : node.data;
+	}
+
+	/**
+	 * views an Iterable of pairs as an Iterable of entries
+	 */
+	private Iterable<Map.Entry<KeyType, ValueType>> entries(Iterable<KeyValuePair<KeyType, ValueType>> pairs) {
+		return () -> {
+			Iterator<KeyValuePair<KeyType, ValueType>> iterator = pairs.iterator();
+			return new Iterator<Map.Entry<KeyType, ValueType>>() {
+				public boolean hasNext() {
+					return iterator.hasNext();
+				}
+
+				public Map.Entry<KeyType, ValueType> next() {
+					return iterator.next();
+				}
+			};
+		};
+	}
+
+}
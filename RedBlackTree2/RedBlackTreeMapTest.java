@@ -0,0 +1,112 @@
+import static org.junit.Assert.*;
+
+import java.util.AbstractMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * This class contains test methods that test the implementation of the
+ * RedBlackTreeMap class to verify the put, get, remove and ordered navigation
+ * operations.
+ * 
+ */
+public class RedBlackTreeMapTest {
+
+	/**
+	 * This method focuses on testing put, get and remove functionality. It adds
+	 * five key-value pairs, checks their values, removes one pair and checks that
+	 * it does not exist in the collection anymore.
+	 */
+	@Test
+	public void putGetRemoveTest() {
+		RedBlackTreeMap<String, Integer> map = new RedBlackTreeMap<>();
+		map.put("C", 3);
+		map.put("A", 1);
+		map.put("E", 5);
+		map.put("B", 2);
+		map.put("D", 4);
+
+		assertEquals(5, map.getSize());
+		assertEquals(Integer.valueOf(2), map.get("B"));
+		assertEquals(Integer.valueOf(3), map.remove("C"));
+		assertFalse(map.containsKey("C"));
+		assertEquals(4, map.getSize());
+
+		try {
+			map.get("C");
+			fail("Expected NoSuchElementException");
+		} catch (NoSuchElementException e) {
+			// expected: the key was removed
+		}
+		try {
+			map.put("A", 10);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected: the key is already stored
+		}
+	}
+
+	/**
+	 * This method focuses on testing ordered navigation. It adds prices as keys
+	 * and checks the first, last, floor and ceiling entries and a sub-map view.
+	 */
+	@Test
+	public void navigationTest() {
+		RedBlackTreeMap<Integer, String> map = new RedBlackTreeMap<>();
+		for (int price = 100; price <= 200; price += 20) {
+			map.put(price, "order" + price);
+		}
+
+		assertEquals(Integer.valueOf(100), map.firstEntry().getKey());
+		assertEquals(Integer.valueOf(200), map.lastEntry().getKey());
+		assertEquals("order140", map.floorEntry(150).getValue());
+		assertEquals("order160", map.ceilingEntry(150).getValue());
+		assertEquals(Integer.valueOf(180), map.higherEntry(160).getKey());
+		assertEquals(Integer.valueOf(140), map.lowerEntry(160).getKey());
+		assertNull(map.lowerEntry(100));
+
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<Integer, String> entry : map.subMap(120, 180)) {
+			sb.append(entry.getKey()).append(' ');
+		}
+		assertEquals("120 140 160 ", sb.toString());
+	}
+
+	/**
+	 * This method checks that entries follow the equals and hashCode contract of
+	 * Map.Entry, and that clear empties the views created before it.
+	 */
+	@Test
+	public void entriesAndClearTest() {
+		RedBlackTreeMap<String, Integer> map = new RedBlackTreeMap<>();
+		map.put("A", 1);
+		map.put("B", 2);
+
+		Map.Entry<String, Integer> first = map.firstEntry();
+		Map.Entry<String, Integer> expected = new AbstractMap.SimpleEntry<>("A", 1);
+		assertEquals(expected, first);
+		assertEquals(first, expected);
+		assertEquals(expected.hashCode(), first.hashCode());
+		assertFalse(first.equals(new AbstractMap.SimpleEntry<>("A", 2)));
+
+		Set<Map.Entry<String, Integer>> set = new HashSet<>();
+		for (Map.Entry<String, Integer> entry : map.entries()) {
+			set.add(entry);
+		}
+		assertTrue(set.contains(new AbstractMap.SimpleEntry<>("B", 2)));
+
+		Iterable<Map.Entry<String, Integer>> entries = map.entries();
+		Iterable<Map.Entry<String, Integer>> tail = map.tailMap("A");
+		map.clear();
+		assertEquals(0, map.getSize());
+		assertFalse(entries.iterator().hasNext());
+		assertFalse(tail.iterator().hasNext());
+		map.put("C", 3);
+		assertEquals("C", entries.iterator().next().getKey());
+	}
+
+}
@@ -0,0 +1,208 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Saves RedBlackTrees to binary files and loads them back. The values are
+ * written in order, one chunk at a time, through a FileChannel with an
+ * ElementCodec, so saving a tree never needs more than one chunk of extra
+ * memory. Loading maps the file into memory one window at a time and rebuilds
+ * the tree from the sorted values in linear time.
+ *
+ * File format: the magic number, the number of values as a long, and then the
+ * values in ascending order as written by the codec.
+ */
+public class RedBlackTreeSerializer {
+
+	public static final int MAGIC = 0x52425431; // "RBT1"
+	private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+	private static final int CHUNK_SIZE = 1 << 16; // bytes written per FileChannel.write
+	private static final long MAX_WINDOW_SIZE = 1L << 30; // bytes mapped at a time when loading
+
+	private RedBlackTreeSerializer() {
+	}
+
+	/**
+	 * Writes the values of tree to file in ascending order, replacing the file
+	 * when it already exists.
+	 *
+	 * @param tree  the tree to save
+	 * @param codec the codec to write each value with
+	 * @param file  the file to write to
+	 * @throws IOException                     when the file cannot be written
+	 * @throws ConcurrentModificationException when the tree is modified while it
+	 *                                         is being written
+	 */
+	public static <T extends Comparable<T>> void write(RedBlackTree<T> tree, ElementCodec<? super T> codec, Path file)
+			throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ChunkWriter<T> writer = new ChunkWriter<>(channel, codec);
+			writer.buffer.putInt(MAGIC);
+			writer.buffer.putLong(tree.size());
+			try {
+				tree.forEach(writer);
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			writer.flush();
+		}
+	}
+
+	/**
+	 * Helper class that encodes values into a direct buffer and writes the buffer
+	 * to the channel whenever the next value might not fit into it.
+	 */
+	private static class ChunkWriter<T> implements Consumer<T> {
+		private final FileChannel channel;
+		private final ElementCodec<? super T> codec;
+		private ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_SIZE);
+
+		private ChunkWriter(FileChannel channel, ElementCodec<? super T> codec) {
+			this.channel = channel;
+			this.codec = codec;
+		}
+
+		public void accept(T value) {
+			int needed = codec.maxEncodedSize(value);
+			try {
+				if (buffer.remaining() < needed) {
+					flush();
+					if (buffer.capacity() < needed) {
+						// a single value larger than a chunk gets a buffer of its own
+						buffer = ByteBuffer.allocateDirect(needed);
+					}
+				}
+				codec.write(value, buffer);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		private void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+	}
+
+	/**
+	 * Loads a tree written by write, ordering its values by their natural
+	 * ordering.
+	 *
+	 * @param file  the file to read from
+	 * @param codec the codec the values were written with
+	 * @return a new tree holding the values of the file
+	 * @throws IOException              when the file cannot be read, is not a
+	 *                                  saved tree, or is truncated
+	 * @throws IllegalArgumentException when the values in the file are not in
+	 *                                  strictly ascending order
+	 */
+	public static <T extends Comparable<T>> RedBlackTree<T> read(Path file, ElementCodec<T> codec) throws IOException {
+		return read(file, codec, null);
+	}
+
+	/**
+	 * Loads a tree written by write, ordering its values with the provided
+	 * comparator.
+	 *
+	 * @param file       the file to read from
+	 * @param codec      the codec the values were written with
+	 * @param comparator the comparator to order values with, or null to use their
+	 *                   natural ordering
+	 * @return a new tree holding the values of the file
+	 * @throws IOException              when the file cannot be read, is not a
+	 *                                  saved tree, or is truncated
+	 * @throws IllegalArgumentException when the values in the file are not in
+	 *                                  strictly ascending order
+	 */
+	public static <T extends Comparable<T>> RedBlackTree<T> read(Path file, ElementCodec<T> codec,
+			Comparator<? super T> comparator) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_SIZE)
+				throw new IOException("The file is too short to hold a RedBlackTree: " + file);
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+			if (header.getInt() != MAGIC)
+				throw new IOException("The file does not hold a RedBlackTree: " + file);
+			long count = header.getLong();
+			if (count < 0 || count > Integer.MAX_VALUE)
+				throw new IOException("Invalid number of values: " + count);
+
+			RedBlackTree<T> tree = new RedBlackTree<T>(comparator);
+			try {
+				tree.loadSorted(new MappedIterator<>(channel, codec, count), (int) count);
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			return tree;
+		}
+	}
+
+	/**
+	 * Helper class that decodes count values from a mapped window of the file.
+	 * When a value runs past the end of the window, the window is mapped again
+	 * starting at that value, and is made larger if the value still does not fit.
+	 */
+	private static class MappedIterator<T> implements Iterator<T> {
+		private final FileChannel channel;
+		private final ElementCodec<T> codec;
+		private long remaining; // the number of values not yet decoded
+		private long windowStart = HEADER_SIZE; // file position of the window
+		private long windowSize = MAX_WINDOW_SIZE; // the most bytes to map at a time
+		private MappedByteBuffer window;
+
+		private MappedIterator(FileChannel channel, ElementCodec<T> codec, long count) throws IOException {
+			this.channel = channel;
+			this.codec = codec;
+			this.remaining = count;
+			this.window = map(windowStart);
+		}
+
+		private MappedByteBuffer map(long position) throws IOException {
+			long length = Math.min(windowSize, channel.size() - position);
+			return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+		}
+
+		public boolean hasNext() {
+			return remaining > 0;
+		}
+
+		public T next() {
+			if (remaining == 0)
+				throw new NoSuchElementException("There are no more values in this file.");
+			try {
+				while (true) {
+					int start = window.position();
+					try {
+						T value = codec.read(window);
+						remaining--;
+						return value;
+					} catch (BufferUnderflowException e) {
+						// the value crosses the end of the window
+						if (windowStart + window.limit() >= channel.size())
+							throw new IOException("The file ends in the middle of a value.");
+						if (start == 0)
+							windowSize = Math.min(2 * windowSize, Integer.MAX_VALUE);
+						windowStart += start;
+						window = map(windowStart);
+					}
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+}
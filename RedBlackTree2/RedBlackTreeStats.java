@@ -0,0 +1,83 @@
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Statistics view of a RedBlackTree. The getters read the counters of the tree
+ * each time they are called, so a single instance can be registered as a JMX
+ * MBean and polled for as long as the tree exists. The height of the tree takes
+ * a walk over all of its nodes, so it is only computed by the computeHeight
+ * operation when it is asked for.
+ */
+public class RedBlackTreeStats implements RedBlackTreeStatsMBean {
+
+	private final RedBlackTree<?> tree; // the tree to report on
+
+	/**
+	 * Creates a statistics view of the provided tree.
+	 *
+	 * @param tree the tree to report on
+	 */
+	public RedBlackTreeStats(RedBlackTree<?> tree) {
+		if (tree == null)
+			throw new NullPointerException("The tree cannot be null.");
+		this.tree = tree;
+	}
+
+	/**
+	 * Registers the statistics of a tree with the platform MBean server under the
+	 * name "RedBlackTree:name=" followed by the provided name.
+	 *
+	 * @param tree the tree to report on
+	 * @param name the name to register the statistics under
+	 * @return the registered statistics
+	 * @throws JMException when the name is invalid or already registered
+	 */
+	public static RedBlackTreeStats register(RedBlackTree<?> tree, String name) throws JMException {
+		RedBlackTreeStats stats = new RedBlackTreeStats(tree);
+		ManagementFactory.getPlatformMBeanServer().registerMBean(stats,
+				new ObjectName("RedBlackTree:name=" + ObjectName.quote(name)));
+		return stats;
+	}
+
+	public int getSize() {
+		return tree.size();
+	}
+
+	public int getBlackHeight() {
+		return tree.blackHeight();
+	}
+
+	public long getRotationCount() {
+		return tree.rotations;
+	}
+
+	public long getRecolorCount() {
+		return tree.recolors;
+	}
+
+	public long getSearchCount() {
+		return tree.searches;
+	}
+
+	public double getAverageSearchDepth() {
+		long searches = tree.searches;
+		return searches == 0 ? 0 : (double) tree.searchSteps / searches;
+	}
+
+	public void resetStats() {
+		tree.resetStats();
+	}
+
+	public int computeHeight() {
+		return tree.height();
+	}
+
+	public String toString() {
+		return "size=" + getSize() + ", blackHeight=" + getBlackHeight() + ", rotations="
+				+ getRotationCount() + ", recolors=" + getRecolorCount() + ", searches=" + getSearchCount()
+				+ ", averageSearchDepth=" + getAverageSearchDepth();
+	}
+
+}
@@ -0,0 +1,34 @@
+/**
+ * This JMX management interface exposes the shape statistics of a
+ * RedBlackTree. It is implemented by RedBlackTreeStats.
+ */
+public interface RedBlackTreeStatsMBean {
+
+    // retrieve the number of values stored in the tree
+    public int getSize();
+
+    // retrieve the number of black nodes on the path from the root to its leftmost leaf
+    public int getBlackHeight();
+
+    // retrieve the number of rotations done by insert and remove
+    public long getRotationCount();
+
+    // retrieve the number of times insert recolored a red uncle
+    public long getRecolorCount();
+
+    // retrieve the number of lookups of a value in the tree
+    public long getSearchCount();
+
+    // retrieve the average number of nodes visited by a lookup, 0 without lookups
+    public double getAverageSearchDepth();
+
+    // set the rotation, recolor, and search counters back to 0
+    public void resetStats();
+
+    // compute the number of nodes on the longest path from the root to a leaf
+    // this is an operation rather than an attribute because it visits every node
+    // of the tree, without any synchronization against writers, so monitoring
+    // tools must not poll it
+    public int computeHeight();
+
+}
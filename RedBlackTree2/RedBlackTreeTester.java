@@ -1,5 +1,17 @@
 import static org.junit.Assert.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.StreamSupport;
+
 import org.junit.Test;
 
 /**
@@ -72,4 +84,772 @@ public class RedBlackTreeTester {
 
 	}
 
+	/**
+	 * This method inserts the even numbers [2, 4, ..., 20] into the Red-Black Tree
+	 * and checks that the floor, ceiling, higher and lower lookups and the lazy
+	 * range views return the expected values
+	 */
+	@Test
+	public void rangeTest() {
+
+		RedBlackTree<Integer> tree = new RedBlackTree<Integer>();
+
+		for (int i = 2; i <= 20; i += 2) {
+			tree.insert(i);
+		}
+
+		assertEquals(Integer.valueOf(6), tree.floor(7));
+		assertEquals(Integer.valueOf(8), tree.ceiling(7));
+		assertEquals(Integer.valueOf(10), tree.higher(8));
+		assertEquals(Integer.valueOf(6), tree.lower(8));
+		assertEquals(null, tree.floor(1));
+		assertEquals(null, tree.higher(20));
+
+		StringBuilder sb = new StringBuilder();
+		for (Integer value : tree.range(5, 12)) {
+			sb.append(value).append(' ');
+		}
+		assertEquals("6 8 10 ", sb.toString());
+
+		sb = new StringBuilder();
+		for (Integer value : tree.headSet(7)) {
+			sb.append(value).append(' ');
+		}
+		assertEquals("2 4 6 ", sb.toString());
+
+		sb = new StringBuilder();
+		for (Integer value : tree.tailSet(16)) {
+			sb.append(value).append(' ');
+		}
+		assertEquals("16 18 20 ", sb.toString());
+	}
+
+	/**
+	 * This method inserts a set of integer nodes [22, 4, 13, 8, 7, 32, 16] into
+	 * the Red-Black Tree and checks that ascending and descending iteration visit
+	 * every value in order, and that modifying the tree during an iteration fails
+	 * fast
+	 */
+	@Test
+	public void iteratorTest() {
+
+		RedBlackTree<Integer> tree = new RedBlackTree<Integer>();
+
+		Integer[] newNodes = { 22, 4, 13, 8, 7, 32, 16 };
+
+		for (Integer insertNode : newNodes) {
+			tree.insert(insertNode);
+		}
+
+		StringBuilder sb = new StringBuilder();
+		for (Integer value : tree) {
+			sb.append(value).append(' ');
+		}
+		assertEquals("4 7 8 13 16 22 32 ", sb.toString());
+
+		sb = new StringBuilder();
+		Iterator<Integer> descending = tree.descendingIterator();
+		while (descending.hasNext()) {
+			sb.append(descending.next()).append(' ');
+		}
+		assertEquals("32 22 16 13 8 7 4 ", sb.toString());
+
+		assertEquals(7, StreamSupport.stream(tree.spliterator(), false).count());
+
+		Iterator<Integer> iterator = tree.iterator();
+		iterator.next();
+		tree.insert(5);
+		try {
+			iterator.next();
+			fail("Expected ConcurrentModificationException");
+		} catch (ConcurrentModificationException e) {
+			// expected: the tree was modified during the iteration
+		}
+	}
+
+	/**
+	 * This method bulk-loads the sorted integers [1, 2, ..., 10] into a Red-Black
+	 * Tree, checks that the tree is balanced, and then merges a second sorted
+	 * list into it. Unsorted input must be rejected without changing the tree.
+	 */
+	@Test
+	public void bulkLoadTest() {
+
+		RedBlackTree<Integer> tree = RedBlackTree.fromSorted(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+
+		assertEquals(10, tree.size());
+		assertEquals("[ 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 ]", tree.toInOrderString());
+		assertEquals("[ 5, 2, 8, 1, 3, 6, 9, 4, 7, 10 ]", tree.toLevelOrderString());
+
+		tree.addAllSorted(Arrays.asList(0, 11, 12));
+		assertEquals(13, tree.size());
+		assertEquals("[ 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12 ]", tree.toInOrderString());
+
+		try {
+			tree.addAllSorted(Arrays.asList(20, 15));
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected: the values are not sorted
+		}
+		assertEquals(13, tree.size());
+
+		try {
+			tree.addAllSorted(Arrays.asList(-1, null, 20));
+			fail("Expected NullPointerException");
+		} catch (NullPointerException e) {
+			// expected: null values cannot be stored, even among sorted ones
+		}
+		assertEquals(13, tree.size());
+		assertEquals("[ 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12 ]", tree.toInOrderString());
+	}
+
+	/**
+	 * This method splits a Red-Black Tree holding [1, 2, ..., 10] around 6, joins
+	 * the halves back together around a new value, and checks the union,
+	 * intersection and difference of two overlapping trees
+	 */
+	@Test
+	public void joinSplitTest() {
+
+		RedBlackTree<Integer> tree = RedBlackTree.fromSorted(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+
+		RedBlackTree<Integer> greater = tree.split(6);
+		assertEquals("[ 1, 2, 3, 4, 5 ]", tree.toInOrderString());
+		assertEquals("[ 6, 7, 8, 9, 10 ]", greater.toInOrderString());
+		assertEquals(5, tree.size());
+		assertEquals(5, greater.size());
+
+		greater.remove(6);
+		RedBlackTree<Integer> joined = RedBlackTree.join(tree, 6, greater);
+		assertEquals("[ 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 ]", joined.toInOrderString());
+		assertEquals(10, joined.size());
+		assertTrue(tree.isEmpty());
+		assertTrue(greater.isEmpty());
+
+		RedBlackTree<Integer> union = RedBlackTree.union(RedBlackTree.fromSorted(Arrays.asList(1, 3, 5, 7)),
+				RedBlackTree.fromSorted(Arrays.asList(3, 4, 5, 6)));
+		assertEquals("[ 1, 3, 4, 5, 6, 7 ]", union.toInOrderString());
+		assertEquals(6, union.size());
+
+		RedBlackTree<Integer> intersection = RedBlackTree.intersection(
+				RedBlackTree.fromSorted(Arrays.asList(1, 3, 5, 7)), RedBlackTree.fromSorted(Arrays.asList(3, 4, 5, 6)));
+		assertEquals("[ 3, 5 ]", intersection.toInOrderString());
+		assertEquals(2, intersection.size());
+
+		RedBlackTree<Integer> difference = RedBlackTree.difference(RedBlackTree.fromSorted(Arrays.asList(1, 3, 5, 7)),
+				RedBlackTree.fromSorted(Arrays.asList(3, 4, 5, 6)));
+		assertEquals("[ 1, 7 ]", difference.toInOrderString());
+		assertEquals(2, difference.size());
+	}
+
+	/**
+	 * This method removes values from Red-Black Trees, checks that they stay
+	 * balanced, and then splits, joins and unites them, which relies on the black
+	 * heights of the trees being the same along every path
+	 */
+	@Test
+	public void removeThenJoinSplitTest() {
+
+		RedBlackTree<Integer> tree = new RedBlackTree<Integer>();
+		RedBlackTree<Integer> other = new RedBlackTree<Integer>();
+		for (int i = 1; i <= 64; i++) {
+			tree.insert(i);
+			other.insert(100 - i);
+		}
+		for (int i = 1; i <= 64; i += 3) {
+			tree.remove(i);
+			other.remove(100 - i);
+			tree.validate();
+			other.validate();
+		}
+		for (int i = 2; i <= 64; i += 3) {
+			tree.remove(i);
+		}
+		tree.validate();
+		assertEquals(21, tree.size());
+
+		RedBlackTree<Integer> greater = tree.split(30);
+		tree.validate();
+		greater.validate();
+		assertEquals("[ 3, 6, 9, 12, 15, 18, 21, 24, 27 ]", tree.toInOrderString());
+		assertEquals(12, greater.size());
+
+		RedBlackTree<Integer> joined = RedBlackTree.join(tree, 29, greater);
+		joined.validate();
+		assertEquals(22, joined.size());
+
+		RedBlackTree<Integer> union = RedBlackTree.union(joined, other);
+		union.validate();
+		assertEquals(64, union.size());
+		assertTrue(union.contains(29));
+		assertTrue(union.contains(36));
+		assertFalse(union.contains(31));
+	}
+
+	/**
+	 * This method inserts the same values into a Red-Black Tree ordered by a
+	 * reversed comparator and into the primitive long and int trees, and checks
+	 * that each tree orders them as expected
+	 */
+	@Test
+	public void comparatorAndPrimitiveTest() {
+
+		RedBlackTree<Integer> reversed = new RedBlackTree<Integer>(Comparator.reverseOrder());
+		LongRedBlackTree longTree = new LongRedBlackTree();
+		IntRedBlackTree intTree = new IntRedBlackTree();
+
+		int[] newNodes = { 22, 4, 13, 8, 7, 32, 16 };
+
+		for (int insertNode : newNodes) {
+			reversed.insert(insertNode);
+			longTree.insert(insertNode);
+			intTree.insert(insertNode);
+		}
+
+		assertEquals("[ 32, 22, 16, 13, 8, 7, 4 ]", reversed.toInOrderString());
+		assertEquals("[ 4, 7, 8, 13, 16, 22, 32 ]", longTree.toInOrderString());
+		assertEquals("[ 4, 7, 8, 13, 16, 22, 32 ]", intTree.toInOrderString());
+
+		longTree.remove(13);
+		assertFalse(longTree.contains(13));
+		assertTrue(intTree.contains(13));
+		assertEquals(6, longTree.size());
+		assertEquals(4, longTree.first());
+		assertEquals(32, intTree.last());
+	}
+
+	/**
+	 * This method checks that the primitive-key trees keep the Red-Black Tree
+	 * properties under a long run of random insertions and removals.
+	 */
+	@Test
+	public void primitiveChurnTest() {
+
+		IntRedBlackTree intTree = new IntRedBlackTree();
+		LongRedBlackTree longTree = new LongRedBlackTree();
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		Random random = new Random(7);
+		for (int i = 0; i < 50000; i++) {
+			int key = random.nextInt(16384);
+			if (expected.add(key)) {
+				intTree.insert(key);
+				longTree.insert(key * 1000000000L);
+			} else {
+				expected.remove(key);
+				intTree.remove(key);
+				longTree.remove(key * 1000000000L);
+			}
+			if (i % 5000 == 0) {
+				intTree.validate();
+				longTree.validate();
+			}
+		}
+		intTree.validate();
+		longTree.validate();
+		assertEquals(expected.size(), intTree.size());
+		assertEquals(expected.size(), longTree.size());
+		assertEquals((int) expected.first(), intTree.first());
+		assertEquals(expected.last() * 1000000000L, longTree.last());
+	}
+
+	/**
+	 * This method inserts a set of integer nodes [1, 2, 3, 4, 5, 6, 7, 8, 9, 10]
+	 * into the array-backed Red-Black Tree, removes some of them and inserts new
+	 * values, which must reuse the slots of the removed nodes
+	 */
+	@Test
+	public void pooledTest() {
+
+		PooledRedBlackTree<Integer> tree = new PooledRedBlackTree<Integer>();
+
+		for (int i = 1; i <= 10; i++) {
+			tree.insert(i);
+		}
+		assertEquals("[ 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 ]", tree.toInOrderString());
+
+		tree.remove(4);
+		tree.remove(9);
+		assertFalse(tree.contains(4));
+		assertEquals(8, tree.size());
+
+		tree.insert(11);
+		tree.insert(12);
+		assertEquals("[ 1, 2, 3, 5, 6, 7, 8, 10, 11, 12 ]", tree.toInOrderString());
+		// both new values were stored in the slots freed by the removals
+		assertEquals(10, tree.used);
+		tree.validate();
+	}
+
+	/**
+	 * This method checks that the pooled tree keeps the Red-Black Tree properties
+	 * under a long run of random insertions and removals, which reuse the freed
+	 * slots.
+	 */
+	@Test
+	public void pooledChurnTest() {
+
+		PooledRedBlackTree<Integer> tree = new PooledRedBlackTree<Integer>();
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		Random random = new Random(42);
+		for (int i = 0; i < 50000; i++) {
+			int value = random.nextInt(8192);
+			if (expected.add(value)) {
+				tree.insert(value);
+			} else {
+				expected.remove(value);
+				tree.remove(value);
+			}
+			if (i % 5000 == 0)
+				tree.validate();
+		}
+		tree.validate();
+		assertEquals(expected.size(), tree.size());
+		for (int value : expected) {
+			assertTrue(tree.contains(value));
+		}
+	}
+
+	/**
+	 * This method runs four reader threads against the concurrent Red-Black Tree
+	 * while one writer inserts and removes odd values. The even values are never
+	 * removed, so every reader must always find them.
+	 */
+	@Test
+	public void concurrentTest() throws InterruptedException {
+
+		ConcurrentRedBlackTree<Integer> tree = new ConcurrentRedBlackTree<Integer>();
+		for (int i = 0; i < 1000; i += 2) {
+			tree.insert(i);
+		}
+
+		AtomicBoolean missed = new AtomicBoolean(false);
+		Thread[] readers = new Thread[4];
+		for (int r = 0; r < readers.length; r++) {
+			readers[r] = new Thread(() -> {
+				for (int round = 0; round < 200; round++) {
+					for (int i = 0; i < 1000; i += 2) {
+						if (!tree.contains(i))
+							missed.set(true);
+					}
+				}
+			});
+			readers[r].start();
+		}
+		for (int round = 0; round < 20; round++) {
+			for (int i = 1; i < 1000; i += 2) {
+				tree.insert(i);
+			}
+			for (int i = 1; i < 1000; i += 2) {
+				tree.remove(i);
+			}
+		}
+		for (Thread reader : readers) {
+			reader.join();
+		}
+
+		assertFalse(missed.get());
+		assertEquals(500, tree.size());
+	}
+
+	/**
+	 * This method checks that inserting into and removing from a persistent
+	 * Red-Black Tree returns new versions and leaves the older versions intact.
+	 */
+	@Test
+	public void persistentTest() {
+
+		PersistentRedBlackTree<Integer> empty = new PersistentRedBlackTree<Integer>();
+		PersistentRedBlackTree<Integer> tree = empty;
+		for (int i = 1; i <= 10; i++) {
+			tree = tree.insert(i);
+		}
+		PersistentRedBlackTree<Integer> snapshot = tree;
+		tree = tree.remove(5).insert(11);
+
+		assertEquals("[ 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 ]", snapshot.toInOrderString());
+		assertEquals("[ 1, 2, 3, 4, 6, 7, 8, 9, 10, 11 ]", tree.toInOrderString());
+		assertTrue(empty.isEmpty());
+		assertTrue(snapshot.contains(5));
+		assertFalse(tree.contains(5));
+		assertEquals(10, tree.size());
+
+		// the version is unchanged when an operation is rejected
+		try {
+			tree.insert(3);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			tree.remove(5);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		assertEquals(10, tree.size());
+	}
+
+	/**
+	 * This method checks that the B+-tree splits and merges its nodes while
+	 * keeping the same contents as a Red-Black Tree, and that range scans follow
+	 * the linked leaves.
+	 */
+	@Test
+	public void bPlusTreeTest() {
+
+		BPlusTree<Integer> tree = new BPlusTree<Integer>(4, null);
+		RedBlackTree<Integer> reference = new RedBlackTree<Integer>();
+		for (int i = 0; i < 100; i++) {
+			int value = (i * 37) % 100;
+			tree.insert(value);
+			reference.insert(value);
+		}
+		assertEquals(100, tree.size());
+		assertEquals(reference.toInOrderString(), tree.toInOrderString());
+		assertTrue(tree.height() > 2);
+
+		StringBuilder range = new StringBuilder();
+		for (int value : tree.range(10, 15)) {
+			range.append(value).append(' ');
+		}
+		assertEquals("10 11 12 13 14 ", range.toString());
+
+		for (int i = 0; i < 100; i += 2) {
+			tree.remove(i);
+			reference.remove(i);
+		}
+		assertEquals(50, tree.size());
+		assertEquals(reference.toInOrderString(), tree.toInOrderString());
+		assertTrue(tree.contains(51));
+		assertFalse(tree.contains(50));
+
+		try {
+			tree.insert(51);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			tree.remove(50);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		assertEquals(50, tree.size());
+	}
+
+	/**
+	 * This method saves a Red-Black Tree to a binary file and loads it back,
+	 * checking that the loaded tree holds the same values.
+	 */
+	@Test
+	public void serializerTest() throws IOException {
+
+		Path file = Files.createTempFile("RedBlackTreeTester", ".bin");
+		try {
+			RedBlackTree<String> tree = new RedBlackTree<String>();
+			for (String value : new String[] { "delta", "alpha", "echo", "charlie", "bravo" }) {
+				tree.insert(value);
+			}
+			RedBlackTreeSerializer.write(tree, ElementCodec.STRING, file);
+			RedBlackTree<String> loaded = RedBlackTreeSerializer.read(file, ElementCodec.STRING);
+			assertEquals(5, loaded.size());
+			assertEquals("[ alpha, bravo, charlie, delta, echo ]", loaded.toInOrderString());
+
+			RedBlackTree<Integer> numbers = RedBlackTree.fromSorted(Arrays.asList(1, 2, 3, 5, 8, 13));
+			RedBlackTreeSerializer.write(numbers, ElementCodec.INTEGER, file);
+			assertEquals(numbers.toLevelOrderString(),
+					RedBlackTreeSerializer.read(file, ElementCodec.INTEGER).toLevelOrderString());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	/**
+	 * This method checks the shape statistics and the invariant checker of the
+	 * Red-Black Tree.
+	 */
+	@Test
+	public void statsTest() {
+
+		RedBlackTree<Integer> tree = new RedBlackTree<Integer>();
+		for (int i = 1; i <= 10; i++) {
+			tree.insert(i);
+		}
+		tree.validate();
+
+		// level order [ 4, 2, 6, 1, 3, 5, 8, 7, 9, 10 ]
+		RedBlackTreeStats stats = tree.getStats();
+		assertEquals(10, stats.getSize());
+		assertEquals(5, stats.computeHeight());
+		assertEquals(5, tree.height());
+		assertEquals(3, stats.getBlackHeight());
+		assertTrue(stats.getRotationCount() > 0);
+		assertTrue(stats.getRecolorCount() > 0);
+
+		stats.resetStats();
+		assertTrue(tree.contains(4));
+		assertTrue(tree.contains(10));
+		assertEquals(2, stats.getSearchCount());
+		assertEquals(3.0, stats.getAverageSearchDepth(), 0.0);
+
+		// a red node with a red child is reported
+		tree.root.right.blackHeight = 0;
+		tree.root.right.right.blackHeight = 0;
+		try {
+			tree.validate();
+			fail("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * This method checks that finger search finds the same values as a search
+	 * from the root, and that sequential lookups only visit a few nodes each.
+	 */
+	@Test
+	public void fingerSearchTest() {
+
+		RedBlackTree<Integer> tree = new RedBlackTree<Integer>();
+		RedBlackTree<Integer> reference = new RedBlackTree<Integer>();
+		tree.setFingerSearch(true);
+		for (int i = 0; i < 1000; i++) {
+			tree.insert(2 * i);
+			reference.insert(2 * i);
+		}
+		// inserting through the finger builds the same tree
+		assertEquals(reference.toLevelOrderString(), tree.toLevelOrderString());
+
+		tree.resetStats();
+		for (int i = 0; i < 2000; i++) {
+			assertEquals(i % 2 == 0, tree.contains(i));
+		}
+		assertTrue(tree.getStats().getAverageSearchDepth() < 4);
+
+		// the finger stays usable after the node it pointed to is removed
+		tree.remove(1000);
+		assertFalse(tree.contains(1000));
+		assertTrue(tree.contains(1002));
+		assertTrue(tree.contains(0));
+		assertTrue(tree.contains(1998));
+	}
+
+	/**
+	 * This method checks the stabbing and overlap queries of the interval tree,
+	 * including after rotations and removals changed the subtree maximums.
+	 */
+	@Test
+	public void intervalTreeTest() {
+
+		IntervalTree<Integer> tree = new IntervalTree<Integer>();
+		tree.insert(15, 20);
+		tree.insert(10, 30);
+		tree.insert(17, 19);
+		tree.insert(5, 20);
+		tree.insert(12, 15);
+		tree.insert(30, 40);
+
+		assertEquals("[[5, 20], [10, 30], [15, 20], [17, 19]]", tree.stab(18).toString());
+		assertEquals("[[10, 30], [30, 40]]", tree.stab(30).toString());
+		assertEquals("[]", tree.stab(41).toString());
+		assertEquals("[[5, 20], [10, 30], [12, 15]]", tree.overlapping(1, 12).toString());
+
+		tree.remove(10, 30);
+		assertEquals("[[30, 40]]", tree.overlapping(25, 35).toString());
+		assertEquals(5, tree.size());
+
+		try {
+			tree.insert(8, 4);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected: the start is greater than the end
+		}
+	}
+
+	/**
+	 * This method checks that split and the set operations return interval trees
+	 * whose subtree maximums still answer the overlap queries.
+	 */
+	@Test
+	public void intervalTreeSplitUnionTest() {
+
+		IntervalTree<Integer> tree = new IntervalTree<Integer>();
+		IntervalTree<Integer> other = new IntervalTree<Integer>();
+		for (int i = 0; i < 100; i++) {
+			tree.insert(i, i + (i * 37) % 50);
+			other.insert(i + 1, i + 1 + (i * 11) % 20);
+		}
+
+		RedBlackTree<IntervalTree.Interval<Integer>> split = tree.split(new IntervalTree.Interval<Integer>(60, 60));
+		assertTrue(split instanceof IntervalTree);
+		IntervalTree<Integer> greater = (IntervalTree<Integer>) split;
+		tree.validate();
+		greater.validate();
+		assertEquals(60, tree.size());
+		assertEquals(40, greater.size());
+		// the intervals [i, i + (i * 37) % 50] reaching past 100 start before 60
+		assertEquals("[[54, 102], [58, 104]]", tree.overlapping(100, 200).toString());
+		assertEquals("[[60, 80], [61, 68]]", greater.overlapping(0, 61).toString());
+
+		RedBlackTree<IntervalTree.Interval<Integer>> union = RedBlackTree.union(greater, other);
+		assertTrue(union instanceof IntervalTree);
+		IntervalTree<Integer> merged = (IntervalTree<Integer>) union;
+		merged.validate();
+		for (int point = 0; point < 160; point += 7) {
+			for (IntervalTree.Interval<Integer> interval : merged) {
+				assertEquals(interval.overlaps(point, point), merged.stab(point).contains(interval));
+			}
+		}
+
+		try {
+			RedBlackTree.union(tree, new RedBlackTree<IntervalTree.Interval<Integer>>());
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected: plain nodes do not store the maximum ends
+		}
+		assertEquals(60, tree.size());
+	}
+
+	/**
+	 * This method checks that the multiset counts the occurrences of equal
+	 * values, and that iteration and removal follow those counts.
+	 */
+	@Test
+	public void multisetTest() {
+
+		RedBlackMultiset<Integer> multiset = new RedBlackMultiset<Integer>();
+		multiset.insert(20);
+		multiset.insert(10);
+		multiset.insert(20);
+		multiset.insert(30);
+		multiset.insert(20);
+
+		assertEquals(5, multiset.size());
+		assertEquals(3, multiset.count(20));
+		assertEquals(0, multiset.count(25));
+		assertEquals("[ 10, 20, 20, 20, 30 ]", multiset.toInOrderString());
+
+		multiset.remove(20);
+		assertEquals(2, multiset.count(20));
+		assertEquals(4, multiset.size());
+		assertTrue(multiset.contains(20));
+
+		Iterator<Integer> iterator = multiset.iterator();
+		assertEquals(Integer.valueOf(10), iterator.next());
+		assertEquals(Integer.valueOf(20), iterator.next());
+		assertEquals(Integer.valueOf(20), iterator.next());
+		assertEquals(Integer.valueOf(30), iterator.next());
+		assertFalse(iterator.hasNext());
+
+		multiset.remove(10);
+		assertFalse(multiset.contains(10));
+		try {
+			multiset.remove(10);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected: the last occurrence was already removed
+		}
+	}
+
+	/**
+	 * This method checks that split and join keep the counts of a multiset, that
+	 * addAllSorted bulk-loads runs of equal values, and that the set operations
+	 * reject multisets without changing them.
+	 */
+	@Test
+	public void multisetSplitJoinTest() {
+
+		RedBlackMultiset<Integer> multiset = new RedBlackMultiset<Integer>();
+		multiset.insert(3);
+		multiset.addAllSorted(Arrays.asList(1, 1, 2, 3, 3, 5));
+		assertEquals(7, multiset.size());
+		assertEquals(3, multiset.count(3));
+		assertEquals("[ 1, 1, 2, 3, 3, 3, 5 ]", multiset.toInOrderString());
+		multiset.validate();
+
+		try {
+			multiset.addAllSorted(Arrays.asList(4, 2));
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected: the values are not sorted
+		}
+		assertEquals(7, multiset.size());
+		multiset.addAll(Arrays.asList(4, 2));
+		assertEquals(2, multiset.count(2));
+
+		RedBlackTree<Integer> greater = multiset.split(3);
+		assertTrue(greater instanceof RedBlackMultiset);
+		assertEquals(5, greater.size());
+		assertEquals("[ 3, 3, 3, 4, 5 ]", greater.toInOrderString());
+		assertEquals(4, multiset.size());
+		greater.validate();
+		multiset.validate();
+
+		multiset.remove(2);
+		multiset.remove(2);
+		RedBlackTree<Integer> joined = RedBlackTree.join(multiset, 2, greater);
+		assertEquals(8, joined.size());
+		assertEquals("[ 1, 1, 2, 3, 3, 3, 4, 5 ]", joined.toInOrderString());
+		joined.validate();
+
+		RedBlackMultiset<Integer> a = new RedBlackMultiset<Integer>();
+		a.addAllSorted(Arrays.asList(1, 1, 2));
+		RedBlackMultiset<Integer> b = new RedBlackMultiset<Integer>();
+		b.insert(3);
+		try {
+			RedBlackTree.union(a, b);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected: the nodes of a multiset stand for several values
+		}
+		RedBlackTree<Integer> plain = new RedBlackTree<Integer>();
+		plain.insert(3);
+		try {
+			RedBlackTree.difference(plain, a);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected: a multiset cannot share its nodes with a plain tree
+		}
+		assertEquals(3, a.size());
+		assertEquals(1, b.size());
+		a.validate();
+		b.validate();
+	}
+
+	/**
+	 * This method checks that tryInsert, tryRemove, and removeIfPresent report
+	 * present and missing values through their results instead of exceptions,
+	 * for both a tree and a multiset.
+	 */
+	@Test
+	public void tryInsertRemoveTest() {
+
+		RedBlackTree<Integer> tree = new RedBlackTree<Integer>();
+		assertTrue(tree.tryInsert(20));
+		assertTrue(tree.tryInsert(10));
+		assertFalse(tree.tryInsert(20));
+		assertEquals(2, tree.size());
+
+		assertFalse(tree.tryRemove(30));
+		assertNull(tree.removeIfPresent(30));
+		assertEquals(Integer.valueOf(10), tree.removeIfPresent(10));
+		assertTrue(tree.tryRemove(20));
+		assertTrue(tree.isEmpty());
+
+		// removeIfPresent returns the stored value, not the one passed in
+		RedBlackTree<String> strings = new RedBlackTree<String>(String.CASE_INSENSITIVE_ORDER);
+		strings.insert("Apple");
+		assertFalse(strings.tryInsert("APPLE"));
+		assertEquals("Apple", strings.removeIfPresent("apple"));
+
+		RedBlackMultiset<Integer> multiset = new RedBlackMultiset<Integer>();
+		assertTrue(multiset.tryInsert(5));
+		assertTrue(multiset.tryInsert(5));
+		assertEquals(Integer.valueOf(5), multiset.removeIfPresent(5));
+		assertEquals(1, multiset.count(5));
+		assertTrue(multiset.tryRemove(5));
+		assertFalse(multiset.tryRemove(5));
+	}
+
 }
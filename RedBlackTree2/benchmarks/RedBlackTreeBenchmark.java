@@ -0,0 +1,327 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmarks comparing the SortedCollectionInterface implementations of
+ * this directory with java.util.TreeMap. Each benchmark runs for every
+ * combination of implementation, size, and input order:
+ * - build inserts all values into an empty collection (one shot, so the time
+ *   per value is the score divided by size),
+ * - containsHit and containsMiss look up stored and missing values,
+ * - removeAll removes all values in random order (one shot),
+ * - traverse visits all values in order.
+ *
+ * The input order decides the order in which build inserts the values
+ * (RANDOM, SORTED, or REVERSE). ZIPFIAN inserts in random order but draws the
+ * lookups of containsHit from a Zipf distribution, so a few values are looked
+ * up most of the time. The height of the filled collection is reported as the
+ * "height" counter of every benchmark but build, so a balancing regression
+ * shows up next to the times. main runs the suite with the GC profiler, which adds the bytes
+ * allocated per operation ("gc.alloc.rate.norm").
+ *
+ * Larger sizes need a larger heap than the default one, for example
+ * "-p size=10000000,50000000 -jvmArgsAppend -Xmx16g" on the command line. The
+ * RedBlackTree class of the RedBlackTree directory has the same name as the one
+ * here, so it is benchmarked by the RedBlackTreeBenchmark of that directory.
+ *
+ * JMH only generates its harness for benchmark classes in a named package, so
+ * this class is in the benchmarks package and creates the adapters of the
+ * RedBlackTree and BPlusTree through RedBlackTreeBenchmarkTargets, which is in
+ * the default package like them. To build and run it from the RedBlackTree2
+ * directory, with the jmh-core and jmh-generator-annprocess jars and their
+ * dependencies in JMH_CP:
+ *
+ *   javac -cp "$JMH_CP" -processor org.openjdk.jmh.generators.BenchmarkProcessor \
+ *       -d build *.java benchmarks/*.java
+ *   java -cp "build:$JMH_CP" benchmarks.RedBlackTreeBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedBlackTreeBenchmark {
+
+	public enum Implementation {
+		RED_BLACK_TREE, B_PLUS_TREE, TREE_MAP
+	}
+
+	public enum InputOrder {
+		RANDOM, SORTED, REVERSE, ZIPFIAN
+	}
+
+	private static final int LOOKUPS = 1 << 16; // the number of precomputed lookup values (a power of two)
+	private static final double ZIPF_EXPONENT = 0.99;
+
+	/**
+	 * Adapter giving the compared collections the same operations.
+	 */
+	public interface Target {
+		void insert(Integer value);
+
+		boolean contains(Integer value);
+
+		void remove(Integer value);
+
+		void traverse(Blackhole blackhole);
+
+		// the number of levels of the collection, or -1 when it is not known
+		int height();
+	}
+
+	private static Target newTarget(Implementation implementation) {
+		switch (implementation) {
+		case RED_BLACK_TREE:
+			return defaultPackageTarget("redBlackTree");
+		case B_PLUS_TREE:
+			return defaultPackageTarget("bPlusTree");
+		default:
+			TreeMap<Integer, Boolean> map = new TreeMap<>();
+			return new Target() {
+				public void insert(Integer value) {
+					map.put(value, Boolean.TRUE);
+				}
+
+				public boolean contains(Integer value) {
+					return map.containsKey(value);
+				}
+
+				public void remove(Integer value) {
+					map.remove(value);
+				}
+
+				public void traverse(Blackhole blackhole) {
+					map.keySet().forEach(blackhole::consume);
+				}
+
+				public int height() {
+					return -1;
+				}
+			};
+		}
+	}
+
+	// the collections of this directory are in the default package, which this
+	// class cannot import, so their adapters are created through reflection
+	private static Target defaultPackageTarget(String factory) {
+		try {
+			return (Target) Class.forName("RedBlackTreeBenchmarkTargets").getMethod(factory).invoke(null);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Cannot create the " + factory + " benchmark target", e);
+		}
+	}
+
+	/**
+	 * The values of a benchmark: the even numbers 0, 2, ..., 2 * (size - 1) in
+	 * insertion order, and precomputed hits and misses (odd numbers) to look up.
+	 */
+	@State(Scope.Benchmark)
+	public static class Input {
+		@Param({ "RED_BLACK_TREE", "B_PLUS_TREE", "TREE_MAP" })
+		public Implementation implementation;
+
+		@Param({ "1000", "100000", "1000000" })
+		public int size;
+
+		@Param({ "RANDOM", "SORTED", "REVERSE", "ZIPFIAN" })
+		public InputOrder order;
+
+		public Integer[] insertOrder;
+		public Integer[] removeOrder;
+		public Integer[] hits;
+		public Integer[] misses;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			Random random = new Random(42);
+			insertOrder = new Integer[size];
+			for (int i = 0; i < size; i++) {
+				insertOrder[i] = 2 * (order == InputOrder.REVERSE ? size - 1 - i : i);
+			}
+			if (order == InputOrder.RANDOM || order == InputOrder.ZIPFIAN)
+				shuffle(insertOrder, random);
+			removeOrder = insertOrder.clone();
+			shuffle(removeOrder, random);
+
+			hits = new Integer[LOOKUPS];
+			misses = new Integer[LOOKUPS];
+			double[] zipf = order == InputOrder.ZIPFIAN ? zipfCumulative(size) : null;
+			for (int i = 0; i < LOOKUPS; i++) {
+				// ranks of the Zipf distribution are mapped to values through the
+				// random insertion order, so the popular values are spread out
+				int index = zipf == null ? random.nextInt(size) : zipfRank(zipf, random.nextDouble());
+				hits[i] = insertOrder[index];
+				misses[i] = 2 * random.nextInt(size) + 1;
+			}
+		}
+	}
+
+	// shuffles values in place (Fisher-Yates)
+	private static void shuffle(Integer[] values, Random random) {
+		for (int i = values.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			Integer swap = values[i];
+			values[i] = values[j];
+			values[j] = swap;
+		}
+	}
+
+	// returns the cumulative probabilities of the ranks 0 to n - 1
+	private static double[] zipfCumulative(int n) {
+		double[] cumulative = new double[n];
+		double sum = 0;
+		for (int rank = 0; rank < n; rank++) {
+			sum += 1 / Math.pow(rank + 1, ZIPF_EXPONENT);
+			cumulative[rank] = sum;
+		}
+		for (int rank = 0; rank < n; rank++) {
+			cumulative[rank] /= sum;
+		}
+		return cumulative;
+	}
+
+	// returns the first rank whose cumulative probability reaches p
+	private static int zipfRank(double[] cumulative, double p) {
+		int lo = 0;
+		int hi = cumulative.length - 1;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (cumulative[mid] < p)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * A collection holding all values of the input, built once per trial for the
+	 * benchmarks that do not change it.
+	 */
+	@State(Scope.Benchmark)
+	public static class Filled {
+		public Target target;
+		public int height;
+
+		@Setup(Level.Trial)
+		public void setUp(Input input) {
+			target = newTarget(input.implementation);
+			for (Integer value : input.insertOrder) {
+				target.insert(value);
+			}
+			height = target.height();
+		}
+	}
+
+	/**
+	 * A collection holding all values of the input, rebuilt before each
+	 * iteration of removeAll.
+	 */
+	@State(Scope.Thread)
+	public static class Refilled {
+		public Target target;
+		public int height;
+
+		@Setup(Level.Iteration)
+		public void setUp(Input input) {
+			target = newTarget(input.implementation);
+			for (Integer value : input.insertOrder) {
+				target.insert(value);
+			}
+			height = target.height();
+		}
+	}
+
+	/**
+	 * Reports the height of the collection of a benchmark next to its score. The
+	 * benchmarks store the height (computed outside of the measured code) rather
+	 * than add to it, so each iteration reports the height itself.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Shape {
+		public int height;
+	}
+
+	/**
+	 * Position in the precomputed lookups of each benchmark thread.
+	 */
+	@State(Scope.Thread)
+	public static class Cursor {
+		public int next;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public Target build(Input input) {
+		Target target = newTarget(input.implementation);
+		for (Integer value : input.insertOrder) {
+			target.insert(value);
+		}
+		return target;
+	}
+
+	@Benchmark
+	public boolean containsHit(Input input, Filled filled, Cursor cursor, Shape shape) {
+		shape.height = filled.height;
+		return filled.target.contains(input.hits[cursor.next++ & (LOOKUPS - 1)]);
+	}
+
+	@Benchmark
+	public boolean containsMiss(Input input, Filled filled, Cursor cursor, Shape shape) {
+		shape.height = filled.height;
+		return filled.target.contains(input.misses[cursor.next++ & (LOOKUPS - 1)]);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public Target removeAll(Input input, Refilled refilled, Shape shape) {
+		shape.height = refilled.height;
+		Target target = refilled.target;
+		for (Integer value : input.removeOrder) {
+			target.remove(value);
+		}
+		return target;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public void traverse(Filled filled, Shape shape, Blackhole blackhole) {
+		shape.height = filled.height;
+		filled.target.traverse(blackhole);
+	}
+
+	/**
+	 * Runs all benchmarks of this class with the GC profiler, which reports the
+	 * bytes allocated per operation.
+	 */
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(RedBlackTreeBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+
+}